@@ -0,0 +1,80 @@
+package com.sm.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.protobuf.Timestamp;
+import com.sm.patientservice.utils.AppUtils;
+
+/**
+ * Timestamp conversions: two per DTO ({@code createdAt}/{@code updatedAt} strings) and two per event (proto
+ * timestamps). The {@code Now} variants cover the {@code null} argument path that falls back to the current time, and
+ * the {@code legacy} variants run the conversions as they were before AppClock.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class AppUtilsBenchmark {
+
+    private LocalDateTime localDateTime;
+
+    @Setup
+    public void setUp() {
+        localDateTime = PatientFixtures.CREATED_AT;
+    }
+
+    @Benchmark
+    public String convertLocalDateTimeToString() {
+        return AppUtils.convertLocalDateTimeToString(localDateTime);
+    }
+
+    @Benchmark
+    public Timestamp toProtoTimestamp() {
+        return AppUtils.toProtoTimestamp(localDateTime);
+    }
+
+    @Benchmark
+    public Timestamp toProtoTimestampNow() {
+        return AppUtils.toProtoTimestamp(null);
+    }
+
+    @Benchmark
+    public String getCurrentTimestamp() {
+        return AppUtils.getCurrentTimestamp();
+    }
+
+    @Benchmark
+    public String legacyConvertLocalDateTimeToString() {
+        return LegacyAppUtils.convertLocalDateTimeToString(localDateTime);
+    }
+
+    @Benchmark
+    public Timestamp legacyToProtoTimestamp() {
+        return LegacyAppUtils.toProtoTimestamp(localDateTime);
+    }
+
+    @Benchmark
+    public Timestamp legacyToProtoTimestampNow() {
+        return LegacyAppUtils.toProtoTimestamp(null);
+    }
+
+    @Benchmark
+    public String legacyGetCurrentTimestamp() {
+        return LegacyAppUtils.getCurrentTimestamp();
+    }
+
+}
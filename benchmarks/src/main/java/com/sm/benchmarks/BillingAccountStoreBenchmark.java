@@ -0,0 +1,129 @@
+package com.sm.benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sm.billingservice.account.BillingAccountStore;
+import com.sm.billingservice.account.CreateAccountResult;
+
+/**
+ * Scaling of {@link BillingAccountStore#getOrCreate} with the number of threads. {@code create*} creates a new
+ * account on every call, each thread for its own patients, into a store emptied before every iteration;
+ * {@code repeatCreate*} asks again for accounts that already exist, the idempotent path. Total throughput should grow
+ * with the thread count up to the number of cores.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx4g")
+public class BillingAccountStoreBenchmark {
+
+    private static final int EXISTING_PATIENTS = 1 << 16;
+
+    @State(Scope.Benchmark)
+    public static class EmptyStore {
+
+        BillingAccountStore store;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            store = new BillingAccountStore();
+        }
+
+    }
+
+    @State(Scope.Benchmark)
+    public static class FilledStore {
+
+        final BillingAccountStore store = new BillingAccountStore();
+        final String[] patientIds = new String[EXISTING_PATIENTS];
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            for (int i = 0; i < EXISTING_PATIENTS; i++) {
+                patientIds[i] = UUID.randomUUID().toString();
+                store.getOrCreate(patientIds[i], "John Doe", "john.doe@gmail.com");
+            }
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class Caller {
+
+        // Distinct per thread, so creating threads never ask for the same patient
+        final String prefix = UUID.randomUUID() + "-";
+        long created;
+        int existing = ThreadLocalRandom.current().nextInt(EXISTING_PATIENTS);
+
+        String newPatientId() {
+            return prefix + created++;
+        }
+
+        String existingPatientId(FilledStore filled) {
+            existing = (existing + 1) & (EXISTING_PATIENTS - 1);
+            return filled.patientIds[existing];
+        }
+
+    }
+
+    @Benchmark
+    @Threads(1)
+    public CreateAccountResult create1(EmptyStore empty, Caller caller) {
+        return create(empty, caller);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public CreateAccountResult create2(EmptyStore empty, Caller caller) {
+        return create(empty, caller);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public CreateAccountResult create4(EmptyStore empty, Caller caller) {
+        return create(empty, caller);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public CreateAccountResult createMax(EmptyStore empty, Caller caller) {
+        return create(empty, caller);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public CreateAccountResult repeatCreate1(FilledStore filled, Caller caller) {
+        return repeatCreate(filled, caller);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public CreateAccountResult repeatCreateMax(FilledStore filled, Caller caller) {
+        return repeatCreate(filled, caller);
+    }
+
+    private static CreateAccountResult create(EmptyStore empty, Caller caller) {
+        return empty.store.getOrCreate(caller.newPatientId(), "John Doe", "john.doe@gmail.com");
+    }
+
+    private static CreateAccountResult repeatCreate(FilledStore filled, Caller caller) {
+        return filled.store.getOrCreate(caller.existingPatientId(filled), "John Doe", "john.doe@gmail.com");
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.sm.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import com.sm.patientservice.config.KafkaProducerConfig;
+import com.sm.patientservice.kafka.KafkaProducer;
+import com.sm.patientservice.mapper.PatientEventMapper;
+import com.sm.patientservice.model.Patient;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import patient.events.EventType;
+
+/**
+ * Publishing patient events through {@link KafkaProducer} to an embedded single-node KRaft broker, the way
+ * {@link com.sm.patientservice.outbox.OutboxRelay} does: a batch of 500 events is sent, then every acknowledgement is
+ * awaited. {@code publishBatch} reports events per second; {@code sendOne} samples the latency of a lone send
+ * (see {@code p0.99}). After each trial the p99 acknowledgement latency of the sends inside batches, as recorded by
+ * {@code patient.kafka.send.latency}, is printed.
+ * <p>
+ * {@code producer} compares the client defaults without batching or compression ({@code linger.ms=0}) with the
+ * settings from application.yaml using lz4 or zstd. The broker shares the machine with the producer, so absolute
+ * numbers are optimistic; compare the variants with each other.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KafkaPublishBenchmark {
+
+    private static final String TOPIC = "patients";
+    private static final int BATCH_SIZE = 500; // patient.outbox.batch-size
+
+    @Param({ "untuned", "lz4", "zstd" })
+    public String producer;
+
+    private EmbeddedKafkaBroker broker;
+    private DefaultKafkaProducerFactory<String, byte[]> producerFactory;
+    private SimpleMeterRegistry meterRegistry;
+    private KafkaProducer kafkaProducer;
+    private String[] keys;
+    private byte[][] payloads;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        broker = new EmbeddedKafkaKraftBroker(1, 3, TOPIC);
+        broker.afterPropertiesSet();
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        properties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        properties.put(ProducerConfig.ACKS_CONFIG, "all");
+        if (!"untuned".equals(producer)) {
+            // Same values as spring.kafka.producer in patient-service's application.yaml
+            properties.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+            properties.put(ProducerConfig.BATCH_SIZE_CONFIG, 65536);
+            properties.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, producer);
+            properties.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+            properties.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        } else {
+            properties.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+            properties.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "none");
+        }
+        producerFactory = new DefaultKafkaProducerFactory<>(properties);
+        meterRegistry = new SimpleMeterRegistry();
+        kafkaProducer = new KafkaProducer(new KafkaTemplate<>(producerFactory), new KafkaProducerConfig(), meterRegistry);
+
+        keys = new String[BATCH_SIZE];
+        payloads = new byte[BATCH_SIZE][];
+        Patient patient = PatientFixtures.patient();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            patient.setId(UUID.randomUUID());
+            patient.setEmail("jane.doe+" + i + "@example.com");
+            keys[i] = patient.getId().toString();
+            payloads[i] = PatientEventMapper.createPatientEvent(patient, EventType.UPDATED).toByteArray();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Timer latency = meterRegistry.get("patient.kafka.send.latency").timer();
+        for (ValueAtPercentile percentile : latency.takeSnapshot().percentileValues()) {
+            System.out.printf("%n%s: p%.0f ack latency %.2f ms over %d sends%n", producer,
+                percentile.percentile() * 100, percentile.value(TimeUnit.MILLISECONDS), latency.count());
+        }
+        producerFactory.destroy();
+        broker.destroy();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void publishBatch() {
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            sends[i] = kafkaProducer.send(TOPIC, keys[i], payloads[i]);
+        }
+        CompletableFuture.allOf(sends).join();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SendResult<String, byte[]> sendOne() {
+        int i = next++ % BATCH_SIZE;
+        return kafkaProducer.send(TOPIC, keys[i], payloads[i]).join();
+    }
+
+}
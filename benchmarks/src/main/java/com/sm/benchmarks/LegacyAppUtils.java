@@ -0,0 +1,40 @@
+package com.sm.benchmarks;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+
+import com.google.protobuf.Timestamp;
+
+/**
+ * Copy of the AppUtils conversions before they moved to AppClock, kept as the baseline the current code is measured
+ * against.
+ */
+final class LegacyAppUtils {
+
+    private LegacyAppUtils() {
+    }
+
+    static String getCurrentTimestamp() {
+        return OffsetDateTime.now(ZoneId.of("America/New_York")).toString();
+    }
+
+    static String convertLocalDateTimeToString(LocalDateTime localDateTime) {
+        return localDateTime.atZone(ZoneId.of("America/New_York")).toOffsetDateTime().toString();
+    }
+
+    static Timestamp toProtoTimestamp(LocalDateTime localDateTime) {
+        if (localDateTime == null) {
+            return Timestamp.newBuilder()
+                .setSeconds(Instant.now().getEpochSecond())
+                .setNanos(Instant.now().getNano())
+                .build();
+        }
+        return Timestamp.newBuilder()
+            .setSeconds(localDateTime.atZone(ZoneId.of("America/New_York")).toEpochSecond())
+            .setNanos(localDateTime.getNano())
+            .build();
+    }
+
+}
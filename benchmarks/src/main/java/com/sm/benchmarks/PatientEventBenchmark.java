@@ -0,0 +1,77 @@
+package com.sm.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.sm.patientservice.mapper.PatientEventMapper;
+import com.sm.patientservice.model.Patient;
+
+import patient.events.EventType;
+import patient.events.PatientEvent;
+
+/**
+ * Patient event path: building the event on every write in patient-service, serializing it into the outbox, and
+ * parsing it again in every consumer (patient-service cache listener, analytics-service, notification-service).
+ * {@code createAndSerializeDelta} builds the field-mask delta of an update that changed the email.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PatientEventBenchmark {
+
+    private Patient patient;
+    private PatientEvent event;
+    private PatientEvent changedEvent;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        patient = PatientFixtures.patient();
+        event = PatientEventMapper.createPatientEvent(patient, EventType.UPDATED);
+        payload = event.toByteArray();
+        Patient changed = PatientFixtures.patient();
+        changed.setEmail("jane.doe@example.org");
+        changed.setUpdatedAt(PatientFixtures.UPDATED_AT.plusMinutes(1));
+        changedEvent = PatientEventMapper.createPatientEvent(changed, EventType.UPDATED);
+    }
+
+    @Benchmark
+    public PatientEvent createPatientEvent() {
+        return PatientEventMapper.createPatientEvent(patient, EventType.UPDATED);
+    }
+
+    @Benchmark
+    public byte[] toByteArray() {
+        return event.toByteArray();
+    }
+
+    @Benchmark
+    public PatientEvent parseFrom() throws InvalidProtocolBufferException {
+        return PatientEvent.parseFrom(payload);
+    }
+
+    @Benchmark
+    public byte[] createAndSerialize() {
+        return PatientEventMapper.createPatientEvent(patient, EventType.UPDATED).toByteArray();
+    }
+
+    @Benchmark
+    public byte[] createAndSerializeDelta() {
+        return PatientEventMapper.createUpdatedDelta(event, changedEvent).toByteArray();
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.sm.benchmarks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.sm.patientservice.model.Address;
+import com.sm.patientservice.model.BillingStatus;
+import com.sm.patientservice.model.Insurance;
+import com.sm.patientservice.model.Patient;
+import com.sm.patientservice.model.dto.PatientCreateRequest;
+import com.sm.patientservice.repository.PatientListView;
+
+/**
+ * Fully populated patients in the shapes the hot paths receive them.
+ */
+final class PatientFixtures {
+
+    static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 14, 9, 26, 53, 589_793_000);
+    static final LocalDateTime UPDATED_AT = LocalDateTime.of(2024, 11, 2, 17, 4, 11, 123_000_000);
+
+    private PatientFixtures() {
+    }
+
+    static Patient patient() {
+        Address address = new Address();
+        address.setStreet("221B Baker Street");
+        address.setCity("Springfield");
+        address.setState("IL");
+        address.setZipCode("62704");
+        address.setCountry("USA");
+
+        Insurance insurance = new Insurance();
+        insurance.setProvider("Acme Health");
+        insurance.setPolicyNumber("POL-0042-7781");
+
+        Patient patient = new Patient();
+        patient.setId(UUID.fromString("6f1c2a3e-8d4b-4c5e-9f0a-1b2c3d4e5f60"));
+        patient.setFirstName("Jane");
+        patient.setLastName("Doe");
+        patient.setDob(LocalDate.of(1987, 6, 21));
+        patient.setEmail("jane.doe@example.com");
+        patient.setPhoneNumber("5551234567");
+        patient.setGender("FEMALE");
+        patient.setAddress(address);
+        patient.setInsurance(insurance);
+        patient.setBillingStatus(BillingStatus.ACTIVE);
+        patient.setCreatedAt(CREATED_AT);
+        patient.setUpdatedAt(UPDATED_AT);
+        patient.setVersion(3L);
+        return patient;
+    }
+
+    static PatientListView listView() {
+        Patient patient = patient();
+        return new PatientListView(patient.getId(), patient.getFirstName(), patient.getLastName(), patient.getDob(),
+                patient.getEmail(), patient.getPhoneNumber(), patient.getGender(),
+                patient.getAddress().getStreet(), patient.getAddress().getCity(), patient.getAddress().getState(),
+                patient.getAddress().getZipCode(), patient.getAddress().getCountry(),
+                patient.getInsurance().getProvider(), patient.getInsurance().getPolicyNumber(),
+                patient.getBillingStatus(), patient.getCreatedAt(), patient.getUpdatedAt(), patient.getVersion());
+    }
+
+    static PatientCreateRequest createRequest() {
+        com.sm.patientservice.model.dto.Address address = new com.sm.patientservice.model.dto.Address();
+        address.setStreet("221B Baker Street");
+        address.setCity("Springfield");
+        address.setState("IL");
+        address.setZipCode("62704");
+        address.setCountry("USA");
+
+        com.sm.patientservice.model.dto.Insurance insurance = new com.sm.patientservice.model.dto.Insurance();
+        insurance.setProvider("Acme Health");
+        insurance.setPolicyNumber("POL-0042-7781");
+
+        return new PatientCreateRequest()
+                .firstName("Jane")
+                .lastName("Doe")
+                .dob(LocalDate.of(1987, 6, 21))
+                .email("jane.doe@example.com")
+                .phoneNumber("5551234567")
+                .gender(PatientCreateRequest.GenderEnum.FEMALE)
+                .address(address)
+                .insurance(insurance);
+    }
+
+}
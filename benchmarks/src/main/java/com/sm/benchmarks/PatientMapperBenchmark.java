@@ -0,0 +1,59 @@
+package com.sm.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sm.patientservice.mapper.PatientMapper;
+import com.sm.patientservice.model.Patient;
+import com.sm.patientservice.model.dto.PatientCreateRequest;
+import com.sm.patientservice.repository.PatientListView;
+
+/**
+ * Entity/projection to DTO mapping done for every patient returned by the REST API, and request to entity mapping
+ * done for every create.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PatientMapperBenchmark {
+
+    private Patient patient;
+    private PatientListView listView;
+    private PatientCreateRequest createRequest;
+
+    @Setup
+    public void setUp() {
+        patient = PatientFixtures.patient();
+        listView = PatientFixtures.listView();
+        createRequest = PatientFixtures.createRequest();
+    }
+
+    @Benchmark
+    public com.sm.patientservice.model.dto.Patient toDto() {
+        return PatientMapper.toDto(patient);
+    }
+
+    @Benchmark
+    public com.sm.patientservice.model.dto.Patient toDtoFromListView() {
+        return PatientMapper.toDto(listView);
+    }
+
+    @Benchmark
+    public Patient toEntity() {
+        return PatientMapper.toEntity(createRequest);
+    }
+
+}
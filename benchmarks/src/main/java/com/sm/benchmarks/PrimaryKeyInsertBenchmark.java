@@ -0,0 +1,110 @@
+package com.sm.benchmarks;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sm.patientservice.model.UuidV7Generator;
+
+/**
+ * Insert throughput into a table keyed by random UUIDv4 ids (the former {@code GenerationType.UUID}) versus
+ * time-ordered UUIDv7 ids. The table is first filled with {@code rows} rows of the same key type, since the cost of
+ * random keys only shows once the primary key index no longer fits in cache; each invocation then inserts and
+ * commits one JDBC batch. Results are rows per second.
+ * <p>
+ * Runs against an in-memory H2 database by default. Pass {@code -p jdbcUrl=jdbc:postgresql://...} with
+ * {@code -p user=... -p password=...} to measure on Postgres, which is where index bloat matters.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class PrimaryKeyInsertBenchmark {
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final int PRELOAD_BATCH_SIZE = 10_000;
+    private static final String PAYLOAD = "x".repeat(200); // about the width of a patient row
+
+    @Param({ "v4", "v7" })
+    public String keys;
+
+    @Param("10000000")
+    public long rows;
+
+    @Param("jdbc:h2:mem:pk_insert;DB_CLOSE_DELAY=-1")
+    public String jdbcUrl;
+
+    @Param("sa")
+    public String user;
+
+    @Param("")
+    public String password;
+
+    private Connection connection;
+    private PreparedStatement insert;
+    private Supplier<UUID> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        UuidV7Generator v7 = new UuidV7Generator();
+        ids = "v7".equals(keys) ? v7::generate : UUID::randomUUID;
+        connection = DriverManager.getConnection(jdbcUrl, user, password);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS pk_insert_benchmark");
+            statement.execute("CREATE TABLE pk_insert_benchmark (id UUID PRIMARY KEY, payload VARCHAR(255) NOT NULL)");
+        }
+        connection.setAutoCommit(false);
+        insert = connection.prepareStatement("INSERT INTO pk_insert_benchmark (id, payload) VALUES (?, ?)");
+        for (long loaded = 0; loaded < rows; loaded += PRELOAD_BATCH_SIZE) {
+            insertBatch((int) Math.min(PRELOAD_BATCH_SIZE, rows - loaded));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE pk_insert_benchmark");
+        }
+        connection.commit();
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void insert() throws SQLException {
+        insertBatch(BATCH_SIZE);
+    }
+
+    private void insertBatch(int size) throws SQLException {
+        for (int i = 0; i < size; i++) {
+            insert.setObject(1, ids.get());
+            insert.setString(2, PAYLOAD);
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+    }
+
+}
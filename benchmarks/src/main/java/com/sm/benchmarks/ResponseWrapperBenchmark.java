@@ -0,0 +1,66 @@
+package com.sm.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sm.patientservice.constant.ResponseConstant;
+import com.sm.patientservice.mapper.PatientMapper;
+import com.sm.patientservice.model.Patient;
+import com.sm.patientservice.model.dto.PatientResponseWrapper;
+import com.sm.patientservice.utils.AppUtils;
+
+/**
+ * Response-wrapping path of {@code GET /patients/{id}}: map the patient and wrap it with the response timestamp.
+ * {@code legacy} does the same work with the conversions as they were before AppClock; compare
+ * {@code gc.alloc.rate.norm} between the two.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ResponseWrapperBenchmark {
+
+    private Patient patient;
+
+    @Setup
+    public void setUp() {
+        patient = PatientFixtures.patient();
+    }
+
+    @Benchmark
+    public PatientResponseWrapper current() {
+        com.sm.patientservice.model.dto.Patient dto = PatientMapper.toDto(patient);
+        // Set again so both variants do the same amount of work around toDto
+        dto.setCreatedAt(AppUtils.convertLocalDateTimeToString(patient.getCreatedAt()));
+        dto.setUpdatedAt(AppUtils.convertLocalDateTimeToString(patient.getUpdatedAt()));
+        return new PatientResponseWrapper()
+            .data(dto)
+            .status(ResponseConstant.SUCCESS_STATUS)
+            .timestamp(AppUtils.getCurrentTimestamp());
+    }
+
+    @Benchmark
+    public PatientResponseWrapper legacy() {
+        com.sm.patientservice.model.dto.Patient dto = PatientMapper.toDto(patient);
+        // Overwrite the timestamp fields the old way; the difference to current() is only the time handling
+        dto.setCreatedAt(LegacyAppUtils.convertLocalDateTimeToString(patient.getCreatedAt()));
+        dto.setUpdatedAt(LegacyAppUtils.convertLocalDateTimeToString(patient.getUpdatedAt()));
+        return new PatientResponseWrapper()
+            .data(dto)
+            .status(ResponseConstant.SUCCESS_STATUS)
+            .timestamp(LegacyAppUtils.getCurrentTimestamp());
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.sm.benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sm.patientservice.model.UuidV7Generator;
+
+/**
+ * Cost of drawing one id: {@link UUID#randomUUID()} versus {@link UuidV7Generator}, which the patient entity shares
+ * between all inserting threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class UuidGeneratorBenchmark {
+
+    private final UuidV7Generator generator = new UuidV7Generator();
+
+    @Benchmark
+    public UUID randomUuidV4() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    public UUID uuidV7() {
+        return generator.generate();
+    }
+
+}
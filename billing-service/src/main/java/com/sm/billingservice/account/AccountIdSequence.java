@@ -0,0 +1,135 @@
+package com.sm.billingservice.account;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out increasing billing account ids.
+ *
+ * A sequence opened on a reservation file reserves ids in blocks: the end of the next block is written to the file
+ * and forced to disk before the first id of the block is handed out. A sequence reopened from that file after a
+ * crash therefore starts past every id handed out before it, however old the snapshot the accounts come from. Ids
+ * reserved but not handed out before the crash are skipped, so the sequence can have gaps but never repeats.
+ */
+public class AccountIdSequence {
+
+    private static final int RESERVATION_MAGIC = 0x42414931; // "BAI1"
+
+    private final Path reservationPath;
+    private final int blockSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile long last;
+    private long reservedUpTo;
+
+    /**
+     * An in-memory sequence starting at 1, for stores that are never restored.
+     */
+    public AccountIdSequence() {
+        this(null, 0, 0, Long.MAX_VALUE);
+    }
+
+    private AccountIdSequence(Path reservationPath, int blockSize, long last, long reservedUpTo) {
+        this.reservationPath = reservationPath;
+        this.blockSize = blockSize;
+        this.last = last;
+        this.reservedUpTo = reservedUpTo;
+    }
+
+    /**
+     * Opens a sequence reserving blocks of {@code blockSize} ids in {@code reservationPath}. It continues after the
+     * last reserved id, or starts at 1 if the file does not exist yet.
+     */
+    public static AccountIdSequence open(Path reservationPath, int blockSize) throws IOException {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Id block size must be positive, got " + blockSize);
+        }
+        long reserved = 0;
+        if (Files.exists(reservationPath)) {
+            ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(reservationPath));
+            if (content.remaining() != Integer.BYTES + Long.BYTES || content.getInt() != RESERVATION_MAGIC) {
+                throw new IOException(reservationPath + " is not a billing account id reservation");
+            }
+            reserved = content.getLong();
+        }
+        return new AccountIdSequence(reservationPath, blockSize, reserved, reserved);
+    }
+
+    /**
+     * Returns the next id, first reserving a new block if the current one is used up.
+     *
+     * @throws UncheckedIOException if the reservation could not be written; no id is handed out then
+     */
+    public long next() {
+        lock.lock();
+        try {
+            if (last >= reservedUpTo) {
+                long upTo = last + blockSize;
+                writeReservation(upTo);
+                reservedUpTo = upTo;
+            }
+            return ++last;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The last id handed out, or skipped to.
+     */
+    public long last() {
+        return last;
+    }
+
+    /**
+     * Moves the sequence past {@code id} if it is not past it yet, e.g. to cover a snapshot written before the
+     * reservation file existed.
+     */
+    void skipTo(long id) {
+        lock.lock();
+        try {
+            if (id > last) {
+                last = id;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void writeReservation(long upTo) {
+        try {
+            Path parent = reservationPath.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, reservationPath.getFileName().toString(), ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    ByteBuffer content = ByteBuffer.allocate(Integer.BYTES + Long.BYTES)
+                        .putInt(RESERVATION_MAGIC)
+                        .putLong(upTo)
+                        .flip();
+                    while (content.hasRemaining()) {
+                        channel.write(content);
+                    }
+                    channel.force(true);
+                }
+                Files.move(temp, reservationPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                // Make the rename itself durable, not just the new file's content
+                try (FileChannel directory = FileChannel.open(parent, StandardOpenOption.READ)) {
+                    directory.force(true);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not reserve billing account ids up to " + upTo
+                + " in " + reservationPath, e);
+        }
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.sm.billingservice.account;
+
+import java.time.Instant;
+
+/**
+ * A patient's billing account. {@code accountId} comes from {@link BillingAccountStore}'s sequence.
+ */
+public record BillingAccount(
+    long accountId,
+    String patientId,
+    String name,
+    String email,
+    Instant createdAt) {
+}
@@ -0,0 +1,68 @@
+package com.sm.billingservice.account;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.sm.billingservice.config.BillingAccountConfig;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Owns the service's {@link BillingAccountStore}: restores it from the snapshot file on startup, and writes a new
+ * snapshot every {@code billing.accounts.snapshot-interval-ms} if accounts were created since the last one, and
+ * once more on shutdown. Accounts created after the last snapshot are lost if the process dies without a clean
+ * shutdown: a repeated create for such a patient after the restart gets a new account id. Ids come from an
+ * {@link AccountIdSequence} reserved ahead in {@code billing.accounts.id-reservation-path}, so that new id is never
+ * one already issued to another patient before the crash.
+ */
+@Component
+@Slf4j
+public class BillingAccountRegistry {
+
+    private final BillingAccountStore store;
+    private final Path snapshotPath;
+    private volatile long snapshotVersion;
+
+    public BillingAccountRegistry(BillingAccountConfig config) {
+        this.snapshotPath = Path.of(config.getSnapshotPath());
+        Path idReservationPath = Path.of(config.getIdReservationPath());
+        try {
+            this.store = BillingAccountStore.readSnapshot(snapshotPath,
+                AccountIdSequence.open(idReservationPath, config.getIdBlockSize()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not restore billing accounts from " + snapshotPath + " and "
+                + idReservationPath, e);
+        }
+        this.snapshotVersion = store.version();
+        log.info("Restored {} billing accounts from {}, next account id after {}", store.size(), snapshotPath,
+            store.lastAccountId());
+    }
+
+    public CreateAccountResult getOrCreate(String patientId, String name, String email) {
+        return store.getOrCreate(patientId, name, email);
+    }
+
+    @Scheduled(fixedDelayString = "${billing.accounts.snapshot-interval-ms:5000}")
+    public void snapshot() {
+        if (store.version() == snapshotVersion) {
+            return;
+        }
+        try {
+            snapshotVersion = store.writeSnapshot(snapshotPath);
+            log.debug("Wrote {} billing accounts to {}", store.size(), snapshotPath);
+        } catch (IOException e) {
+            log.error("Could not write billing account snapshot to {}, retrying on the next run", snapshotPath, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        snapshot();
+    }
+
+}
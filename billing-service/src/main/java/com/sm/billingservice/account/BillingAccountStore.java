@@ -0,0 +1,154 @@
+package com.sm.billingservice.account;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory billing accounts keyed by patient id.
+ *
+ * Accounts live in a {@link ConcurrentHashMap}, which locks per hash bin rather than per map, so creates for
+ * different patients run in parallel and lookups take no lock at all. An account id is drawn from the sequence
+ * inside {@code computeIfAbsent}, only when the account is actually created: ids increase in creation order and a
+ * repeated create for the same patient neither gets a second account nor burns an id. See {@link AccountIdSequence}
+ * for how the sequence stays ahead of every id handed out across restarts.
+ *
+ * The store can be written to and read back from a snapshot file; see {@link #writeSnapshot(Path)}.
+ */
+public class BillingAccountStore {
+
+    private static final int SNAPSHOT_MAGIC = 0x42414331; // "BAC1"
+
+    private final ConcurrentHashMap<String, BillingAccount> accounts;
+    private final AccountIdSequence accountIds;
+    // Counts creates once their account is in the map, unlike accountIds which moves before the insert
+    private final AtomicLong insertedAccounts = new AtomicLong();
+
+    public BillingAccountStore() {
+        this(1024, new AccountIdSequence());
+    }
+
+    private BillingAccountStore(int expectedAccounts, AccountIdSequence accountIds) {
+        this.accounts = new ConcurrentHashMap<>(expectedAccounts);
+        this.accountIds = accountIds;
+    }
+
+    /**
+     * Returns the patient's account, creating it if the patient has none yet.
+     */
+    public CreateAccountResult getOrCreate(String patientId, String name, String email) {
+        BillingAccount existing = accounts.get(patientId);
+        if (existing != null) {
+            return new CreateAccountResult(existing, false);
+        }
+        BillingAccount[] created = new BillingAccount[1];
+        BillingAccount account = accounts.computeIfAbsent(patientId, id -> created[0] =
+            new BillingAccount(accountIds.next(), id, name, email,
+                Instant.now().truncatedTo(ChronoUnit.MILLIS)));
+        if (account != created[0]) {
+            return new CreateAccountResult(account, false);
+        }
+        insertedAccounts.incrementAndGet();
+        return new CreateAccountResult(account, true);
+    }
+
+    public Optional<BillingAccount> find(String patientId) {
+        return Optional.ofNullable(accounts.get(patientId));
+    }
+
+    public int size() {
+        return accounts.size();
+    }
+
+    public long lastAccountId() {
+        return accountIds.last();
+    }
+
+    /**
+     * Number of accounts created since this store was constructed or restored. A create is counted only after its
+     * account is in the map, so a snapshot started after reading this value contains every account it counts.
+     */
+    public long version() {
+        return insertedAccounts.get();
+    }
+
+    /**
+     * Writes all accounts to {@code path}, replacing it atomically, while creates carry on. Accounts created during
+     * the write may or may not be included.
+     *
+     * @return the {@link #version()} the snapshot is complete up to
+     */
+    public long writeSnapshot(Path path) throws IOException {
+        long version = insertedAccounts.get();
+        List<BillingAccount> copy = new ArrayList<>(accounts.values());
+        // Read after copying: every copied account's id was drawn before, so the restored sequence never repeats one
+        long sequence = accountIds.last();
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeLong(sequence);
+                out.writeInt(copy.size());
+                for (BillingAccount account : copy) {
+                    out.writeLong(account.accountId());
+                    out.writeUTF(account.patientId());
+                    out.writeUTF(account.name());
+                    out.writeUTF(account.email());
+                    out.writeLong(account.createdAt().toEpochMilli());
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return version;
+    }
+
+    /**
+     * Restores a store from a snapshot written by {@link #writeSnapshot(Path)}, or returns an empty store if there
+     * is no snapshot yet. Ids continue from the snapshot's sequence, in memory only.
+     */
+    public static BillingAccountStore readSnapshot(Path path) throws IOException {
+        return readSnapshot(path, new AccountIdSequence());
+    }
+
+    /**
+     * Restores a store from a snapshot like {@link #readSnapshot(Path)}, drawing new ids from {@code accountIds}. The
+     * sequence is moved past the snapshot's, so ids continue after whichever of the two is further ahead.
+     */
+    public static BillingAccountStore readSnapshot(Path path, AccountIdSequence accountIds) throws IOException {
+        if (!Files.exists(path)) {
+            return new BillingAccountStore(1024, accountIds);
+        }
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException(path + " is not a billing account snapshot");
+            }
+            long sequence = in.readLong();
+            int count = in.readInt();
+            accountIds.skipTo(sequence);
+            BillingAccountStore store = new BillingAccountStore(Math.max(1024, count), accountIds);
+            for (int i = 0; i < count; i++) {
+                var account = new BillingAccount(in.readLong(), in.readUTF(), in.readUTF(), in.readUTF(),
+                    Instant.ofEpochMilli(in.readLong()));
+                store.accounts.put(account.patientId(), account);
+            }
+            return store;
+        }
+    }
+
+}
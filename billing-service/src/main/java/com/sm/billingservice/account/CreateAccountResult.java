@@ -0,0 +1,7 @@
+package com.sm.billingservice.account;
+
+/**
+ * @param created {@code false} if the patient already had this account
+ */
+public record CreateAccountResult(BillingAccount account, boolean created) {
+}
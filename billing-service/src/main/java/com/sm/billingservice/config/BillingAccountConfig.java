@@ -0,0 +1,32 @@
+package com.sm.billingservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Configuration
+@Data
+public class BillingAccountConfig {
+
+    /**
+     * Accounts are restored from this file on startup and written back to it periodically and on shutdown.
+     */
+    @Value("${billing.accounts.snapshot-path:data/billing-accounts.snapshot}")
+    private String snapshotPath;
+
+    /**
+     * Account ids are reserved in blocks by writing the end of the next block to this file before handing any of
+     * them out, so ids issued after the last snapshot are not issued again after a crash.
+     */
+    @Value("${billing.accounts.id-reservation-path:data/billing-accounts.ids}")
+    private String idReservationPath;
+
+    /**
+     * Ids reserved per write to the reservation file. Larger blocks mean fewer forced writes, and a larger gap in
+     * the ids after a crash.
+     */
+    @Value("${billing.accounts.id-block-size:1000}")
+    private int idBlockSize;
+
+}
@@ -1,8 +1,12 @@
 package com.sm.billingservice.grpc;
 
+import com.sm.billingservice.account.BillingAccountRegistry;
+import com.sm.billingservice.account.CreateAccountResult;
+
 import billing.BillingRequest;
 import billing.BillingResponse;
 import billing.BillingServiceGrpc.BillingServiceImplBase;
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
 import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.server.service.GrpcService;
@@ -11,24 +15,36 @@ import net.devh.boot.grpc.server.service.GrpcService;
 @Slf4j
 public class BillingGrpcService extends BillingServiceImplBase{
 
+    private final BillingAccountRegistry accountRegistry;
+
+    public BillingGrpcService(BillingAccountRegistry accountRegistry) {
+        this.accountRegistry = accountRegistry;
+    }
+
+    /**
+     * Idempotent per patient id: a repeated request returns the patient's existing account.
+     */
     @Override
     public void createBillingAccount(BillingRequest request, StreamObserver<BillingResponse> responseObserver) {
-        // Here you would implement the logic to create a billing account
-        // For now, we will just return a dummy response
+        if (request.getId().isBlank()) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription("Patient id is required").asRuntimeException());
+            return;
+        }
 
-        log.info("Received billing request: {}", request.toString());
+        CreateAccountResult result = accountRegistry.getOrCreate(request.getId(), request.getName(), request.getEmail());
 
         BillingResponse response = BillingResponse.newBuilder()
-                .setAccountId("12345")
+                .setAccountId(String.valueOf(result.account().accountId()))
                 .setStatus("SUCCESS")
-                .setMessage("Billing account created successfully")
+                .setMessage(result.created() ? "Billing account created successfully" : "Billing account already exists")
                 .build();
-        
+
         // Send the response back to the client
         responseObserver.onNext(response);
         responseObserver.onCompleted();
 
-        log.info("Billing account created successfully for patient with ID: {}", request.getId());
+        log.debug("Billing account {} {} for patient with ID: {}", result.account().accountId(),
+                result.created() ? "created" : "already exists", request.getId());
     }
     
 }
@@ -0,0 +1,164 @@
+package com.sm.billingservice.account;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BillingAccountStoreTest {
+
+    @TempDir
+    Path snapshotDir;
+
+    @Test
+    void testGetOrCreateIsIdempotentPerPatient() {
+        BillingAccountStore store = new BillingAccountStore();
+
+        CreateAccountResult first = store.getOrCreate("patient-1", "John Doe", "john.doe@gmail.com");
+        CreateAccountResult second = store.getOrCreate("patient-1", "Johnny Doe", "johnny@gmail.com");
+
+        assertTrue(first.created());
+        assertFalse(second.created());
+        assertEquals(first.account(), second.account());
+        assertEquals("John Doe", second.account().name());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testAccountIdsFollowCreationOrder() {
+        BillingAccountStore store = new BillingAccountStore();
+
+        long first = store.getOrCreate("patient-1", "A", "a@gmail.com").account().accountId();
+        store.getOrCreate("patient-1", "A", "a@gmail.com");
+        long second = store.getOrCreate("patient-2", "B", "b@gmail.com").account().accountId();
+
+        assertEquals(1, first);
+        assertEquals(2, second);
+        assertEquals(2, store.lastAccountId());
+    }
+
+    @Test
+    void testConcurrentCreatesGiveOneAccountPerPatientAndUniqueIds() throws Exception {
+        BillingAccountStore store = new BillingAccountStore();
+        int threads = 8;
+        int patients = 10_000;
+        Set<Long> createdIds = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // Every thread creates every patient, so each create races with seven duplicates
+            List<Future<?>> futures = IntStream.range(0, threads)
+                    .<Future<?>>mapToObj(t -> executor.submit(() -> {
+                        for (int i = 0; i < patients; i++) {
+                            CreateAccountResult result = store.getOrCreate("patient-" + i, "Name " + i, "");
+                            if (result.created()) {
+                                assertTrue(createdIds.add(result.account().accountId()));
+                            }
+                        }
+                    }))
+                    .toList();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(patients, store.size());
+        assertEquals(patients, createdIds.size());
+        assertEquals(patients, store.lastAccountId());
+        assertEquals(patients, store.version());
+    }
+
+    @Test
+    void testSnapshotRoundTrip() throws IOException {
+        Path snapshot = snapshotDir.resolve("accounts.snapshot");
+        BillingAccountStore store = new BillingAccountStore();
+        BillingAccount account = store.getOrCreate("patient-1", "John Doe", "john.doe@gmail.com").account();
+        store.getOrCreate("patient-2", "Jane Doe", "jane.doe@gmail.com");
+
+        assertEquals(2, store.writeSnapshot(snapshot));
+        BillingAccountStore restored = BillingAccountStore.readSnapshot(snapshot);
+
+        assertEquals(2, restored.size());
+        assertEquals(account, restored.find("patient-1").orElseThrow());
+        assertFalse(restored.getOrCreate("patient-1", "John Doe", "").created());
+        assertEquals(3, restored.getOrCreate("patient-3", "Jim Doe", "").account().accountId());
+    }
+
+    @Test
+    void testRestoreFromStaleSnapshotNeverRepeatsIds() throws IOException {
+        Path snapshot = snapshotDir.resolve("accounts.snapshot");
+        Path reservation = snapshotDir.resolve("accounts.ids");
+        BillingAccountStore store = BillingAccountStore.readSnapshot(snapshot, AccountIdSequence.open(reservation, 4));
+        Set<Long> issuedIds = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            issuedIds.add(store.getOrCreate("patient-" + i, "Name " + i, "").account().accountId());
+        }
+        store.writeSnapshot(snapshot);
+        // Created after the last snapshot, then lost in a crash, crossing into a second reserved block
+        for (int i = 3; i < 6; i++) {
+            issuedIds.add(store.getOrCreate("patient-" + i, "Name " + i, "").account().accountId());
+        }
+
+        BillingAccountStore restored = BillingAccountStore.readSnapshot(snapshot,
+            AccountIdSequence.open(reservation, 4));
+
+        assertEquals(3, restored.size());
+        long maxIssued = Collections.max(issuedIds);
+        for (int i = 3; i < 9; i++) {
+            long accountId = restored.getOrCreate("patient-" + i, "Name " + i, "").account().accountId();
+            assertTrue(accountId > maxIssued, () -> "account id " + accountId + " was issued before the crash");
+            assertTrue(issuedIds.add(accountId));
+        }
+    }
+
+    @Test
+    void testSequenceContinuesAfterSnapshotWrittenWithoutReservation() throws IOException {
+        Path snapshot = snapshotDir.resolve("accounts.snapshot");
+        BillingAccountStore store = new BillingAccountStore();
+        store.getOrCreate("patient-1", "A", "");
+        store.getOrCreate("patient-2", "B", "");
+        store.writeSnapshot(snapshot);
+
+        BillingAccountStore restored = BillingAccountStore.readSnapshot(snapshot,
+            AccountIdSequence.open(snapshotDir.resolve("accounts.ids"), 4));
+
+        assertEquals(3, restored.getOrCreate("patient-3", "C", "").account().accountId());
+    }
+
+    @Test
+    void testOpenRejectsForeignReservationFile() throws IOException {
+        Path reservation = Files.writeString(snapshotDir.resolve("accounts.ids"), "not a reservation");
+
+        assertThrows(IOException.class, () -> AccountIdSequence.open(reservation, 4));
+    }
+
+    @Test
+    void testReadSnapshotWithoutFileGivesEmptyStore() throws IOException {
+        BillingAccountStore store = BillingAccountStore.readSnapshot(snapshotDir.resolve("missing.snapshot"));
+
+        assertEquals(0, store.size());
+        assertEquals(0, store.lastAccountId());
+    }
+
+    @Test
+    void testReadSnapshotRejectsForeignFile() throws IOException {
+        Path snapshot = Files.writeString(snapshotDir.resolve("accounts.snapshot"), "not a snapshot");
+
+        assertThrows(IOException.class, () -> BillingAccountStore.readSnapshot(snapshot));
+    }
+}
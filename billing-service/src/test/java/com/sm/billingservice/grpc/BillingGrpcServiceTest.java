@@ -2,12 +2,19 @@ package com.sm.billingservice.grpc;
 
 import billing.BillingRequest;
 import billing.BillingResponse;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 import io.grpc.stub.StreamObserver;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.nio.file.Path;
+
+import com.sm.billingservice.account.BillingAccountRegistry;
+import com.sm.billingservice.config.BillingAccountConfig;
 import com.sm.billingservice.grpc.BillingGrpcService;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -18,16 +25,24 @@ class BillingGrpcServiceTest {
     private BillingGrpcService billingGrpcService;
     private StreamObserver<BillingResponse> responseObserver;
 
+    @TempDir
+    Path snapshotDir;
+
     @SuppressWarnings("unchecked")
     @BeforeEach
     void setUp() {
-        billingGrpcService = new BillingGrpcService();
+        BillingAccountConfig config = new BillingAccountConfig();
+        config.setSnapshotPath(snapshotDir.resolve("accounts.snapshot").toString());
+        config.setIdReservationPath(snapshotDir.resolve("accounts.ids").toString());
+        config.setIdBlockSize(1000);
+        billingGrpcService = new BillingGrpcService(new BillingAccountRegistry(config));
         responseObserver = Mockito.mock(StreamObserver.class);
     }
 
     @Test
     void testCreateBillingAccount() {
         BillingRequest request = BillingRequest.newBuilder()
+                .setId("5f0c9d3e-7a1b-4c2d-9e8f-0a1b2c3d4e5f")
                 .setName("John Doe")
                 .setEmail("john.doe@gmail.com")
                 .setAddress("123 Main St, Springfield, USA")
@@ -41,8 +56,43 @@ class BillingGrpcServiceTest {
         verify(responseObserver, times(1)).onCompleted();
 
         BillingResponse response = responseCaptor.getValue();
-        assertEquals("12345", response.getAccountId());
+        assertEquals("1", response.getAccountId());
         assertEquals("SUCCESS", response.getStatus());
         assertEquals("Billing account created successfully", response.getMessage());
     }
+
+    @Test
+    void testCreateBillingAccountTwiceReturnsExistingAccount() {
+        BillingRequest request = BillingRequest.newBuilder()
+                .setId("5f0c9d3e-7a1b-4c2d-9e8f-0a1b2c3d4e5f")
+                .setName("John Doe")
+                .setEmail("john.doe@gmail.com")
+                .build();
+
+        billingGrpcService.createBillingAccount(request, responseObserver);
+        billingGrpcService.createBillingAccount(request, responseObserver);
+
+        ArgumentCaptor<BillingResponse> responseCaptor = ArgumentCaptor.forClass(BillingResponse.class);
+        verify(responseObserver, times(2)).onNext(responseCaptor.capture());
+
+        BillingResponse first = responseCaptor.getAllValues().get(0);
+        BillingResponse second = responseCaptor.getAllValues().get(1);
+        assertEquals(first.getAccountId(), second.getAccountId());
+        assertEquals("SUCCESS", second.getStatus());
+        assertEquals("Billing account already exists", second.getMessage());
+    }
+
+    @Test
+    void testCreateBillingAccountWithoutPatientId() {
+        BillingRequest request = BillingRequest.newBuilder()
+                .setName("John Doe")
+                .build();
+
+        billingGrpcService.createBillingAccount(request, responseObserver);
+
+        ArgumentCaptor<Throwable> errorCaptor = ArgumentCaptor.forClass(Throwable.class);
+        verify(responseObserver).onError(errorCaptor.capture());
+        verify(responseObserver, never()).onNext(any());
+        assertEquals(Status.Code.INVALID_ARGUMENT, ((StatusRuntimeException) errorCaptor.getValue()).getStatus().getCode());
+    }
 } 
\ No newline at end of file
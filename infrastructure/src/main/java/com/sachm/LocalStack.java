@@ -35,6 +35,7 @@ import software.amazon.awscdk.services.msk.CfnCluster;
 import software.amazon.awscdk.services.rds.Credentials;
 import software.amazon.awscdk.services.rds.DatabaseInstance;
 import software.amazon.awscdk.services.rds.DatabaseInstanceEngine;
+import software.amazon.awscdk.services.rds.DatabaseInstanceReadReplica;
 import software.amazon.awscdk.services.rds.PostgresEngineVersion;
 import software.amazon.awscdk.services.rds.PostgresInstanceEngineProps;
 import software.amazon.awscdk.services.route53.CfnHealthCheck;
@@ -43,6 +44,7 @@ public class LocalStack extends Stack {
 
     private final Vpc vpc;
     private final Cluster ecsCluster;
+    private final Map<DatabaseInstance, DatabaseInstanceReadReplica> readReplicas = new HashMap<>();
 
     public LocalStack(final App scope, final String id, final StackProps props) {
         super(scope, id, props);
@@ -50,7 +52,7 @@ public class LocalStack extends Stack {
         this.vpc = createVpc();
 
         DatabaseInstance authServiceDB = createDatabase("AuthServiceDB", "auth-service-db");
-        DatabaseInstance patientServiceDB = createDatabase("PatientServiceDB", "patient-service-db");
+        DatabaseInstance patientServiceDB = createDatabase("PatientServiceDB", "patient-service-db", true);
 
         CfnHealthCheck authDbHealthCheck = createDbHealthCheck(authServiceDB, "AuthServiceDBHealthCheck");
         CfnHealthCheck patientDBHealthCheck = createDbHealthCheck(patientServiceDB, "PatientServiceDBHealthCheck");
@@ -96,7 +98,7 @@ public class LocalStack extends Stack {
         
         FargateService patientService = createFargateService("PatientService", 
             "patient-service", 
-            List.of(4000), 
+            List.of(4000, 9001), 
             patientServiceDB, 
             Map.of(
                 "SPRING_PROFILES_ACTIVE", "docker",
@@ -120,7 +122,15 @@ public class LocalStack extends Stack {
     }
     
     private DatabaseInstance createDatabase(String id, String dbName) {
-        return DatabaseInstance.Builder
+        return createDatabase(id, dbName, false);
+    }
+
+    /**
+     * Creates a Postgres instance and, with {@code withReadReplica}, a read replica of it. Services given the
+     * instance in {@link #createFargateService} are then also pointed at the replica.
+     */
+    private DatabaseInstance createDatabase(String id, String dbName, boolean withReadReplica) {
+        DatabaseInstance db = DatabaseInstance.Builder
             .create(this, id)
             .engine(DatabaseInstanceEngine.postgres(PostgresInstanceEngineProps
                 .builder()
@@ -133,6 +143,17 @@ public class LocalStack extends Stack {
             .databaseName(dbName)
             .removalPolicy(RemovalPolicy.DESTROY) // Development Purpose Only
             .build();
+
+        if (withReadReplica) {
+            readReplicas.put(db, DatabaseInstanceReadReplica.Builder
+                .create(this, id + "ReadReplica")
+                .sourceDatabaseInstance(db)
+                .vpc(vpc)
+                .instanceType(InstanceType.of(InstanceClass.BURSTABLE2, InstanceSize.MICRO))
+                .removalPolicy(RemovalPolicy.DESTROY) // Development Purpose Only
+                .build());
+        }
+        return db;
     }
 
     private CfnHealthCheck createDbHealthCheck(DatabaseInstance db, String id) {
@@ -199,6 +220,15 @@ public class LocalStack extends Stack {
             envVars.put("SPRING_JPA_HIBERNATE_DDL_AUTO", "update");
             envVars.put("SPRING_SQL_INIT_MODE", "always");
             envVars.put("SPRING_DATASOURCE_HIKARI_INITILIZATION_FAIL_TIMEOUT", "60000");
+
+            DatabaseInstanceReadReplica replica = readReplicas.get(db);
+            if (replica != null) {
+                envVars.put("PATIENT_DATASOURCE_REPLICA_ENABLED", "true");
+                envVars.put("PATIENT_DATASOURCE_REPLICA_URL", "jdbc:postgresql://%s:%s/%s-db"
+                    .formatted(replica.getDbInstanceEndpointAddress(),
+                                replica.getDbInstanceEndpointPort(),
+                                imageName));
+            }
         }
         
         ContainerDefinitionOptions containerOptions =
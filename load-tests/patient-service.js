@@ -0,0 +1,67 @@
+// k6 load test for patient-service, used to compare platform-thread and virtual-thread mode.
+//
+//   k6 run -e BASE_URL=http://localhost:4100/api -e EMAIL=admin@pms.com -e PASSWORD=password123 load-tests/patient-service.js
+//
+// Reads dominate (list, search, get by id) with a share of creates, so requests spend most of their time
+// blocked on JDBC, gRPC and Kafka rather than on CPU.
+import http from 'k6/http';
+import { check } from 'k6';
+import { randomString } from 'https://jslib.k6.io/k6-utils/1.4.0/index.js';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:4100/api';
+const AUTH_URL = __ENV.AUTH_URL || 'http://localhost:4100/auth/login';
+
+export const options = {
+  scenarios: {
+    ramp: {
+      executor: 'ramping-vus',
+      startVUs: 0,
+      stages: [
+        { duration: '1m', target: 200 },
+        { duration: '2m', target: 1000 },
+        { duration: '2m', target: 2000 },
+        { duration: '1m', target: 0 },
+      ],
+    },
+  },
+  thresholds: {
+    http_req_failed: ['rate<0.01'],
+    'http_req_duration{name:get}': ['p(99)<500'],
+  },
+};
+
+export function setup() {
+  const login = http.post(AUTH_URL, JSON.stringify({
+    email: __ENV.EMAIL || 'admin@pms.com',
+    password: __ENV.PASSWORD || 'password123',
+  }), { headers: { 'Content-Type': 'application/json' } });
+  const token = login.json('token');
+  const params = { headers: { Authorization: `Bearer ${token}` } };
+  const page = http.get(`${BASE_URL}/patients?size=100&total=none`, params);
+  return { token, ids: page.json('data').map((patient) => patient.id) };
+}
+
+export default function (data) {
+  const params = { headers: { Authorization: `Bearer ${data.token}`, 'Content-Type': 'application/json' } };
+  const roll = Math.random();
+  if (roll < 0.4) {
+    const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+    check(http.get(`${BASE_URL}/patients/${id}`, { ...params, tags: { name: 'get' } }), { 'get 200': (r) => r.status === 200 });
+  } else if (roll < 0.7) {
+    check(http.get(`${BASE_URL}/patients?size=20&total=none`, { ...params, tags: { name: 'list' } }), { 'list 200': (r) => r.status === 200 });
+  } else if (roll < 0.9) {
+    check(http.get(`${BASE_URL}/patients?name=jo&size=20`, { ...params, tags: { name: 'search' } }), { 'search 200': (r) => r.status === 200 });
+  } else {
+    const body = JSON.stringify({
+      firstName: 'Load',
+      lastName: randomString(8),
+      dob: '1990-01-01',
+      email: `load.${randomString(16)}@email.com`,
+      phoneNumber: '555-0100',
+      gender: 'OTHER',
+      address: { street: '1 Test St', city: 'Boston', state: 'MA', zipCode: '02101', country: 'USA' },
+      insurance: { provider: 'Aetna', policyNumber: randomString(10) },
+    });
+    check(http.post(`${BASE_URL}/patients`, body, { ...params, tags: { name: 'create' } }), { 'create 200': (r) => r.status === 200 });
+  }
+}
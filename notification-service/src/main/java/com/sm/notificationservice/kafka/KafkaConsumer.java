@@ -12,10 +12,13 @@ import patient.events.PatientEvent;
 @Slf4j
 public class KafkaConsumer {
 
+    // Started by PatientSnapshotBootstrap once the group's offsets are in place
+    static final String LISTENER_ID = "patients";
+
     // This class will handle the consumption of messages from Kafka topics.
     // You can implement methods to listen to specific topics and process the messages accordingly.
 
-    @KafkaListener(topics = "patients", groupId = "notification-group")
+    @KafkaListener(id = LISTENER_ID, topics = "patients", groupId = "notification-group", autoStartup = "false")
     public void consumeEvent(byte[] event) {
         
         try {
@@ -29,5 +32,22 @@ public class KafkaConsumer {
         }
 
     }
-    
+
+    /**
+     * Receives one record of the patients-snapshot topic during bootstrap: the patient's latest state, or
+     * {@code null} for a deleted patient.
+     */
+    public void loadSnapshot(String patientId, byte[] snapshot) {
+        if (snapshot == null) {
+            log.debug("Patient {} is deleted", patientId);
+            return;
+        }
+        try {
+            PatientEvent patientEvent = PatientEvent.parseFrom(snapshot);
+            log.debug("Loaded patient snapshot: {}", patientEvent);
+        } catch (InvalidProtocolBufferException e) {
+            log.error("Error parsing patient snapshot {}: {}", patientId, e.getMessage());
+        }
+    }
+
 }
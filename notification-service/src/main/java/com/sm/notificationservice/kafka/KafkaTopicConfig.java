@@ -1,6 +1,7 @@
 package com.sm.notificationservice.kafka;
 
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
@@ -16,4 +17,17 @@ public class KafkaTopicConfig {
                 .build();
     }
 
+    // Same settings as patient-service's KafkaTopicConfig, whichever service starts first creates it
+    @Bean
+    public NewTopic patientSnapshotTopic() {
+        return TopicBuilder.name("patients-snapshot")
+                .partitions(3)
+                .replicas(1)
+                .compact()
+                .config(TopicConfig.SEGMENT_MS_CONFIG, "3600000")
+                .config(TopicConfig.MIN_CLEANABLE_DIRTY_RATIO_CONFIG, "0.1")
+                .config(TopicConfig.DELETE_RETENTION_MS_CONFIG, "86400000")
+                .build();
+    }
+
 }
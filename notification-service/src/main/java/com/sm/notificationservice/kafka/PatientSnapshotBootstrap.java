@@ -0,0 +1,163 @@
+package com.sm.notificationservice.kafka;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Starts the {@code patients} listener without replaying the topic's history when the consumer group has no
+ * committed offsets yet (a new deployment, or offsets that expired). The latest state of every patient is read from
+ * the log-compacted {@code patients-snapshot} topic up to its end offsets, the group's offsets on {@code patients}
+ * are set to the first event published {@code live-lookback} before those end offsets were taken, and only then is
+ * the listener started. Cold start therefore reads one record per live patient plus the events of the lookback
+ * window and those published meanwhile. A group with committed offsets resumes as usual.
+ *
+ * patient-service sends a change's snapshot record before its event, but the two topics are acknowledged
+ * independently: an event can be on {@code patients} while its snapshot record is still being retried. Starting the
+ * listener at the live end offsets would skip such a change on both topics. The lookback has to cover the
+ * producer's {@code delivery.timeout.ms} (plus clock skew between hosts), after which an unacknowledged snapshot
+ * record has failed and is sent again with a new event.
+ *
+ * Events the snapshot already reflects are delivered again by the listener, so handling them must be harmless. If
+ * the bootstrap fails the listener still starts, falling back to {@code auto-offset-reset}.
+ *
+ * The same class lives in analytics-service and notification-service; the two services share no library module, so
+ * keep the copies in step.
+ */
+@Component
+@Slf4j
+public class PatientSnapshotBootstrap {
+
+    static final String LIVE_TOPIC = "patients";
+    static final String SNAPSHOT_TOPIC = "patients-snapshot";
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+
+    private final ConsumerFactory<String, byte[]> consumerFactory;
+    private final KafkaAdmin kafkaAdmin;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final KafkaConsumer patientEventConsumer;
+    private final String groupId;
+    private final boolean enabled;
+    private final Duration liveLookback;
+
+    public PatientSnapshotBootstrap(ConsumerFactory<String, byte[]> consumerFactory,
+                                    KafkaAdmin kafkaAdmin,
+                                    KafkaListenerEndpointRegistry listenerRegistry,
+                                    KafkaConsumer patientEventConsumer,
+                                    @Value("${spring.kafka.consumer.group-id}") String groupId,
+                                    @Value("${notification.bootstrap-from-snapshot:true}") boolean enabled,
+                                    @Value("${notification.bootstrap-live-lookback:PT30S}") Duration liveLookback) {
+        this.consumerFactory = consumerFactory;
+        this.kafkaAdmin = kafkaAdmin;
+        this.listenerRegistry = listenerRegistry;
+        this.patientEventConsumer = patientEventConsumer;
+        this.groupId = groupId;
+        this.enabled = enabled;
+        this.liveLookback = liveLookback;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrapAndStart() {
+        if (enabled) {
+            try {
+                bootstrapIfNewGroup();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Snapshot bootstrap interrupted, starting from auto-offset-reset");
+            } catch (ExecutionException | KafkaException e) {
+                log.warn("Snapshot bootstrap failed, starting from auto-offset-reset: {}", e.getMessage());
+            }
+        }
+        listenerRegistry.getListenerContainer(KafkaConsumer.LISTENER_ID).start();
+    }
+
+    private void bootstrapIfNewGroup() throws InterruptedException, ExecutionException {
+        Properties noCommit = new Properties();
+        noCommit.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        try (AdminClient admin = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+             Consumer<String, byte[]> consumer = consumerFactory.createConsumer(groupId, "snapshot-bootstrap", null, noCommit)) {
+            if (!admin.listConsumerGroupOffsets(groupId).partitionsToOffsetAndMetadata().get().isEmpty()) {
+                log.info("Consumer group {} has committed offsets, resuming without snapshot bootstrap", groupId);
+                return;
+            }
+            long started = System.nanoTime();
+            // Snapshot end offsets first: the listener replays every event that might not be below them yet
+            List<TopicPartition> snapshotPartitions = partitions(consumer, SNAPSHOT_TOPIC);
+            Map<TopicPartition, Long> snapshotEnd = consumer.endOffsets(snapshotPartitions);
+            long liveFrom = System.currentTimeMillis() - liveLookback.toMillis();
+            long records = readSnapshot(consumer, snapshotPartitions, snapshotEnd);
+            Map<TopicPartition, Long> liveOffsets = liveOffsetsSince(consumer, liveFrom);
+            admin.alterConsumerGroupOffsets(groupId, liveOffsets.entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, offset -> new OffsetAndMetadata(offset.getValue()))))
+                .all()
+                .get();
+            log.info("Bootstrapped from {} with {} records in {} ms, tailing {} from {}", SNAPSHOT_TOPIC, records,
+                (System.nanoTime() - started) / 1_000_000, LIVE_TOPIC, liveOffsets);
+        }
+    }
+
+    private long readSnapshot(Consumer<String, byte[]> consumer, List<TopicPartition> partitions,
+                              Map<TopicPartition, Long> endOffsets) {
+        consumer.assign(partitions);
+        consumer.seekToBeginning(partitions);
+        long records = 0;
+        while (!endOffsets.entrySet().stream().allMatch(end -> consumer.position(end.getKey()) >= end.getValue())) {
+            for (ConsumerRecord<String, byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                patientEventConsumer.loadSnapshot(record.key(), record.value());
+                records++;
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Offset of the first {@code patients} record with a timestamp at or after {@code timestamp}, or the end offset
+     * of partitions without one.
+     */
+    private static Map<TopicPartition, Long> liveOffsetsSince(Consumer<?, ?> consumer, long timestamp) {
+        List<TopicPartition> partitions = partitions(consumer, LIVE_TOPIC);
+        Map<TopicPartition, Long> offsets = new HashMap<>(consumer.endOffsets(partitions));
+        Map<TopicPartition, OffsetAndTimestamp> since = consumer.offsetsForTimes(partitions.stream()
+            .collect(Collectors.toMap(partition -> partition, partition -> timestamp)));
+        since.forEach((partition, offset) -> {
+            if (offset != null) {
+                offsets.put(partition, offset.offset());
+            }
+        });
+        return offsets;
+    }
+
+    private static List<TopicPartition> partitions(Consumer<?, ?> consumer, String topic) {
+        List<PartitionInfo> partitions = consumer.partitionsFor(topic);
+        if (partitions == null) {
+            return List.of();
+        }
+        return partitions.stream()
+            .map(partition -> new TopicPartition(partition.topic(), partition.partition()))
+            .toList();
+    }
+
+}
@@ -0,0 +1,155 @@
+package com.sm.patientservice.bulk;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sm.patientservice.exception.InvalidImportException;
+import com.sm.patientservice.model.dto.Address;
+import com.sm.patientservice.model.dto.Insurance;
+import com.sm.patientservice.model.dto.PatientCreateRequest;
+
+/**
+ * Reads RFC 4180 CSV with a header row. Columns are matched by name (the JSON property names of
+ * {@link PatientCreateRequest}, with address and insurance fields flattened), so their order is free and unknown
+ * columns are ignored. Quoted fields may contain commas, doubled quotes and line breaks.
+ */
+public class CsvPatientRowReader implements PatientRowReader {
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("firstName", "lastName", "dob", "email", "phoneNumber", "gender");
+
+    private final Reader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long row;
+    private int pending = -2;
+
+    /**
+     * @param reader a buffered reader positioned at the header row
+     * @throws InvalidImportException if the header is missing or lacks a required column
+     */
+    public CsvPatientRowReader(Reader reader) throws IOException {
+        this.reader = reader;
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new InvalidImportException("CSV input is empty, a header row is required.");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).strip(), i);
+        }
+        for (String column : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new InvalidImportException("CSV header is missing required column: " + column);
+            }
+        }
+    }
+
+    @Override
+    public PatientRow next() throws IOException {
+        List<String> record;
+        do {
+            record = readRecord();
+            if (record == null) {
+                return null;
+            }
+        } while (record.size() == 1 && record.get(0).isBlank());
+
+        row++;
+        try {
+            return PatientRow.parsed(row, toRequest(record));
+        } catch (DateTimeParseException e) {
+            return PatientRow.invalid(row, "dob: must be an ISO date (yyyy-MM-dd)");
+        } catch (IllegalArgumentException e) {
+            return PatientRow.invalid(row, "gender: " + e.getMessage());
+        }
+    }
+
+    private PatientCreateRequest toRequest(List<String> record) {
+        String dob = field(record, "dob");
+        String gender = field(record, "gender");
+        PatientCreateRequest request = new PatientCreateRequest()
+            .firstName(field(record, "firstName"))
+            .lastName(field(record, "lastName"))
+            .dob(dob == null ? null : LocalDate.parse(dob))
+            .email(field(record, "email"))
+            .phoneNumber(field(record, "phoneNumber"))
+            .gender(gender == null ? null : PatientCreateRequest.GenderEnum.fromValue(gender));
+
+        Address address = new Address()
+            .street(field(record, "street"))
+            .city(field(record, "city"))
+            .state(field(record, "state"))
+            .zipCode(field(record, "zipCode"))
+            .country(field(record, "country"));
+        if (address.getStreet() != null || address.getCity() != null || address.getState() != null
+                || address.getZipCode() != null || address.getCountry() != null) {
+            request.address(address);
+        }
+        String provider = field(record, "provider");
+        String policyNumber = field(record, "policyNumber");
+        if (provider != null || policyNumber != null) {
+            request.insurance(new Insurance().provider(provider).policyNumber(policyNumber));
+        }
+        return request;
+    }
+
+    // Empty cells are treated as absent
+    private String field(List<String> record, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        for (; c != -1; c = read()) {
+            if (quoted) {
+                if (c != '"') {
+                    field.append((char) c);
+                    continue;
+                }
+                int next = read();
+                if (next == '"') {
+                    field.append('"');
+                } else {
+                    quoted = false;
+                    pending = next;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+}
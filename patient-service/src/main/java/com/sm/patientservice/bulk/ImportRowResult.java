@@ -0,0 +1,28 @@
+package com.sm.patientservice.bulk;
+
+import java.util.UUID;
+
+/**
+ * Outcome of one imported record, written as one NDJSON line of the import report.
+ *
+ * @param row    1-based record number, see {@link PatientRow#row()}
+ * @param status whether the patient was created
+ * @param id     id of the created patient
+ * @param error  reason the record was rejected
+ */
+public record ImportRowResult(long row, Status status, UUID id, String error) {
+
+    public enum Status {
+        CREATED,
+        REJECTED
+    }
+
+    public static ImportRowResult created(long row, UUID id) {
+        return new ImportRowResult(row, Status.CREATED, id, null);
+    }
+
+    public static ImportRowResult rejected(long row, String error) {
+        return new ImportRowResult(row, Status.REJECTED, null, error);
+    }
+
+}
@@ -0,0 +1,7 @@
+package com.sm.patientservice.bulk;
+
+/**
+ * Totals of an import, written as the last line of the import report.
+ */
+public record ImportSummary(long rows, long created, long rejected, long durationMillis) {
+}
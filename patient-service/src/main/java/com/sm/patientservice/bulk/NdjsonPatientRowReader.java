@@ -0,0 +1,42 @@
+package com.sm.patientservice.bulk;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.sm.patientservice.model.dto.PatientCreateRequest;
+
+/**
+ * Reads one {@link PatientCreateRequest} JSON object per line. A malformed line only invalidates its own record.
+ */
+public class NdjsonPatientRowReader implements PatientRowReader {
+
+    private final BufferedReader reader;
+    private final ObjectReader objectReader;
+    private long row;
+
+    public NdjsonPatientRowReader(BufferedReader reader, ObjectReader objectReader) {
+        this.reader = reader;
+        this.objectReader = objectReader.forType(PatientCreateRequest.class);
+    }
+
+    @Override
+    public PatientRow next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        row++;
+        try {
+            return PatientRow.parsed(row, objectReader.readValue(line));
+        } catch (JsonProcessingException e) {
+            return PatientRow.invalid(row, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.sm.patientservice.bulk;
+
+import com.sm.patientservice.model.dto.PatientCreateRequest;
+
+/**
+ * One record of an import file. Either {@code request} is set, or {@code error} explains why the record could not
+ * be parsed.
+ *
+ * @param row     1-based number of the record in the file, not counting a CSV header or blank lines
+ * @param request the parsed patient
+ * @param error   the parse error
+ */
+public record PatientRow(long row, PatientCreateRequest request, String error) {
+
+    public static PatientRow parsed(long row, PatientCreateRequest request) {
+        return new PatientRow(row, request, null);
+    }
+
+    public static PatientRow invalid(long row, String error) {
+        return new PatientRow(row, null, error);
+    }
+
+}
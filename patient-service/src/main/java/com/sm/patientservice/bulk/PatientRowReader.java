@@ -0,0 +1,15 @@
+package com.sm.patientservice.bulk;
+
+import java.io.IOException;
+
+/**
+ * Reads an import file one record at a time, so only the current record is held in memory.
+ */
+public interface PatientRowReader {
+
+    /**
+     * @return the next record, or {@code null} at the end of the input
+     */
+    PatientRow next() throws IOException;
+
+}
@@ -0,0 +1,85 @@
+package com.sm.patientservice.cache;
+
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sm.patientservice.config.PatientCacheConfig;
+import com.sm.patientservice.config.ReadReplicaConfig;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded, TTL-evicting cache of mapped patient DTOs and their versions keyed by patient id.
+ *
+ * Entries are invalidated by local writes and by {@code patients} events from other replicas; the TTL bounds
+ * staleness if an event is missed. Hit, miss and eviction counts are published as {@code cache.*} metrics
+ * tagged {@code cache=patients}.
+ *
+ * With a read replica, a miss right after an invalidation may load the old row from a lagging replica. Ids
+ * invalidated within the read-your-writes window are therefore loaded without being cached, so replication lag is
+ * not stretched to the cache TTL.
+ */
+@Component
+@Slf4j
+public class PatientCache {
+
+    private static final String CACHE_NAME = "patients";
+
+    private final Cache<UUID, VersionedPatient> cache;
+    private final Cache<UUID, Boolean> recentlyInvalidated;
+
+    public PatientCache(PatientCacheConfig cacheConfig, ReadReplicaConfig replicaConfig, MeterRegistry meterRegistry) {
+        log.info("PatientCache initialized with maximum size: {} and ttl: {}",
+            cacheConfig.getMaximumSize(), cacheConfig.getTtl());
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(cacheConfig.getMaximumSize())
+            .expireAfterWrite(cacheConfig.getTtl())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.recentlyInvalidated = replicaConfig.isEnabled() && replicaConfig.getReadYourWritesWindow().isPositive()
+            ? Caffeine.newBuilder().expireAfterWrite(replicaConfig.getReadYourWritesWindow()).build()
+            : null;
+    }
+
+    /**
+     * Returns the cached patient, loading it on a miss. A {@code null} result from the loader is not cached.
+     */
+    public VersionedPatient get(UUID id, Function<UUID, VersionedPatient> loader) {
+        if (isRecentlyInvalidated(id)) {
+            return loader.apply(id);
+        }
+        return cache.get(id, loader);
+    }
+
+    /**
+     * Returns the cached patient without loading it, or {@code null}.
+     */
+    public VersionedPatient getIfPresent(UUID id) {
+        return cache.getIfPresent(id);
+    }
+
+    public void put(UUID id, VersionedPatient patient) {
+        if (!isRecentlyInvalidated(id)) {
+            cache.put(id, patient);
+        }
+    }
+
+    public void invalidate(UUID id) {
+        if (recentlyInvalidated != null) {
+            recentlyInvalidated.put(id, Boolean.TRUE);
+        }
+        cache.invalidate(id);
+    }
+
+    private boolean isRecentlyInvalidated(UUID id) {
+        return recentlyInvalidated != null && recentlyInvalidated.getIfPresent(id) != null;
+    }
+
+}
@@ -0,0 +1,8 @@
+package com.sm.patientservice.cache;
+
+import com.sm.patientservice.model.dto.Patient;
+
+/**
+ * Mapped patient together with the {@code @Version} of the row it was mapped from.
+ */
+public record VersionedPatient(Patient patient, long version) {}
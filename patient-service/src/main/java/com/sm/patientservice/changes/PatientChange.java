@@ -0,0 +1,28 @@
+package com.sm.patientservice.changes;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.sm.patientservice.model.dto.Address;
+
+/**
+ * One entry of the change feed, decoded from the {@code patients} event it was published as. Deleted patients only
+ * carry their id.
+ *
+ * @param sequence      position in the feed; pass it as {@code since} to continue after this change
+ * @param changedAt     when the change was recorded, ISO-8601 with offset
+ * @param changedFields for updates published as deltas, the fields that changed (a cleared field is listed but
+ *                      absent); {@code null} when the entry holds the full patient
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PatientChange(
+    long sequence,
+    UUID patientId,
+    String eventType,
+    String changedAt,
+    String name,
+    String email,
+    Address address,
+    List<String> changedFields) {
+}
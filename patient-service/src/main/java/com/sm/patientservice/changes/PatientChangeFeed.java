@@ -0,0 +1,371 @@
+package com.sm.patientservice.changes;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.sm.patientservice.config.PatientChangesConfig;
+import com.sm.patientservice.exception.ChangesExpiredException;
+import com.sm.patientservice.exception.TooManySubscribersException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pushes change feed entries to long-polling and Server-Sent Events subscribers.
+ * <p>
+ * Subscribers are parked as async requests ({@link DeferredResult}, {@link SseEmitter}), so an open connection holds
+ * no thread. A single dispatcher thread checks the feed head every {@code patient.changes.poll-interval} and reads
+ * the changes after the last page it dispatched, once for all subscribers. Changes written on other replicas are
+ * found the same way, since all replicas share the outbox table. At most {@code patient.changes.max-subscribers}
+ * subscribers are open at a time; the open count is published as {@code patient.changes.subscribers}.
+ * <p>
+ * The dispatcher only queues pages and heartbeats; each subscriber sends them from its own virtual thread, one at a
+ * time and in order, so a slow client delays nobody else. A subscriber whose queue of
+ * {@code patient.changes.subscriber-queue-capacity} entries overflows has stopped keeping up and is closed (counted
+ * as {@code patient.changes.overflows}); an SSE client then reconnects with {@code Last-Event-ID}. A subscriber that
+ * is behind the page it is handed (it just subscribed, or the dispatcher skipped ahead) first reads the changes in
+ * between itself, on its own thread.
+ * <p>
+ * The dispatcher has its own thread rather than {@code @Scheduled}, so feed reads never wait on the outbox relay on
+ * the shared scheduler.
+ */
+@Component
+@Slf4j
+public class PatientChangeFeed {
+
+    private final PatientChangeService changeService;
+    private final PatientChangesConfig config;
+    private final Semaphore permits;
+    private final Counter overflows;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("patient-changes-dispatcher").daemon().factory());
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("patient-changes-sender-", 0).factory());
+    // Sequence number the dispatcher has read up to, -1 while nobody is subscribed
+    private volatile long dispatched = -1;
+    private long lastHeartbeat = System.nanoTime();
+
+    public PatientChangeFeed(PatientChangeService changeService, PatientChangesConfig config,
+                             MeterRegistry meterRegistry) {
+        this.changeService = changeService;
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxSubscribers());
+        Gauge.builder("patient.changes.subscribers", subscribers, Set::size)
+            .description("Open change feed long-polls and event streams")
+            .register(meterRegistry);
+        this.overflows = Counter.builder("patient.changes.overflows")
+            .description("Subscribers closed because they fell too far behind")
+            .register(meterRegistry);
+        long interval = config.getPollInterval().toMillis();
+        dispatcher.scheduleWithFixedDelay(this::dispatchSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(Subscriber::close);
+        senders.shutdownNow();
+    }
+
+    /**
+     * Answers with the changes after {@code since}, waiting up to {@code wait} for the first one. An empty answer
+     * carries {@code since} as the next token.
+     */
+    public DeferredResult<PatientChangesResponse> poll(long since, int limit, Duration wait) {
+        List<PatientChange> changes = changeService.changesAfter(since, limit);
+        if (!changes.isEmpty() || wait.isZero()) {
+            DeferredResult<PatientChangesResponse> result = new DeferredResult<>();
+            result.setResult(response(changes, since));
+            return result;
+        }
+        acquire();
+        DeferredResult<PatientChangesResponse> result =
+            new DeferredResult<>(wait.toMillis(), () -> response(List.of(), since));
+        LongPoll subscriber = new LongPoll(result, since, limit);
+        result.onCompletion(() -> unsubscribe(subscriber));
+        subscribe(subscriber);
+        return result;
+    }
+
+    /**
+     * Streams the changes after {@code since} as SSE events named {@code change}, each with its sequence number as
+     * event id, so a reconnecting client can resume with {@code Last-Event-ID}.
+     */
+    public SseEmitter stream(long since) {
+        acquire();
+        SseEmitter emitter = new SseEmitter(config.getStreamTimeout().toMillis());
+        EventStream subscriber = new EventStream(emitter, since);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> emitter.complete());
+        try {
+            // Catch up on the request thread, so an expired token is answered with 410; nothing else sends yet
+            List<PatientChange> changes;
+            do {
+                changes = changeService.changesAfter(subscriber.position(), config.getPageSize());
+                subscriber.deliver(changes);
+            } while (changes.size() == config.getPageSize());
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        subscribe(subscriber);
+        return emitter;
+    }
+
+    private void acquire() {
+        if (!permits.tryAcquire()) {
+            throw new TooManySubscribersException("Too many open change feed subscribers. Please retry later.");
+        }
+    }
+
+    private void subscribe(Subscriber subscriber) {
+        subscribers.add(subscriber);
+        // Changes the dispatcher read before the subscriber was added are fetched by the subscriber itself
+        long read = dispatched;
+        if (read > subscriber.position()) {
+            subscriber.publish(read, List.of());
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            permits.release();
+        }
+    }
+
+    private void dispatchSafely() {
+        try {
+            dispatch();
+        } catch (RuntimeException e) {
+            log.warn("Change feed dispatch failed: {}", e.getMessage());
+        }
+    }
+
+    void dispatch() {
+        if (subscribers.isEmpty()) {
+            dispatched = -1;
+            return;
+        }
+        long head = changeService.head();
+        long from = dispatched >= 0
+            ? dispatched
+            : subscribers.stream().mapToLong(Subscriber::position).min().orElse(head);
+        try {
+            while (from < head) {
+                List<PatientChange> changes = changeService.changesAfter(from, config.getPageSize());
+                if (changes.isEmpty()) {
+                    break;
+                }
+                long after = from;
+                subscribers.forEach(subscriber -> subscriber.publish(after, changes));
+                from = changes.get(changes.size() - 1).sequence();
+            }
+        } catch (ChangesExpiredException e) {
+            // The oldest subscriber is past the retention: skip to the head, everyone behind it catches up on its
+            // own and only the expired ones are closed (an SSE client reconnects and gets 410)
+            from = head;
+            subscribers.forEach(subscriber -> subscriber.publish(head, List.of()));
+        }
+        dispatched = from;
+        if (System.nanoTime() - lastHeartbeat >= config.getHeartbeatInterval().toNanos()) {
+            lastHeartbeat = System.nanoTime();
+            subscribers.forEach(Subscriber::queueHeartbeat);
+        }
+    }
+
+    private static PatientChangesResponse response(List<PatientChange> changes, long since) {
+        long next = changes.isEmpty() ? since : changes.get(changes.size() - 1).sequence();
+        return new PatientChangesResponse(changes, Long.toString(next));
+    }
+
+    /**
+     * Sends queued pages and heartbeats from one virtual thread at a time, in queue order.
+     */
+    private abstract class Subscriber {
+
+        private final BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(config.getSubscriberQueueCapacity());
+        private final AtomicBoolean sending = new AtomicBoolean();
+        volatile boolean closed;
+
+        abstract long position();
+
+        /**
+         * Sends changes that follow {@link #position()}.
+         */
+        abstract void deliver(List<PatientChange> changes);
+
+        abstract void heartbeat();
+
+        abstract void close();
+
+        /**
+         * Queues the page of changes that follows sequence number {@code after}.
+         */
+        void publish(long after, List<PatientChange> changes) {
+            queue(() -> {
+                catchUp(after);
+                long position = position();
+                deliver(changes.stream().filter(change -> change.sequence() > position).toList());
+            });
+        }
+
+        void queueHeartbeat() {
+            queue(this::heartbeat);
+        }
+
+        private void queue(Runnable task) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(task)) {
+                overflows.increment();
+                log.debug("Closing change feed subscriber at {}, its queue is full", position());
+                closed = true;
+                queue.clear();
+                unsubscribe(this);
+                // Closing may wait for a blocked send, so not on the dispatcher
+                senders.execute(this::close);
+                return;
+            }
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::send);
+            }
+        }
+
+        private void send() {
+            try {
+                Runnable task;
+                while (!closed && (task = queue.poll()) != null) {
+                    task.run();
+                }
+            } catch (RuntimeException e) {
+                // Typically an expired position; the client starts over
+                log.debug("Closing change feed subscriber at {}: {}", position(), e.getMessage());
+                closed = true;
+                close();
+            } finally {
+                sending.set(false);
+            }
+            if (!closed && !queue.isEmpty() && sending.compareAndSet(false, true)) {
+                senders.execute(this::send);
+            }
+        }
+
+        private void catchUp(long upTo) {
+            while (position() < upTo) {
+                long position = position();
+                List<PatientChange> changes = changeService.changesAfter(position, config.getPageSize());
+                deliver(changes);
+                if (changes.isEmpty() || position() == position) {
+                    return;
+                }
+            }
+        }
+
+    }
+
+    private final class LongPoll extends Subscriber {
+
+        private final DeferredResult<PatientChangesResponse> result;
+        private final long since;
+        private final int limit;
+
+        LongPoll(DeferredResult<PatientChangesResponse> result, long since, int limit) {
+            this.result = result;
+            this.since = since;
+            this.limit = limit;
+        }
+
+        @Override
+        long position() {
+            return since;
+        }
+
+        @Override
+        void deliver(List<PatientChange> changes) {
+            if (!changes.isEmpty()) {
+                result.setResult(response(changes.subList(0, Math.min(limit, changes.size())), since));
+            }
+        }
+
+        @Override
+        void heartbeat() {
+            // the response is sent in one piece
+        }
+
+        @Override
+        void close() {
+            result.setResult(response(List.of(), since));
+        }
+
+    }
+
+    private final class EventStream extends Subscriber {
+
+        private final SseEmitter emitter;
+        private volatile long position;
+
+        EventStream(SseEmitter emitter, long since) {
+            this.emitter = emitter;
+            this.position = since;
+        }
+
+        @Override
+        long position() {
+            return position;
+        }
+
+        @Override
+        void deliver(List<PatientChange> changes) {
+            try {
+                for (PatientChange change : changes) {
+                    emitter.send(SseEmitter.event()
+                        .id(Long.toString(change.sequence()))
+                        .name("change")
+                        .data(change));
+                    position = change.sequence();
+                }
+            } catch (IOException | IllegalStateException e) {
+                closed = true;
+                emitter.completeWithError(e);
+            }
+        }
+
+        @Override
+        void heartbeat() {
+            try {
+                emitter.send(SseEmitter.event().comment("keepalive"));
+            } catch (IOException | IllegalStateException e) {
+                closed = true;
+                emitter.completeWithError(e);
+            }
+        }
+
+        @Override
+        void close() {
+            emitter.complete();
+        }
+
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.sm.patientservice.changes;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sm.patientservice.exception.ChangesExpiredException;
+import com.sm.patientservice.exception.InvalidChangeTokenException;
+import com.sm.patientservice.mapper.PatientChangeMapper;
+import com.sm.patientservice.model.OutboxEvent;
+import com.sm.patientservice.repository.ChangeFeedHeadRepository;
+import com.sm.patientservice.repository.OutboxEventRepository;
+
+/**
+ * Reads the change feed: published {@code patients} outbox rows in {@code change_seq} order. Sequence numbers are
+ * contiguous, so a token whose successor is gone points at changes that have already been purged.
+ *
+ * Reads are read-write transactions so they are served by the primary: tokens handed out from the primary would
+ * otherwise be ahead of a lagging replica's head and be rejected as expired on the next poll.
+ */
+@Service
+public class PatientChangeService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ChangeFeedHeadRepository changeFeedHeadRepository;
+
+    public PatientChangeService(OutboxEventRepository outboxEventRepository,
+                                ChangeFeedHeadRepository changeFeedHeadRepository) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.changeFeedHeadRepository = changeFeedHeadRepository;
+    }
+
+    /**
+     * @return the sequence number of the latest change, 0 before the first one
+     */
+    @Transactional
+    public long head() {
+        return changeFeedHeadRepository.findLastSeq().orElse(0L);
+    }
+
+    /**
+     * Returns up to {@code limit} changes after {@code since}, oldest first.
+     *
+     * @throws ChangesExpiredException if changes after {@code since} have already been purged, or {@code since}
+     *                                 is ahead of the feed
+     */
+    @Transactional
+    public List<PatientChange> changesAfter(long since, int limit) {
+        // Head first: every change up to it is committed, so a later read can only miss one of them if it was purged
+        long head = head();
+        if (since == head) {
+            return List.of();
+        }
+        if (since > head) {
+            throw expired(since);
+        }
+        List<OutboxEvent> rows = outboxEventRepository.findChangesAfter(since, Limit.of(limit));
+        if (rows.isEmpty() || rows.get(0).getChangeSeq() != since + 1) {
+            throw expired(since);
+        }
+        return rows.stream().map(PatientChangeMapper::toChange).toList();
+    }
+
+    private static ChangesExpiredException expired(long since) {
+        return new ChangesExpiredException(
+            "Changes after token " + since + " are no longer available. Reload the patients and start over.");
+    }
+
+    /**
+     * Parses a {@code since} token; a missing token means "from now on".
+     */
+    public long parseToken(String token) {
+        if (token == null || token.isBlank()) {
+            return head();
+        }
+        try {
+            long since = Long.parseLong(token);
+            if (since >= 0) {
+                return since;
+            }
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        throw new InvalidChangeTokenException("Invalid change token: " + token);
+    }
+
+}
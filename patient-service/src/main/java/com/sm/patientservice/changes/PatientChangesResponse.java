@@ -0,0 +1,10 @@
+package com.sm.patientservice.changes;
+
+import java.util.List;
+
+/**
+ * @param changes   changes after the requested token, oldest first, possibly empty
+ * @param nextToken token to pass as {@code since} on the next request
+ */
+public record PatientChangesResponse(List<PatientChange> changes, String nextToken) {
+}
@@ -1,5 +1,7 @@
 package com.sm.patientservice.config;
 
+import java.time.Duration;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
@@ -14,5 +16,27 @@ public class BillingServiceConfig {
 
     @Value("${grpc.billing.service.port}")
     private int billingServicePort;
+
+    @Value("${grpc.billing.service.deadline:PT1S}")
+    private Duration deadline;
+
+    @Value("${grpc.billing.service.max-in-flight:64}")
+    private int maxInFlight;
+
+    @Value("${grpc.billing.service.circuit-breaker.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+
+    @Value("${grpc.billing.service.circuit-breaker.sliding-window-size:20}")
+    private int slidingWindowSize;
+
+    @Value("${grpc.billing.service.circuit-breaker.open-duration:PT10S}")
+    private Duration openDuration;
+
+    // gRPC callbacks run on virtual threads when the service runs in virtual-thread mode
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${patient.billing.reconcile-batch-size:100}")
+    private int reconcileBatchSize;
     
 }
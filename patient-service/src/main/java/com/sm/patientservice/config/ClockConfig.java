@@ -0,0 +1,20 @@
+package com.sm.patientservice.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.sm.patientservice.utils.AppClock;
+
+@Configuration
+public class ClockConfig {
+
+    /**
+     * Time source for every timestamp the service stores, publishes or returns. Tests pass their own
+     * {@link AppClock} over a fixed {@link java.time.Clock} to the class under test instead.
+     */
+    @Bean
+    public AppClock appClock() {
+        return AppClock.system();
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.sm.patientservice.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.sm.patientservice.datasource.ReadWriteRoutingDataSource;
+import com.sm.patientservice.datasource.ReadYourWritesGuard;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Replaces the single auto-configured pool with a primary and a replica pool when
+ * {@code patient.datasource.replica.enabled} is set. The primary keeps the {@code spring.datasource} settings, the
+ * replica pool is tuned under {@code patient.datasource.replica.hikari}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "patient.datasource.replica.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("patient.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties, ReadReplicaConfig replicaConfig) {
+        HikariDataSource replica = DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .driverClassName(properties.determineDriverClassName())
+            .url(replicaConfig.getUrl())
+            .username(replicaConfig.getUsername())
+            .password(replicaConfig.getPassword())
+            .build();
+        replica.setPoolName("HikariPool-PatientService-Replica");
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    public ReadYourWritesGuard readYourWritesGuard(ReadReplicaConfig replicaConfig) {
+        return new ReadYourWritesGuard(replicaConfig.getReadYourWritesWindow());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+        HikariDataSource primaryDataSource,
+        HikariDataSource replicaDataSource,
+        ReadYourWritesGuard readYourWritesGuard,
+        MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(
+            primaryDataSource, replicaDataSource, readYourWritesGuard, meterRegistry));
+    }
+
+}
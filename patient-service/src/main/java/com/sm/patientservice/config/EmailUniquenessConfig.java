@@ -0,0 +1,19 @@
+package com.sm.patientservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Configuration
+@Data
+public class EmailUniquenessConfig {
+
+    // Size the filter for the expected table size; the false positive rate rises once it is exceeded
+    @Value("${patient.email.bloom.expected-emails:1000000}")
+    private long expectedEmails;
+
+    @Value("${patient.email.bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+}
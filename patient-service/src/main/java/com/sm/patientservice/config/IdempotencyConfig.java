@@ -0,0 +1,33 @@
+package com.sm.patientservice.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Configuration
+@Data
+public class IdempotencyConfig {
+
+    @Value("${patient.idempotency.ttl:PT24H}")
+    private Duration ttl;
+
+    @Value("${patient.idempotency.maximum-size:10000}")
+    private long maximumSize;
+
+    /**
+     * How long a repeated request waits for the first one to finish before it is answered with 409.
+     */
+    @Value("${patient.idempotency.wait-timeout:PT10S}")
+    private Duration waitTimeout;
+
+    /**
+     * How long a database reservation is honoured without a response, after which another replica may take the
+     * key over. Covers replicas that died mid-request.
+     */
+    @Value("${patient.idempotency.reservation-timeout:PT30S}")
+    private Duration reservationTimeout;
+
+}
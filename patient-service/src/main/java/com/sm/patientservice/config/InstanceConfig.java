@@ -0,0 +1,41 @@
+package com.sm.patientservice.config;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+
+@Configuration
+@Data
+public class InstanceConfig {
+
+    /**
+     * Identifies this replica: it names the replica's Kafka consumer group and marks the events it writes, so it
+     * must be unique per replica and should survive restarts. Defaults to host name and server port.
+     */
+    @Value("${patient.instance-id:}")
+    private String instanceId;
+
+    @Value("${server.port:4000}")
+    private int serverPort;
+
+    @PostConstruct
+    void resolveInstanceId() {
+        if (instanceId == null || instanceId.isBlank()) {
+            instanceId = hostName() + "-" + serverPort;
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.sm.patientservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Configuration
+@Data
+public class KafkaProducerConfig {
+
+    /**
+     * With DEBUG enabled, one in this many acknowledged sends is logged; 1 logs every send.
+     */
+    @Value("${patient.kafka.producer.log-sample-rate:100}")
+    private int logSampleRate;
+
+}
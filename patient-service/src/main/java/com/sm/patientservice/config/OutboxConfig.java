@@ -0,0 +1,26 @@
+package com.sm.patientservice.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Configuration
+@Data
+public class OutboxConfig {
+
+    @Value("${patient.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${patient.outbox.send-timeout:PT10S}")
+    private Duration sendTimeout;
+
+    /**
+     * How long published events are kept for the change feed before they are purged.
+     */
+    @Value("${patient.outbox.retention:PT24H}")
+    private Duration retention;
+
+}
@@ -0,0 +1,16 @@
+package com.sm.patientservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Configuration
+@Data
+public class PatientBatchGetConfig {
+
+    // Ids per IN list when resolving POST /patients:batchGet cache misses
+    @Value("${patient.batch-get.chunk-size:100}")
+    private int chunkSize;
+
+}
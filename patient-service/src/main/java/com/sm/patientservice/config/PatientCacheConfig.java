@@ -0,0 +1,20 @@
+package com.sm.patientservice.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Configuration
+@Data
+public class PatientCacheConfig {
+
+    @Value("${patient.cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${patient.cache.ttl:PT5M}")
+    private Duration ttl;
+
+}
@@ -0,0 +1,41 @@
+package com.sm.patientservice.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Configuration
+@Data
+public class PatientChangesConfig {
+
+    /**
+     * Open long-polls and event streams allowed per replica; further subscribers get 503.
+     */
+    @Value("${patient.changes.max-subscribers:1000}")
+    private int maxSubscribers;
+
+    @Value("${patient.changes.poll-interval:PT0.5S}")
+    private Duration pollInterval;
+
+    @Value("${patient.changes.page-size:100}")
+    private int pageSize;
+
+    @Value("${patient.changes.max-wait:PT30S}")
+    private Duration maxWait;
+
+    @Value("${patient.changes.stream-timeout:PT30M}")
+    private Duration streamTimeout;
+
+    @Value("${patient.changes.heartbeat-interval:PT15S}")
+    private Duration heartbeatInterval;
+
+    /**
+     * Pages and heartbeats queued for one subscriber; a subscriber that falls further behind is closed.
+     */
+    @Value("${patient.changes.subscriber-queue-capacity:64}")
+    private int subscriberQueueCapacity;
+
+}
@@ -0,0 +1,28 @@
+package com.sm.patientservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Configuration
+@Data
+public class PatientEventConfig {
+
+    /**
+     * delta: UPDATED events carry a field mask and only the changed fields; snapshot: the full patient.
+     */
+    @Value("${patient.events.updated-payload:delta}")
+    private String updatedPayload;
+
+    /**
+     * Whether every change is also published to the compacted patients-snapshot topic.
+     */
+    @Value("${patient.events.snapshot-topic-enabled:true}")
+    private boolean snapshotTopicEnabled;
+
+    public boolean isSnapshotUpdates() {
+        return "snapshot".equalsIgnoreCase(updatedPayload);
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.sm.patientservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Configuration
+@Data
+public class PatientImportConfig {
+
+    // Rows per email lookup and insert transaction; should match hibernate.jdbc.batch_size
+    @Value("${patient.import.batch-size:500}")
+    private int batchSize;
+
+}
@@ -0,0 +1,20 @@
+package com.sm.patientservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Configuration
+@Data
+public class PatientQueryGrpcConfig {
+
+    // Same cap as maxItems of PatientBatchGetRequest in openapi.yaml
+    @Value("${patient.grpc.batch-get.max-ids:500}")
+    private int maxBatchIds;
+
+    // Rows read per query while streaming ListPatients
+    @Value("${patient.grpc.list.page-size:100}")
+    private int listPageSize;
+
+}
@@ -0,0 +1,23 @@
+package com.sm.patientservice.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.sm.patientservice.protobuf.PatientProtobufHttpMessageConverter;
+
+@Configuration
+public class ProtobufWebConfig implements WebMvcConfigurer {
+
+    /**
+     * Added after the Jackson converter: responses without a {@code produces} list, such as error responses, are
+     * written with the first converter that fits the Accept header, so a missing or wildcard Accept must pick JSON.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new PatientProtobufHttpMessageConverter());
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.sm.patientservice.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Configuration
+@Data
+public class ReadReplicaConfig {
+
+    @Value("${patient.datasource.replica.enabled:false}")
+    private boolean enabled;
+
+    @Value("${patient.datasource.replica.url:}")
+    private String url;
+
+    @Value("${patient.datasource.replica.username:${spring.datasource.username:}}")
+    private String username;
+
+    @Value("${patient.datasource.replica.password:${spring.datasource.password:}}")
+    private String password;
+
+    /**
+     * How long reads of a user who has just written keep going to the primary, so they see their own writes despite
+     * replication lag. Zero turns the guard off.
+     */
+    @Value("${patient.datasource.replica.read-your-writes-window:PT5S}")
+    private Duration readYourWritesWindow;
+
+}
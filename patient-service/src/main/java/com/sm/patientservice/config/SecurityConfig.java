@@ -38,6 +38,9 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)) // Stateless session
             .authorizeHttpRequests(authorizeRequests ->
                 authorizeRequests
+                    // Health is probed directly inside the cluster, not through the gateway. Metrics stay
+                    // behind authentication: port 4000 is published, and they expose cache and traffic internals.
+                    .requestMatchers("/actuator/health/**", "/actuator/info").permitAll()
                     // All requests reaching this service are expected to come from the API Gateway
                     // and should thus be authenticated. Public endpoints would be handled at the Gateway.
                     .anyRequest().authenticated()
@@ -7,4 +7,12 @@ public class AppConstant {
     }
 
     public static final String DEFAULT_ZONE = "America/New_York";
+
+    public static final String PATIENT_EVENTS_TOPIC = "patients";
+
+    // Log-compacted: latest state of every patient keyed by id, tombstones for deleted patients
+    public static final String PATIENT_SNAPSHOT_TOPIC = "patients-snapshot";
+
+    // Record header carrying the instance id of the replica that wrote the change
+    public static final String ORIGIN_HEADER = "origin";
 }
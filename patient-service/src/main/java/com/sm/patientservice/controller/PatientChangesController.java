@@ -0,0 +1,65 @@
+package com.sm.patientservice.controller;
+
+import java.time.Duration;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.sm.patientservice.changes.PatientChangeFeed;
+import com.sm.patientservice.changes.PatientChangeService;
+import com.sm.patientservice.changes.PatientChangesResponse;
+import com.sm.patientservice.config.PatientChangesConfig;
+
+/**
+ * Change feed of patient creates, updates and deletes, for clients that do not consume the {@code patients} topic.
+ * Not part of openapi.yaml because both variants answer asynchronously.
+ * <ul>
+ *   <li>{@code Accept: application/json} - the changes after {@code since}; with {@code wait} (seconds) the request
+ *   is held until the first change arrives or the wait is over (long-poll).</li>
+ *   <li>{@code Accept: text/event-stream} - Server-Sent Events, one {@code change} event per change. A reconnecting
+ *   {@code EventSource} resumes from its {@code Last-Event-ID}.</li>
+ * </ul>
+ * Without {@code since} the feed starts at the latest change. A token older than the retention gets 410; the client
+ * then reloads the patients and starts over.
+ */
+@RestController
+public class PatientChangesController {
+
+    private final PatientChangeFeed patientChangeFeed;
+    private final PatientChangeService patientChangeService;
+    private final PatientChangesConfig config;
+
+    public PatientChangesController(PatientChangeFeed patientChangeFeed,
+                                    PatientChangeService patientChangeService,
+                                    PatientChangesConfig config) {
+        this.patientChangeFeed = patientChangeFeed;
+        this.patientChangeService = patientChangeService;
+        this.config = config;
+    }
+
+    @GetMapping(path = "/patients/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<PatientChangesResponse> pollChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "0") long wait) {
+        int pageSize = limit == null ? config.getPageSize() : Math.clamp(limit, 1, config.getPageSize());
+        Duration waitFor = Duration.ofSeconds(Math.max(wait, 0));
+        if (waitFor.compareTo(config.getMaxWait()) > 0) {
+            waitFor = config.getMaxWait();
+        }
+        return patientChangeFeed.poll(patientChangeService.parseToken(since), pageSize, waitFor);
+    }
+
+    @GetMapping(path = "/patients/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(required = false) String since,
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        return patientChangeFeed.stream(patientChangeService.parseToken(lastEventId != null ? lastEventId : since));
+    }
+
+}
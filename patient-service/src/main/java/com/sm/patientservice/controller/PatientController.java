@@ -2,19 +2,24 @@ package com.sm.patientservice.controller;
 
 import java.util.UUID;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.sm.patientservice.api.PatientsApi;
 import com.sm.patientservice.constant.ResponseConstant;
+import com.sm.patientservice.etag.PatientETag;
+import com.sm.patientservice.idempotency.IdempotencyService;
 import com.sm.patientservice.model.dto.PaginatedPatientListResponse;
+import com.sm.patientservice.model.dto.PatientBatchGetRequest;
+import com.sm.patientservice.model.dto.PatientBatchGetResponse;
 import com.sm.patientservice.model.dto.PatientCreateRequest;
 import com.sm.patientservice.model.dto.PatientResponseWrapper;
+import com.sm.patientservice.service.PatientBatchGetService;
 import com.sm.patientservice.service.PatientService;
-import com.sm.patientservice.utils.AppUtils;
+import com.sm.patientservice.utils.AppClock;
 
-import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 
 @RestController
@@ -22,62 +27,116 @@ import lombok.extern.slf4j.Slf4j;
 public class PatientController implements PatientsApi{
     
     private final PatientService patientService;
+    private final PatientBatchGetService patientBatchGetService;
+    private final IdempotencyService idempotencyService;
+    private final AppClock appClock;
 
-    public PatientController (PatientService patientService) {
+    public PatientController (PatientService patientService, PatientBatchGetService patientBatchGetService,
+            IdempotencyService idempotencyService, AppClock appClock) {
         this.patientService = patientService;
+        this.patientBatchGetService = patientBatchGetService;
+        this.idempotencyService = idempotencyService;
+        this.appClock = appClock;
     }
     
+    /**
+     * With Idempotency-Key, a repeated request is answered with the response of the first one, marked with
+     * Idempotent-Replayed, instead of creating the patient again.
+     */
     @Override
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<PatientResponseWrapper> createPatient(@Valid PatientCreateRequest patientCreateRequest) {
+    public ResponseEntity<PatientResponseWrapper> createPatient(PatientCreateRequest patientCreateRequest,
+            String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(createPatientResponse(patientCreateRequest));
+        }
+        var result = idempotencyService.execute(idempotencyKey, patientCreateRequest, PatientResponseWrapper.class,
+            () -> createPatientResponse(patientCreateRequest));
+        var ok = ResponseEntity.ok();
+        if (result.replayed()) {
+            ok.header(IdempotencyService.REPLAYED_HEADER, "true");
+        }
+        return ok.body(result.body());
+    }
+
+    private PatientResponseWrapper createPatientResponse(PatientCreateRequest patientCreateRequest) {
         var patient = patientService.createPatient(patientCreateRequest);
-        var responseWrapper = new PatientResponseWrapper()
+        return new PatientResponseWrapper()
             .data(patient)
             .status(ResponseConstant.SUCCESS_STATUS)
-            .timestamp(AppUtils.getCurrentTimestamp());
-        return ResponseEntity.ok(responseWrapper);
+            .timestamp(appClock.currentTimestamp());
     }
 
     @Override
-    public ResponseEntity<PaginatedPatientListResponse> getPatients(@Valid String name, @Valid Integer page, @Valid Integer size) {
-        var patientPage = patientService.getPatients(name, page, size);
+    public ResponseEntity<PaginatedPatientListResponse> getPatients(String name, Integer page, Integer size,
+            String after, String total, String ifNoneMatch) {
+        var patientPage = patientService.getPatients(name, page, size, after, total);
+        if (patientPage.etag != null && PatientETag.matches(ifNoneMatch, patientPage.etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(patientPage.etag).build();
+        }
         var response = new PaginatedPatientListResponse()
             .status(ResponseConstant.SUCCESS_STATUS)
-            .timestamp(AppUtils.getCurrentTimestamp())
+            .timestamp(appClock.currentTimestamp())
             .data(patientPage.patients)
             .meta(patientPage.meta);
-        return ResponseEntity.ok(response);
+        var ok = ResponseEntity.ok();
+        if (patientPage.etag != null) {
+            ok.eTag(patientPage.etag);
+        }
+        return ok.body(response);
     }
 
     @Override
-    public ResponseEntity<PatientResponseWrapper> getPatientById(UUID id) {
+    public ResponseEntity<PatientBatchGetResponse> batchGetPatients(PatientBatchGetRequest patientBatchGetRequest) {
         return ResponseEntity.ok(
-            new PatientResponseWrapper()
-                .data(patientService.getPatientById(id))
+            new PatientBatchGetResponse()
+                .data(patientBatchGetService.getPatients(patientBatchGetRequest.getIds()))
                 .status(ResponseConstant.SUCCESS_STATUS)
-                .timestamp(AppUtils.getCurrentTimestamp())
+                .timestamp(appClock.currentTimestamp())
         );
     }
 
+    /**
+     * With If-None-Match, the current version is looked up first (cache or version-only query) and a matching tag
+     * is answered with 304 before the patient is loaded or mapped.
+     */
+    @Override
+    public ResponseEntity<PatientResponseWrapper> getPatientById(UUID id, String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            String etag = PatientETag.of(id, patientService.getPatientVersion(id));
+            if (PatientETag.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+        var patient = patientService.getVersionedPatient(id);
+        return ResponseEntity.ok()
+            .eTag(PatientETag.of(id, patient.version()))
+            .body(new PatientResponseWrapper()
+                .data(patient.patient())
+                .status(ResponseConstant.SUCCESS_STATUS)
+                .timestamp(appClock.currentTimestamp()));
+    }
+
     @Override
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<PatientResponseWrapper> updatePatient(UUID id,
-            @Valid PatientCreateRequest patientCreateRequest) {
-        return ResponseEntity.ok(
-            new PatientResponseWrapper()
-                .data(patientService.updatePatient(id, patientCreateRequest))
+            PatientCreateRequest patientCreateRequest, String ifMatch) {
+        var patient = patientService.updatePatient(id, patientCreateRequest, PatientETag.expectedVersion(ifMatch, id));
+        return ResponseEntity.ok()
+            .eTag(PatientETag.of(id, patient.version()))
+            .body(new PatientResponseWrapper()
+                .data(patient.patient())
                 .status(ResponseConstant.SUCCESS_STATUS)
-                .timestamp(AppUtils.getCurrentTimestamp())
-        );
+                .timestamp(appClock.currentTimestamp()));
     }
 
     @Override
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Void> deletePatient(UUID id) {
-        patientService.deletePatient(id);
+    public ResponseEntity<Void> deletePatient(UUID id, String ifMatch) {
+        patientService.deletePatient(id, PatientETag.expectedVersion(ifMatch, id));
         return ResponseEntity.noContent()
             .header("X-Status", ResponseConstant.SUCCESS_STATUS)
-            .header("X-Timestamp", AppUtils.getCurrentTimestamp())
+            .header("X-Timestamp", appClock.currentTimestamp())
             .build();
     }
 
@@ -0,0 +1,70 @@
+package com.sm.patientservice.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sm.patientservice.service.PatientExportService;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Full export of the patient table as NDJSON, one Patient per line. Not part of openapi.yaml because the body is
+ * streamed while the database cursor is read. The body is gzip-compressed when the client accepts it.
+ */
+@RestController
+@Slf4j
+public class PatientExportController {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final PatientExportService patientExportService;
+    private final ObjectMapper objectMapper;
+
+    public PatientExportController(PatientExportService patientExportService, ObjectMapper objectMapper) {
+        this.patientExportService = patientExportService;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping(path = "/patients:export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportPatients(@RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                               HttpServletResponse response) throws IOException {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        OutputStream out = gzip
+            ? new GZIPOutputStream(response.getOutputStream(), GZIP_BUFFER_SIZE)
+            : response.getOutputStream();
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            long count = patientExportService.exportPatients(patient -> {
+                try {
+                    generator.writeObject(patient);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (count > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+}
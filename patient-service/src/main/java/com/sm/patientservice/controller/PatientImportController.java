@@ -0,0 +1,82 @@
+package com.sm.patientservice.controller;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sm.patientservice.bulk.CsvPatientRowReader;
+import com.sm.patientservice.bulk.ImportSummary;
+import com.sm.patientservice.bulk.NdjsonPatientRowReader;
+import com.sm.patientservice.bulk.PatientRowReader;
+import com.sm.patientservice.service.PatientImportService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bulk import of patients. Not part of openapi.yaml because both the request and the response are streamed:
+ * the body is parsed record by record and the per-row report is written back as NDJSON while the import runs,
+ * so neither side is held in memory.
+ */
+@RestController
+@Slf4j
+public class PatientImportController {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final PatientImportService patientImportService;
+    private final ObjectMapper objectMapper;
+
+    public PatientImportController(PatientImportService patientImportService, ObjectMapper objectMapper) {
+        this.patientImportService = patientImportService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Imports patients from NDJSON (one PatientCreateRequest per line) or CSV with a header row.
+     * Responds with one {@code ImportRowResult} line per record followed by an {@code ImportSummary} line.
+     */
+    @PostMapping(path = "/patients:bulk",
+        consumes = { MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE },
+        produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public void importPatients(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                               HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        var reader = new BufferedReader(
+            new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+        PatientRowReader rows = contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)
+            ? new NdjsonPatientRowReader(reader, objectMapper.reader())
+            : new CsvPatientRowReader(reader);
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        try (JsonGenerator generator = objectMapper.createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            ImportSummary summary = patientImportService.importPatients(rows, result -> {
+                try {
+                    generator.writeObject(result);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeObject(summary);
+            generator.writeRaw('\n');
+        }
+    }
+
+}
@@ -0,0 +1,6 @@
+package com.sm.patientservice.datasource;
+
+public enum DataSourceRole {
+    PRIMARY,
+    REPLICA
+}
@@ -0,0 +1,90 @@
+package com.sm.patientservice.datasource;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sm.patientservice.utils.TransactionUtils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends connections of {@code @Transactional(readOnly = true)} work to the replica and everything else to the
+ * primary. A user who committed a write within the {@link ReadYourWritesGuard} window keeps reading from the primary.
+ * A transaction that was handed a replica connection is marked, see {@link #isCurrentTransactionOnReplica()}.
+ * <p>
+ * The key is resolved when a connection is fetched, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction manager asks for a
+ * connection before the read-only flag of the transaction is published.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Object REPLICA_READ = new Object();
+
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Counter pinnedConnections;
+
+    public ReadWriteRoutingDataSource(
+        DataSource primary,
+        DataSource replica,
+        ReadYourWritesGuard readYourWritesGuard,
+        MeterRegistry meterRegistry) {
+        this.readYourWritesGuard = readYourWritesGuard;
+        this.primaryConnections = routedCounter(meterRegistry, "primary");
+        this.replicaConnections = routedCounter(meterRegistry, "replica");
+        this.pinnedConnections = routedCounter(meterRegistry, "primary_read_your_writes");
+        setTargetDataSources(Map.of(DataSourceRole.PRIMARY, primary, DataSourceRole.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected DataSourceRole determineCurrentLookupKey() {
+        String user = ReadYourWritesGuard.currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (user != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                TransactionUtils.afterCommit(() -> readYourWritesGuard.recordWrite(user));
+            }
+            primaryConnections.increment();
+            return DataSourceRole.PRIMARY;
+        }
+        if (readYourWritesGuard.recentlyWrote(user)) {
+            pinnedConnections.increment();
+            return DataSourceRole.PRIMARY;
+        }
+        replicaConnections.increment();
+        markReplicaRead();
+        return DataSourceRole.REPLICA;
+    }
+
+    /**
+     * Whether the current transaction reads from the replica, so the rows it loaded may lag behind the primary and
+     * must not be cached.
+     */
+    public static boolean isCurrentTransactionOnReplica() {
+        return TransactionSynchronizationManager.hasResource(REPLICA_READ);
+    }
+
+    private static void markReplicaRead() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+            || TransactionSynchronizationManager.hasResource(REPLICA_READ)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(REPLICA_READ, Boolean.TRUE);
+        TransactionUtils.afterCompletion(() -> TransactionSynchronizationManager.unbindResourceIfPossible(REPLICA_READ));
+    }
+
+    private static Counter routedCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("patient.datasource.connections")
+            .description("Connections handed out by the read/write routing data source")
+            .tag("target", target)
+            .register(meterRegistry);
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.sm.patientservice.datasource;
+
+import java.time.Duration;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Remembers which users committed a write in the last {@code window}, so their reads can be kept on the primary
+ * until the replica has had time to catch up. Requests without an authenticated user are never pinned.
+ */
+public class ReadYourWritesGuard {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesGuard(Duration window) {
+        this.recentWriters = window.isZero() || window.isNegative()
+            ? null
+            : Caffeine.newBuilder().expireAfterWrite(window).build();
+    }
+
+    public void recordWrite(String user) {
+        if (recentWriters != null && user != null) {
+            recentWriters.put(user, Boolean.TRUE);
+        }
+    }
+
+    public boolean recentlyWrote(String user) {
+        return recentWriters != null && user != null && recentWriters.getIfPresent(user) != null;
+    }
+
+    /**
+     * Returns the name of the user of the current request, or null for unauthenticated and background work.
+     */
+    public static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+            || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.sm.patientservice.email;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.sm.patientservice.config.EmailUniquenessConfig;
+import com.sm.patientservice.exception.EmailAlreadyExistException;
+import com.sm.patientservice.repository.PatientRepository;
+import com.sm.patientservice.utils.TransactionUtils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Decides cheaply whether an email can be taken and keeps concurrent writers from taking the same one.
+ *
+ * <ul>
+ *   <li>A Bloom filter of all lower-cased emails answers "definitely not taken" without a query. It is loaded at
+ *   startup, fed by local writes and by {@code patients} events from other replicas, and never forgets removed
+ *   emails; a stale entry only costs a database check. Until it is loaded every check goes to the database.</li>
+ *   <li>Emails of in-flight writes are reserved in a concurrent map, so two requests on this replica cannot both
+ *   pass the check for the same email before either has inserted. Across replicas the unique index on
+ *   {@code lower(email)} is the last line of defence, see {@link #isEmailConstraintViolation}.</li>
+ * </ul>
+ *
+ * Metrics: {@code patient.email.checks} tagged {@code result=skipped|database}, and
+ * {@code patient.email.bloom.fpp}, the expected false positive rate at the current fill.
+ */
+@Component
+@Slf4j
+public class EmailUniquenessGuard {
+
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final List<String> EMAIL_CONSTRAINTS = List.of("idx_patient_email_lower", "uk_patient_email");
+
+    private final PatientRepository patientRepository;
+    private final BloomFilter<CharSequence> emails;
+    // Lower-cased email -> owner of the reservation
+    private final Map<String, Object> inFlight = new ConcurrentHashMap<>();
+    private final Counter skippedChecks;
+    private final Counter databaseChecks;
+    private volatile boolean loaded;
+
+    public EmailUniquenessGuard(PatientRepository patientRepository,
+                                EmailUniquenessConfig config,
+                                MeterRegistry meterRegistry) {
+        this.patientRepository = patientRepository;
+        this.emails = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8),
+            config.getExpectedEmails(), config.getFalsePositiveRate());
+        this.skippedChecks = meterRegistry.counter("patient.email.checks", "result", "skipped");
+        this.databaseChecks = meterRegistry.counter("patient.email.checks", "result", "database");
+        Gauge.builder("patient.email.bloom.fpp", emails, BloomFilter::expectedFpp)
+            .description("Expected false positive rate of the email Bloom filter")
+            .register(meterRegistry);
+    }
+
+    // Read-write so the load is served by the primary: emails missing from a lagging replica would be skipped checks
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void load() {
+        long start = System.currentTimeMillis();
+        try (Stream<String> existing = patientRepository.streamAllEmailsLowerCase()) {
+            existing.forEach(emails::put);
+        }
+        loaded = true;
+        log.info("Email Bloom filter loaded with ~{} emails in {} ms, expected fpp {}",
+            emails.approximateElementCount(), System.currentTimeMillis() - start, emails.expectedFpp());
+    }
+
+    /**
+     * @return false only if no patient can have this email; true means the database has to be asked
+     */
+    public boolean mightBeTaken(String email) {
+        if (loaded && !emails.mightContain(normalize(email))) {
+            skippedChecks.increment();
+            return false;
+        }
+        databaseChecks.increment();
+        return true;
+    }
+
+    /**
+     * Records an email that is now taken.
+     */
+    public void add(String email) {
+        if (email != null && !email.isEmpty()) {
+            emails.put(normalize(email));
+        }
+    }
+
+    /**
+     * Reserves the email until the current transaction completes and records it as taken once it commits.
+     *
+     * @param owner identifies the writer, e.g. the patient id of an update or
+     *              {@link com.sm.patientservice.utils.TransactionUtils#currentTransactionKey()} of a create;
+     *              reserving again with an equal owner succeeds
+     * @throws EmailAlreadyExistException if another in-flight write on this replica holds the email
+     */
+    public void reserveForTransaction(String email, Object owner) {
+        if (!tryReserve(email, owner)) {
+            log.debug("Email {} is reserved by {}, rejecting {}", email, inFlight.get(normalize(email)), owner);
+            throw new EmailAlreadyExistException("Patient with email " + email + " already exists.");
+        }
+        TransactionUtils.afterCommit(() -> add(email));
+        TransactionUtils.afterCompletion(() -> release(email, owner));
+    }
+
+    /**
+     * @return true if the email is now reserved for the owner and must be {@link #release released} by the caller
+     */
+    public boolean tryReserve(String email, Object owner) {
+        Object holder = inFlight.putIfAbsent(normalize(email), owner);
+        return holder == null || holder.equals(owner);
+    }
+
+    public void release(String email, Object owner) {
+        inFlight.remove(normalize(email), owner);
+    }
+
+    /**
+     * Whether a failed insert or update was caused by one of the email unique constraints: a unique violation
+     * (SQLState 23505) naming {@code idx_patient_email_lower} (Postgres) or {@code uk_patient_email} (schema.sql).
+     * Drivers only report the constraint in the message; H2 names the index backing it, which starts with it.
+     */
+    public static boolean isEmailConstraintViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && UNIQUE_VIOLATION.equals(sqlException.getSQLState())) {
+                String message = String.valueOf(sqlException.getMessage()).toLowerCase(Locale.ROOT);
+                return EMAIL_CONSTRAINTS.stream().anyMatch(message::contains);
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.sm.patientservice.etag;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import com.sm.patientservice.exception.PreconditionFailedException;
+import com.sm.patientservice.model.dto.PaginatedPatientListResponseMeta;
+import com.sm.patientservice.repository.PatientListView;
+
+/**
+ * Strong entity tags for patients. A single patient is tagged {@code "<id>:<version>"}, so a tag can be checked
+ * against a version without loading the patient. A page is tagged with a digest of the ids and versions of its rows
+ * and of its pagination metadata.
+ */
+public final class PatientETag {
+
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    private PatientETag() {
+    }
+
+    public static String of(UUID id, long version) {
+        return "\"" + id + ":" + version + "\"";
+    }
+
+    public static String ofPage(List<PatientListView> rows, PaginatedPatientListResponseMeta meta) {
+        MessageDigest digest = sha256();
+        ByteBuffer row = ByteBuffer.allocate(3 * Long.BYTES);
+        for (PatientListView view : rows) {
+            row.clear();
+            row.putLong(view.id().getMostSignificantBits())
+                .putLong(view.id().getLeastSignificantBits())
+                .putLong(view.version() == null ? 0L : view.version());
+            digest.update(row.array());
+        }
+        String pagination = String.join("|", Objects.toString(meta.getPage()), Objects.toString(meta.getSize()),
+            Objects.toString(meta.getTotalItems()), Objects.toString(meta.getTotalPages()),
+            Objects.toString(meta.getTotalEstimated()), Objects.toString(meta.getHasMore()),
+            Objects.toString(meta.getNextCursor()));
+        digest.update(pagination.getBytes(StandardCharsets.UTF_8));
+        byte[] hash = digest.digest();
+        return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash).substring(0, 22) + "\"";
+    }
+
+    /**
+     * Weak comparison as required for {@code If-None-Match}: true if any listed tag, with or without {@code W/},
+     * equals {@code etag}, or the header is {@code *}.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals(ANY)) {
+                return true;
+            }
+            if (tag.startsWith(WEAK_PREFIX)) {
+                tag = tag.substring(WEAK_PREFIX.length());
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the version a client based its change on from {@code If-Match}.
+     *
+     * @return the version, or {@code null} when the header is absent or {@code *} (any current version)
+     * @throws PreconditionFailedException if no strong tag in the header belongs to this patient
+     */
+    public static Long expectedVersion(String ifMatch, UUID id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals(ANY)) {
+            return null;
+        }
+        String prefix = "\"" + id + ":";
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            // If-Match uses strong comparison, so weak tags never match
+            if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+                try {
+                    return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+                } catch (NumberFormatException e) {
+                    // not one of our tags, try the next one
+                }
+            }
+        }
+        throw new PreconditionFailedException("If-Match " + ifMatch + " does not match patient with ID " + id + ".");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.sm.patientservice.exception;
+
+/**
+ * Thrown when billing-service could not be asked in time: the call timed out, failed, was rejected because too many
+ * calls are in flight, or the circuit breaker is open. Unlike {@link BillingException} the outcome is unknown, so the
+ * request is retried later instead of being treated as a rejection.
+ */
+public class BillingUnavailableException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public BillingUnavailableException(String message) {
+        super(message);
+    }
+
+    public BillingUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.sm.patientservice.exception;
+
+public class ChangesExpiredException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ChangesExpiredException(String message) {
+        super(message);
+    }
+
+}
@@ -14,19 +14,25 @@ import com.sm.patientservice.constant.ResponseConstant;
 import com.sm.patientservice.model.dto.ValidationErrorResponse;
 import com.sm.patientservice.model.dto.ValidationErrorResponseError;
 import com.sm.patientservice.model.dto.ValidationErrorResponseErrorFieldErrorsInner;
-import com.sm.patientservice.utils.AppUtils;
+import com.sm.patientservice.utils.AppClock;
 
 import lombok.extern.slf4j.Slf4j;
 
 @ControllerAdvice
 @Slf4j
 public class GlobalExceptionHandler {
+
+    private final AppClock appClock;
+
+    public GlobalExceptionHandler(AppClock appClock) {
+        this.appClock = appClock;
+    }
     
     private ResponseEntity<ValidationErrorResponse> buildErrorResponse(Consumer<ValidationErrorResponseError> errorCustomizer, int status) {
         ValidationErrorResponse response = new ValidationErrorResponse();
         ValidationErrorResponseError error = new ValidationErrorResponseError();
         errorCustomizer.accept(error);
-        error.setTimestamp(AppUtils.getCurrentTimestamp());
+        error.setTimestamp(appClock.currentTimestamp());
         response.setStatus(ResponseConstant.ERROR_STATUS);
         response.setError(error);
         return ResponseEntity.status(status).body(response);
@@ -99,6 +105,145 @@ public class GlobalExceptionHandler {
         }, 409);
     }
 
+    /**
+     * Handles PreconditionFailedException which is thrown when the ETag in If-Match is no longer current.
+     *
+     * @param ex the PreconditionFailedException
+     * @return a ResponseEntity containing a ValidationErrorResponse with details of the error
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ValidationErrorResponse> handlePreconditionFailedException(PreconditionFailedException ex) {
+        return buildErrorResponse(error -> {
+            error.setMessage(ex.getMessage());
+            error.setCode("PRECONDITION_FAILED");
+        }, HttpStatus.PRECONDITION_FAILED.value());
+    }
+
+    /**
+     * Handles IdempotencyKeyReusedException which is thrown when an Idempotency-Key is sent with a different body.
+     *
+     * @param ex the IdempotencyKeyReusedException
+     * @return a ResponseEntity containing a ValidationErrorResponse with details of the error
+     */
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ValidationErrorResponse> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException ex) {
+        return buildErrorResponse(error -> {
+            error.setMessage(ex.getMessage());
+            error.setCode("IDEMPOTENCY_KEY_REUSED");
+        }, HttpStatus.UNPROCESSABLE_ENTITY.value());
+    }
+
+    /**
+     * Handles IdempotencyKeyInProgressException which is thrown when the first request with an Idempotency-Key
+     * is still running after the wait timeout.
+     *
+     * @param ex the IdempotencyKeyInProgressException
+     * @return a ResponseEntity containing a ValidationErrorResponse with details of the error
+     */
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<ValidationErrorResponse> handleIdempotencyKeyInProgressException(IdempotencyKeyInProgressException ex) {
+        return buildErrorResponse(error -> {
+            error.setMessage(ex.getMessage());
+            error.setCode("IDEMPOTENCY_KEY_IN_PROGRESS");
+        }, 409);
+    }
+
+    /**
+     * Handles InvalidCursorException which is thrown when the pagination cursor cannot be decoded.
+     *
+     * @param ex the InvalidCursorException
+     * @return a ResponseEntity containing a ValidationErrorResponse with details of the error
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ValidationErrorResponse> handleInvalidCursorException(InvalidCursorException ex) {
+        return buildErrorResponse(error -> {
+            ValidationErrorResponseErrorFieldErrorsInner fieldErrorDto = new ValidationErrorResponseErrorFieldErrorsInner();
+            fieldErrorDto.setField("after");
+            fieldErrorDto.setMessage(ex.getMessage());
+            error.addFieldErrorsItem(fieldErrorDto);
+            error.setMessage("Invalid pagination cursor.");
+            error.setCode("INVALID_CURSOR");
+        }, 400);
+    }
+
+    /**
+     * Handles InvalidTotalModeException which is thrown when the total query parameter is not a known mode.
+     *
+     * @param ex the InvalidTotalModeException
+     * @return a ResponseEntity containing a ValidationErrorResponse with details of the error
+     */
+    @ExceptionHandler(InvalidTotalModeException.class)
+    public ResponseEntity<ValidationErrorResponse> handleInvalidTotalModeException(InvalidTotalModeException ex) {
+        return buildErrorResponse(error -> {
+            ValidationErrorResponseErrorFieldErrorsInner fieldErrorDto = new ValidationErrorResponseErrorFieldErrorsInner();
+            fieldErrorDto.setField("total");
+            fieldErrorDto.setMessage(ex.getMessage());
+            error.addFieldErrorsItem(fieldErrorDto);
+            error.setMessage("Invalid total mode.");
+            error.setCode("INVALID_TOTAL_MODE");
+        }, 400);
+    }
+
+    /**
+     * Handles InvalidChangeTokenException which is thrown when the change feed token cannot be parsed.
+     *
+     * @param ex the InvalidChangeTokenException
+     * @return a ResponseEntity containing a ValidationErrorResponse with details of the error
+     */
+    @ExceptionHandler(InvalidChangeTokenException.class)
+    public ResponseEntity<ValidationErrorResponse> handleInvalidChangeTokenException(InvalidChangeTokenException ex) {
+        return buildErrorResponse(error -> {
+            ValidationErrorResponseErrorFieldErrorsInner fieldErrorDto = new ValidationErrorResponseErrorFieldErrorsInner();
+            fieldErrorDto.setField("since");
+            fieldErrorDto.setMessage(ex.getMessage());
+            error.addFieldErrorsItem(fieldErrorDto);
+            error.setMessage("Invalid change token.");
+            error.setCode("INVALID_CHANGE_TOKEN");
+        }, 400);
+    }
+
+    /**
+     * Handles ChangesExpiredException which is thrown when the changes after a token have been purged.
+     *
+     * @param ex the ChangesExpiredException
+     * @return a ResponseEntity containing a ValidationErrorResponse with details of the error
+     */
+    @ExceptionHandler(ChangesExpiredException.class)
+    public ResponseEntity<ValidationErrorResponse> handleChangesExpiredException(ChangesExpiredException ex) {
+        return buildErrorResponse(error -> {
+            error.setMessage(ex.getMessage());
+            error.setCode("CHANGES_EXPIRED");
+        }, HttpStatus.GONE.value());
+    }
+
+    /**
+     * Handles TooManySubscribersException which is thrown when the change feed subscriber cap is reached.
+     *
+     * @param ex the TooManySubscribersException
+     * @return a ResponseEntity containing a ValidationErrorResponse with details of the error
+     */
+    @ExceptionHandler(TooManySubscribersException.class)
+    public ResponseEntity<ValidationErrorResponse> handleTooManySubscribersException(TooManySubscribersException ex) {
+        return buildErrorResponse(error -> {
+            error.setMessage(ex.getMessage());
+            error.setCode("TOO_MANY_SUBSCRIBERS");
+        }, HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+
+    /**
+     * Handles InvalidImportException which is thrown when a bulk import request cannot be read.
+     *
+     * @param ex the InvalidImportException
+     * @return a ResponseEntity containing a ValidationErrorResponse with details of the error
+     */
+    @ExceptionHandler(InvalidImportException.class)
+    public ResponseEntity<ValidationErrorResponse> handleInvalidImportException(InvalidImportException ex) {
+        return buildErrorResponse(error -> {
+            error.setMessage(ex.getMessage());
+            error.setCode("INVALID_IMPORT");
+        }, 400);
+    }
+
     @ExceptionHandler(BillingException.class)
     public ResponseEntity<ValidationErrorResponse> handleBillingException(BillingException ex) {
         return buildErrorResponse(error -> {
@@ -0,0 +1,11 @@
+package com.sm.patientservice.exception;
+
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public IdempotencyKeyInProgressException(String message) {
+        super(message);
+    }
+
+}
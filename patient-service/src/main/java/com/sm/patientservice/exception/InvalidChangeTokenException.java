@@ -0,0 +1,11 @@
+package com.sm.patientservice.exception;
+
+public class InvalidChangeTokenException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidChangeTokenException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.sm.patientservice.exception;
+
+/**
+ * Thrown when a bulk import cannot be processed at all, e.g. an unsupported content type or a CSV header without
+ * the required columns. Problems with individual rows are reported per row instead.
+ */
+public class InvalidImportException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public InvalidImportException(String message) {
+        super(message);
+    }
+
+    public InvalidImportException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.sm.patientservice.exception;
+
+public class InvalidTotalModeException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidTotalModeException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.sm.patientservice.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+}
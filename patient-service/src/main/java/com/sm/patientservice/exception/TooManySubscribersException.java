@@ -0,0 +1,11 @@
+package com.sm.patientservice.exception;
+
+public class TooManySubscribersException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public TooManySubscribersException(String message) {
+        super(message);
+    }
+
+}
@@ -1,37 +1,95 @@
 package com.sm.patientservice.grpc;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.stereotype.Service;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.sm.patientservice.config.BillingServiceConfig;
+import com.sm.patientservice.exception.BillingUnavailableException;
 import com.sm.patientservice.model.Patient;
 
 import billing.BillingRequest;
 import billing.BillingResponse;
 import billing.BillingServiceGrpc;
-import billing.BillingServiceGrpc.BillingServiceBlockingStub;
-
+import billing.BillingServiceGrpc.BillingServiceFutureStub;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.grpc.ManagedChannel;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Non-blocking billing-service client.
+ *
+ * Every call carries a deadline, at most {@code max-in-flight} calls are outstanding at once, and a circuit breaker
+ * stops calling billing-service while most recent calls failed. In all of those cases the returned future fails with
+ * {@link BillingUnavailableException} without waiting. Circuit breaker state is published as
+ * {@code resilience4j.circuitbreaker.*} metrics tagged {@code name=billing}. In virtual-thread mode the channel runs
+ * its callbacks on virtual threads instead of gRPC's shared cached thread pool.
+ */
 @Service
 @Slf4j
 public class BillingServiceGrpcClient {
 
-    private final BillingServiceBlockingStub billingServiceStub;
+    private final ManagedChannel channel;
+    private final ExecutorService callbackExecutor;
+    private final BillingServiceFutureStub billingServiceStub;
+    private final BillingServiceConfig billingConfig;
+    private final Semaphore inFlight;
+    private final CircuitBreaker circuitBreaker;
  
-    public BillingServiceGrpcClient(BillingServiceConfig billingConfig) {
-        log.info("BillingServiceGrpcClient initialized with host: {} and port: {}", 
-            billingConfig.getBillingServiceHost(), billingConfig.getBillingServicePort());
-        
-        // Create a blocking stub for the BillingService
-        this.billingServiceStub = BillingServiceGrpc.newBlockingStub(
-            io.grpc.ManagedChannelBuilder.forAddress(billingConfig.getBillingServiceHost(), billingConfig.getBillingServicePort())
-                .usePlaintext()
-                .build()
-        );
-        
+    public BillingServiceGrpcClient(BillingServiceConfig billingConfig, MeterRegistry meterRegistry) {
+        log.info("BillingServiceGrpcClient initialized with host: {} and port: {}, deadline: {}", 
+            billingConfig.getBillingServiceHost(), billingConfig.getBillingServicePort(), billingConfig.getDeadline());
+        this.billingConfig = billingConfig;
+        var channelBuilder = io.grpc.ManagedChannelBuilder
+            .forAddress(billingConfig.getBillingServiceHost(), billingConfig.getBillingServicePort())
+            .usePlaintext();
+        if (billingConfig.isVirtualThreads()) {
+            this.callbackExecutor = Executors.newVirtualThreadPerTaskExecutor();
+            channelBuilder.executor(callbackExecutor);
+        } else {
+            this.callbackExecutor = null;
+        }
+        this.channel = channelBuilder.build();
+        this.billingServiceStub = BillingServiceGrpc.newFutureStub(channel);
+        this.inFlight = new Semaphore(billingConfig.getMaxInFlight());
+
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .failureRateThreshold(billingConfig.getFailureRateThreshold())
+            .slidingWindowSize(billingConfig.getSlidingWindowSize())
+            .waitDurationInOpenState(billingConfig.getOpenDuration())
+            .build());
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("billing");
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
     }
 
-    public BillingResponse createBillingAccount(Patient patient) {
+    /**
+     * Asks billing-service to create an account for the patient.
+     *
+     * @return a future completed with the billing response, or failed with {@link BillingUnavailableException}
+     */
+    public CompletableFuture<BillingResponse> createBillingAccount(Patient patient) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return CompletableFuture.failedFuture(
+                new BillingUnavailableException("Billing circuit breaker is " + circuitBreaker.getState()));
+        }
+        if (!inFlight.tryAcquire()) {
+            circuitBreaker.releasePermission();
+            return CompletableFuture.failedFuture(
+                new BillingUnavailableException("Too many billing calls in flight"));
+        }
+
         var billingRequest  = BillingRequest.newBuilder()
             .setName(patient.getFirstName() + " " + patient.getLastName())
             .setEmail(patient.getEmail())
@@ -41,9 +99,47 @@ public class BillingServiceGrpcClient {
             .build();
 
         log.info("Sending billing request for patient: {}", patient.getId());
-        BillingResponse billingResponse = billingServiceStub.createBillingAccount(billingRequest);
-        log.info("Received billing response for patient: {}, status: {}", patient.getId(), billingResponse.getStatus());
-        return billingResponse;
+        long start = System.nanoTime();
+        CompletableFuture<BillingResponse> result = new CompletableFuture<>();
+        Futures.addCallback(
+            billingServiceStub
+                .withDeadlineAfter(billingConfig.getDeadline().toMillis(), TimeUnit.MILLISECONDS)
+                .createBillingAccount(billingRequest),
+            new FutureCallback<>() {
+                @Override
+                public void onSuccess(BillingResponse billingResponse) {
+                    inFlight.release();
+                    circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    log.info("Received billing response for patient: {}, status: {}", patient.getId(), billingResponse.getStatus());
+                    result.complete(billingResponse);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    inFlight.release();
+                    circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, t);
+                    log.warn("Billing call failed for patient: {}: {}", patient.getId(), t.getMessage());
+                    result.completeExceptionally(new BillingUnavailableException("Billing call failed: " + t.getMessage(), t));
+                }
+            },
+            MoreExecutors.directExecutor());
+        return result;
+    }
+
+    /**
+     * Whether a call would currently be let through by the circuit breaker.
+     */
+    public boolean isAvailable() {
+        return circuitBreaker.getState() != CircuitBreaker.State.OPEN
+            && circuitBreaker.getState() != CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        channel.shutdown();
+        if (callbackExecutor != null) {
+            callbackExecutor.shutdown();
+        }
     }
 
 }
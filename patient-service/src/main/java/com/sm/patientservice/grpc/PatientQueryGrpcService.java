@@ -0,0 +1,158 @@
+package com.sm.patientservice.grpc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.sm.patientservice.config.PatientQueryGrpcConfig;
+import com.sm.patientservice.exception.PatientNotExistException;
+import com.sm.patientservice.mapper.PatientProtoMapper;
+import com.sm.patientservice.model.dto.PatientBatchGetResult;
+import com.sm.patientservice.pagination.PatientCursor;
+import com.sm.patientservice.repository.PatientListView;
+import com.sm.patientservice.service.PatientBatchGetService;
+import com.sm.patientservice.service.PatientService;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.server.service.GrpcService;
+import patient.api.BatchGetPatientsRequest;
+import patient.api.BatchGetPatientsResponse;
+import patient.api.GetPatientRequest;
+import patient.api.ListPatientsRequest;
+import patient.api.PatientQueryServiceGrpc.PatientQueryServiceImplBase;
+
+/**
+ * Internal gRPC read API ({@code patient_query_service.proto}). Goes through the same services as the REST API, so
+ * reads share {@link com.sm.patientservice.cache.PatientCache} and the read replica routing.
+ *
+ * ListPatients follows the client's flow control: the next page is only read once the previous one has been
+ * written out, so a slow client never makes the server buffer the whole table.
+ */
+@GrpcService
+@Slf4j
+public class PatientQueryGrpcService extends PatientQueryServiceImplBase {
+
+    private final PatientService patientService;
+    private final PatientBatchGetService patientBatchGetService;
+    private final PatientQueryGrpcConfig grpcConfig;
+
+    public PatientQueryGrpcService(PatientService patientService,
+                                   PatientBatchGetService patientBatchGetService,
+                                   PatientQueryGrpcConfig grpcConfig) {
+        this.patientService = patientService;
+        this.patientBatchGetService = patientBatchGetService;
+        this.grpcConfig = grpcConfig;
+    }
+
+    @Override
+    public void getPatient(GetPatientRequest request, StreamObserver<patient.api.Patient> responseObserver) {
+        try {
+            UUID id = parseId(request.getId());
+            responseObserver.onNext(PatientProtoMapper.toProto(patientService.getPatientById(id)));
+            responseObserver.onCompleted();
+        } catch (RuntimeException e) {
+            responseObserver.onError(toStatus(e));
+        }
+    }
+
+    @Override
+    public void batchGetPatients(BatchGetPatientsRequest request, StreamObserver<BatchGetPatientsResponse> responseObserver) {
+        try {
+            if (request.getIdsCount() > grpcConfig.getMaxBatchIds()) {
+                throw new IllegalArgumentException("At most " + grpcConfig.getMaxBatchIds() + " ids are allowed");
+            }
+            List<UUID> ids = new ArrayList<>(request.getIdsCount());
+            for (String id : request.getIdsList()) {
+                ids.add(parseId(id));
+            }
+            var response = BatchGetPatientsResponse.newBuilder();
+            for (PatientBatchGetResult result : patientBatchGetService.getPatients(ids)) {
+                var item = patient.api.PatientBatchGetResult.newBuilder()
+                    .setId(result.getId().toString())
+                    .setFound(Boolean.TRUE.equals(result.getFound()));
+                if (result.getPatient() != null) {
+                    item.setPatient(PatientProtoMapper.toProto(result.getPatient()));
+                }
+                response.addResults(item);
+            }
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+        } catch (RuntimeException e) {
+            responseObserver.onError(toStatus(e));
+        }
+    }
+
+    @Override
+    public void listPatients(ListPatientsRequest request, StreamObserver<patient.api.Patient> responseObserver) {
+        var call = (ServerCallStreamObserver<patient.api.Patient>) responseObserver;
+        String name = request.getName().isBlank() ? null : request.getName();
+        call.setOnReadyHandler(new ListPatientsStream(name, call));
+    }
+
+    /**
+     * Writes one page per round while the call is ready. gRPC runs the on-ready handler serially, so the state
+     * needs no synchronization.
+     */
+    private final class ListPatientsStream implements Runnable {
+
+        private final String name;
+        private final ServerCallStreamObserver<patient.api.Patient> call;
+        private PatientCursor after;
+        private long sent;
+        private boolean done;
+
+        private ListPatientsStream(String name, ServerCallStreamObserver<patient.api.Patient> call) {
+            this.name = name;
+            this.call = call;
+        }
+
+        @Override
+        public void run() {
+            int pageSize = grpcConfig.getListPageSize();
+            try {
+                while (!done && call.isReady()) {
+                    List<PatientListView> rows = patientService.getPatientRows(name, after, pageSize);
+                    for (PatientListView row : rows) {
+                        call.onNext(PatientProtoMapper.toProto(row));
+                    }
+                    sent += rows.size();
+                    if (rows.size() < pageSize) {
+                        done = true;
+                        call.onCompleted();
+                        log.debug("Streamed {} patients over gRPC", sent);
+                    } else {
+                        after = PatientCursor.of(rows.get(rows.size() - 1));
+                    }
+                }
+            } catch (RuntimeException e) {
+                done = true;
+                if (!call.isCancelled()) {
+                    call.onError(toStatus(e));
+                }
+            }
+        }
+    }
+
+    private static UUID parseId(String id) {
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid patient id: " + id, e);
+        }
+    }
+
+    private static RuntimeException toStatus(RuntimeException e) {
+        if (e instanceof PatientNotExistException) {
+            return Status.NOT_FOUND.withDescription(e.getMessage()).asRuntimeException();
+        }
+        if (e instanceof IllegalArgumentException) {
+            return Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException();
+        }
+        log.error("gRPC patient query failed", e);
+        return Status.INTERNAL.withDescription("An unexpected error occurred").asRuntimeException();
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.sm.patientservice.idempotency;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.sm.patientservice.config.IdempotencyConfig;
+import com.sm.patientservice.repository.IdempotencyRecordRepository;
+import com.sm.patientservice.utils.AppClock;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Store in the {@code patient_idempotency_key} table, so a retry is answered by whichever replica it reaches. The
+ * primary key on the client key decides which replica runs a request; the others poll for its response.
+ */
+@Component
+@ConditionalOnProperty(name = "patient.idempotency.store", havingValue = "database")
+@Slf4j
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+
+    private final IdempotencyRecordRepository repository;
+    private final IdempotencyConfig config;
+    private final AppClock appClock;
+
+    public DatabaseIdempotencyStore(IdempotencyRecordRepository repository, IdempotencyConfig config,
+                                    AppClock appClock) {
+        this.repository = repository;
+        this.config = config;
+        this.appClock = appClock;
+    }
+
+    @Override
+    public Optional<IdempotentResponse> find(String key) {
+        return repository.findCompleted(key, appClock.now())
+            .map(row -> new IdempotentResponse(row.getFingerprint(), row.getResponse()));
+    }
+
+    @Override
+    public boolean tryReserve(String key, String fingerprint) {
+        LocalDateTime now = appClock.now();
+        LocalDateTime expiresAt = now.plus(config.getTtl());
+        try {
+            repository.insertReservation(key, fingerprint, now, expiresAt);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return repository.takeOver(key, fingerprint, now, now.minus(config.getReservationTimeout()), expiresAt) == 1;
+        }
+    }
+
+    @Override
+    public void complete(String key, IdempotentResponse response) {
+        repository.complete(key, response.body(), appClock.now().plus(config.getTtl()));
+    }
+
+    @Override
+    public void release(String key) {
+        repository.deleteReservation(key);
+    }
+
+    @Scheduled(fixedDelayString = "${patient.idempotency.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        int purged = repository.deleteExpired(appClock.now());
+        if (purged > 0) {
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+}
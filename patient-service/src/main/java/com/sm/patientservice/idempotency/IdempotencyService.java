@@ -0,0 +1,199 @@
+package com.sm.patientservice.idempotency;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sm.patientservice.config.IdempotencyConfig;
+import com.sm.patientservice.exception.IdempotencyKeyInProgressException;
+import com.sm.patientservice.exception.IdempotencyKeyReusedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs a request at most once per Idempotency-Key and answers repeats with the stored response.
+ * <p>
+ * Keys are scoped to the calling user. A repeat arriving while the first request is still running on this replica
+ * waits for its outcome instead of running concurrently; with a shared store, a repeat on another replica polls the
+ * store. Only successful responses are stored: when the request fails, waiting repeats get the same exception and
+ * the key is released so a later retry runs again.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(50);
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyConfig config;
+    private final ConcurrentHashMap<String, CompletableFuture<IdempotentResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executedRequests;
+    private final Counter replayedRequests;
+    private final Counter joinedRequests;
+
+    public IdempotencyService(IdempotencyStore store,
+                              ObjectMapper objectMapper,
+                              IdempotencyConfig config,
+                              MeterRegistry meterRegistry) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.config = config;
+        this.executedRequests = meterRegistry.counter("patient.idempotency.requests", "result", "executed");
+        this.replayedRequests = meterRegistry.counter("patient.idempotency.requests", "result", "replayed");
+        this.joinedRequests = meterRegistry.counter("patient.idempotency.requests", "result", "joined");
+    }
+
+    /**
+     * @param key          the client's Idempotency-Key
+     * @param request      the request body, compared with the one the key was first used with
+     * @param responseType type the stored response body is read back as
+     * @param work         runs the request; called at most once per key until the stored response expires
+     * @throws IdempotencyKeyReusedException     if the key was first used with another request body
+     * @throws IdempotencyKeyInProgressException if the first request did not finish within the wait timeout
+     */
+    public <T> IdempotentResult<T> execute(String key, Object request, Class<T> responseType, Supplier<T> work) {
+        String scopedKey = scope(key);
+        String fingerprint = fingerprint(request);
+
+        IdempotentResponse stored = store.find(scopedKey).orElse(null);
+        if (stored != null) {
+            replayedRequests.increment();
+            return replay(stored, fingerprint, responseType);
+        }
+
+        CompletableFuture<IdempotentResponse> mine = new CompletableFuture<>();
+        CompletableFuture<IdempotentResponse> running = inFlight.putIfAbsent(scopedKey, mine);
+        if (running != null) {
+            joinedRequests.increment();
+            return replay(await(running), fingerprint, responseType);
+        }
+
+        boolean reserved = false;
+        try {
+            // The first request may have completed between the lookup above and claiming the key
+            stored = store.find(scopedKey).orElse(null);
+            if (stored == null) {
+                reserved = store.tryReserve(scopedKey, fingerprint);
+                if (!reserved) {
+                    stored = awaitOtherReplica(scopedKey);
+                }
+            }
+            if (stored != null) {
+                mine.complete(stored);
+                joinedRequests.increment();
+                return replay(stored, fingerprint, responseType);
+            }
+
+            T body = work.get();
+            IdempotentResponse response = new IdempotentResponse(fingerprint, serialize(body));
+            mine.complete(response);
+            executedRequests.increment();
+            try {
+                store.complete(scopedKey, response);
+            } catch (RuntimeException e) {
+                // The request has succeeded; failing it now would make the client retry it
+                log.warn("Could not store the response for an idempotency key: {}", e.getMessage());
+            }
+            return new IdempotentResult<>(body, false);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            if (reserved) {
+                store.release(scopedKey);
+            }
+            throw e;
+        } finally {
+            inFlight.remove(scopedKey, mine);
+        }
+    }
+
+    private <T> IdempotentResult<T> replay(IdempotentResponse stored, String fingerprint, Class<T> responseType) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyReusedException("Idempotency-Key was already used with a different request.");
+        }
+        try {
+            return new IdempotentResult<>(objectMapper.readValue(stored.body(), responseType), true);
+        } catch (IOException e) {
+            throw new IllegalStateException("Stored idempotent response cannot be read", e);
+        }
+    }
+
+    private IdempotentResponse await(CompletableFuture<IdempotentResponse> running) {
+        try {
+            return running.get(config.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw inProgress();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw inProgress();
+        }
+    }
+
+    private IdempotentResponse awaitOtherReplica(String scopedKey) {
+        long deadline = System.nanoTime() + config.getWaitTimeout().toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(POLL_INTERVAL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            IdempotentResponse stored = store.find(scopedKey).orElse(null);
+            if (stored != null) {
+                return stored;
+            }
+        }
+        throw inProgress();
+    }
+
+    private static IdempotencyKeyInProgressException inProgress() {
+        return new IdempotencyKeyInProgressException(
+            "A request with this Idempotency-Key is still in progress. Please retry later.");
+    }
+
+    private static String scope(String key) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (authentication == null ? "" : authentication.getName()) + ":" + key;
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(hash);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize response", e);
+        }
+    }
+
+}
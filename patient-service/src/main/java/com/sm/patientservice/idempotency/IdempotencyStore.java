@@ -0,0 +1,31 @@
+package com.sm.patientservice.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Keeps the responses of requests made with an Idempotency-Key until {@code patient.idempotency.ttl} has passed.
+ * Requests racing within one replica are coalesced by {@link IdempotencyService}; a store shared between replicas
+ * also has to make sure only one of them runs a key at a time.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Returns the completed response for the key, or empty when there is none or it has expired.
+     */
+    Optional<IdempotentResponse> find(String key);
+
+    /**
+     * Reserves the key before the request is run.
+     *
+     * @return false if another replica holds the key, in which case its response has to be awaited
+     */
+    boolean tryReserve(String key, String fingerprint);
+
+    void complete(String key, IdempotentResponse response);
+
+    /**
+     * Drops the reservation of a request that failed, so the key can be retried.
+     */
+    void release(String key);
+
+}
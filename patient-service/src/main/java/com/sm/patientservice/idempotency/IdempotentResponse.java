@@ -0,0 +1,10 @@
+package com.sm.patientservice.idempotency;
+
+/**
+ * The stored outcome of a request made with an Idempotency-Key.
+ *
+ * @param fingerprint hash of the request body the key was first used with
+ * @param body        the serialized response body
+ */
+public record IdempotentResponse(String fingerprint, byte[] body) {
+}
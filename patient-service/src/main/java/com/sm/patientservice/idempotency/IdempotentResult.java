@@ -0,0 +1,8 @@
+package com.sm.patientservice.idempotency;
+
+/**
+ * @param body     the response body, freshly produced or replayed
+ * @param replayed true when the body is the stored response of an earlier request with the same key
+ */
+public record IdempotentResult<T>(T body, boolean replayed) {
+}
@@ -1,30 +1,116 @@
 package com.sm.patientservice.kafka;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import com.sm.patientservice.config.KafkaProducerConfig;
+import com.sm.patientservice.constant.AppConstant;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Sends records without blocking; the outcome of each send is handled when the broker answers.
+ *
+ * Batching, compression, idempotence and the producer's own retries are configured under
+ * {@code spring.kafka.producer} in application.yaml. Transient broker errors are retried by the producer until
+ * {@code delivery.timeout.ms}; a send that still fails completes its future exceptionally and the caller retries it
+ * (see {@link com.sm.patientservice.outbox.OutboxRelay}). Metrics:
+ * <ul>
+ *   <li>{@code patient.kafka.send} - sends by {@code topic} and {@code result} ({@code acked}/{@code failed})</li>
+ *   <li>{@code patient.kafka.send.latency} - time from send to broker acknowledgement, with p99</li>
+ * </ul>
+ */
 @Service
 @Slf4j
 public class KafkaProducer {
 
     private final KafkaTemplate<String, byte[]> kafkaTemplate;
-    private static final String TOPIC = "patients";
+    private final MeterRegistry meterRegistry;
+    private final Timer ackTimer;
+    private final int logSampleRate;
+    private final AtomicLong acked = new AtomicLong();
+    private final Map<String, Counter> ackedCounters = new ConcurrentHashMap<>();
 
-    public KafkaProducer(KafkaTemplate<String, byte[]> kafkaTemplate) {
+    public KafkaProducer(KafkaTemplate<String, byte[]> kafkaTemplate,
+                         KafkaProducerConfig producerConfig,
+                         MeterRegistry meterRegistry) {
         this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.logSampleRate = Math.max(1, producerConfig.getLogSampleRate());
+        this.ackTimer = Timer.builder("patient.kafka.send.latency")
+            .description("Time from send to broker acknowledgement")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
     }
-    
+
     /**
-     * Sends an event to the Kafka topic.
+     * Sends an event to a Kafka topic.
      *
+     * @param topic The topic to send to.
      * @param key   The key for the Kafka message.
      * @param event The event data to be sent, as a byte array.
+     * @return a future completed when the broker acknowledges the record
+     */
+    public CompletableFuture<SendResult<String, byte[]>> send(String topic, String key, byte[] event) {
+        return track(topic, key, System.nanoTime(), kafkaTemplate.send(topic, key, event));
+    }
+
+    /**
+     * Sends an event with an {@link AppConstant#ORIGIN_HEADER} header naming the replica that wrote it.
+     *
+     * @param origin instance id of the writing replica, or {@code null} to send without the header
+     * @return a future completed when the broker acknowledges the record
      */
-    public void sendEvent(String key, byte[] event) {
-        kafkaTemplate.send(TOPIC, key, event);
-        log.info("Sent event to Kafka topic {}: key={}, event={}", TOPIC, key, event);
+    public CompletableFuture<SendResult<String, byte[]>> send(String topic, String key, byte[] event, String origin) {
+        if (origin == null) {
+            return send(topic, key, event);
+        }
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, key, event);
+        record.headers().add(AppConstant.ORIGIN_HEADER, origin.getBytes(StandardCharsets.UTF_8));
+        return track(topic, key, System.nanoTime(), kafkaTemplate.send(record));
+    }
+
+    private CompletableFuture<SendResult<String, byte[]>> track(String topic, String key, long start,
+                                                                CompletableFuture<SendResult<String, byte[]>> send) {
+        return send
+            .whenComplete((result, failure) -> {
+                if (failure == null) {
+                    onAcked(topic, key, result.getRecordMetadata(), System.nanoTime() - start);
+                } else {
+                    onFailed(topic, key, failure);
+                }
+            });
+    }
+
+    private void onAcked(String topic, String key, RecordMetadata metadata, long latencyNanos) {
+        ackTimer.record(latencyNanos, TimeUnit.NANOSECONDS);
+        ackedCounters.computeIfAbsent(topic,
+            t -> meterRegistry.counter("patient.kafka.send", "topic", t, "result", "acked")).increment();
+        if (log.isDebugEnabled() && acked.incrementAndGet() % logSampleRate == 0) {
+            log.debug("Kafka acknowledged {}-{}@{}: key={}, {} bytes ({} ms, 1 in {} sends logged)",
+                topic, metadata.partition(), metadata.offset(), key, metadata.serializedValueSize(),
+                latencyNanos / 1_000_000, logSampleRate);
+        }
+    }
+
+    private void onFailed(String topic, String key, Throwable failure) {
+        Throwable cause = failure.getCause() != null ? failure.getCause() : failure;
+        meterRegistry.counter("patient.kafka.send",
+            "topic", topic, "result", "failed", "exception", cause.getClass().getSimpleName()).increment();
+        log.debug("Kafka send to {} failed: key={}: {}", topic, key, cause.getMessage());
     }
 
 }
@@ -0,0 +1,45 @@
+package com.sm.patientservice.kafka;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+import com.sm.patientservice.constant.AppConstant;
+
+/**
+ * Declares the topics patient-service publishes to, so they are not auto-created with broker defaults. The
+ * snapshot topic must exist as compacted before the first record is written; the consumers declare the same
+ * topics.
+ */
+@Configuration
+public class KafkaTopicConfig {
+
+    @Bean
+    public NewTopic patientEventTopic() {
+        return TopicBuilder.name(AppConstant.PATIENT_EVENTS_TOPIC)
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+
+    /**
+     * Keeps only the latest record per patient id, so reading it from the start costs one record per live patient.
+     * Partitioned like {@code patients} so a patient's snapshot and events share the partition number.
+     */
+    @Bean
+    public NewTopic patientSnapshotTopic() {
+        return TopicBuilder.name(AppConstant.PATIENT_SNAPSHOT_TOPIC)
+                .partitions(3)
+                .replicas(1)
+                .compact()
+                // Roll segments hourly; the active segment is never compacted
+                .config(TopicConfig.SEGMENT_MS_CONFIG, "3600000")
+                .config(TopicConfig.MIN_CLEANABLE_DIRTY_RATIO_CONFIG, "0.1")
+                // Tombstones stay readable for a day, so a bootstrap that started before compaction still sees them
+                .config(TopicConfig.DELETE_RETENTION_MS_CONFIG, "86400000")
+                .build();
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.sm.patientservice.kafka;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Service;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.sm.patientservice.cache.PatientCache;
+import com.sm.patientservice.config.InstanceConfig;
+import com.sm.patientservice.constant.AppConstant;
+import com.sm.patientservice.email.EmailUniquenessGuard;
+import com.sm.patientservice.repository.PatientRepository;
+import com.sm.patientservice.search.PatientSearchBackend;
+
+import lombok.extern.slf4j.Slf4j;
+import patient.events.EventType;
+import patient.events.PatientEvent;
+
+/**
+ * Keeps the per-replica in-memory state (patient cache, name index and email filter) in line with writes made by
+ * other replicas.
+ *
+ * Every instance joins its own consumer group, named after its {@link InstanceConfig#getInstanceId() instance id}
+ * so a restart rejoins the same group, and starts from the latest offset since only changes made after startup
+ * matter. Events for this replica's own writes carry its instance id in the origin header and are skipped: the
+ * write already updated the local state when it committed.
+ */
+@Service
+@Slf4j
+public class PatientEventListener {
+
+    private final PatientCache patientCache;
+    private final PatientSearchBackend patientSearchBackend;
+    private final PatientRepository patientRepository;
+    private final EmailUniquenessGuard emailUniquenessGuard;
+    private final byte[] instanceId;
+
+    public PatientEventListener(PatientCache patientCache,
+                                PatientSearchBackend patientSearchBackend,
+                                PatientRepository patientRepository,
+                                EmailUniquenessGuard emailUniquenessGuard,
+                                InstanceConfig instanceConfig) {
+        this.patientCache = patientCache;
+        this.patientSearchBackend = patientSearchBackend;
+        this.patientRepository = patientRepository;
+        this.emailUniquenessGuard = emailUniquenessGuard;
+        this.instanceId = instanceConfig.getInstanceId().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @KafkaListener(topics = AppConstant.PATIENT_EVENTS_TOPIC,
+        groupId = "#{'patient-service-' + @instanceConfig.instanceId}",
+        properties = "auto.offset.reset=latest")
+    public void consumeEvent(@Payload byte[] event,
+                             @Header(name = AppConstant.ORIGIN_HEADER, required = false) byte[] origin) {
+        if (Arrays.equals(origin, instanceId)) {
+            return;
+        }
+        PatientEvent patientEvent;
+        try {
+            patientEvent = PatientEvent.parseFrom(event);
+        } catch (InvalidProtocolBufferException e) {
+            log.error("Error parsing PatientEvent from Kafka message: {}", e.getMessage());
+            return;
+        }
+
+        UUID id = UUID.fromString(patientEvent.getPatentId());
+        log.debug("Received PatientEvent for patient ID: {}, Event Type: {}", id, patientEvent.getEventType());
+
+        if (patientEvent.getEventType() == EventType.DELETED) {
+            patientCache.invalidate(id);
+            patientSearchBackend.removePatient(id);
+            return;
+        }
+        if (patientEvent.getEventType() == EventType.UPDATED) {
+            patientCache.invalidate(id);
+        }
+        // UPDATED deltas only carry the email when it changed
+        if (!patientEvent.getEmail().isEmpty()) {
+            emailUniquenessGuard.add(patientEvent.getEmail());
+        }
+        patientRepository.findById(id).ifPresent(patientSearchBackend::indexPatient);
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.sm.patientservice.mapper;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.sm.patientservice.changes.PatientChange;
+import com.sm.patientservice.model.OutboxEvent;
+import com.sm.patientservice.model.dto.Address;
+import com.sm.patientservice.utils.AppUtils;
+
+import patient.events.EventType;
+import patient.events.PatientEvent;
+
+/**
+ * Maps published {@code patients} outbox rows to change feed entries. Protobuf's empty strings become nulls.
+ */
+public class PatientChangeMapper {
+
+    /*
+     * Event field names to the names used by the REST API; updated_at is left out as changedAt already covers it.
+     */
+    private static final Map<String, String> CHANGED_FIELD_NAMES = Map.of(
+        "name", "name",
+        "email", "email",
+        "street", "address.street",
+        "city", "address.city",
+        "state", "address.state",
+        "zipCode", "address.zipCode",
+        "country", "address.country");
+
+    public static PatientChange toChange(OutboxEvent row) {
+        PatientEvent event;
+        try {
+            event = PatientEvent.parseFrom(row.getPayload());
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException("Outbox event " + row.getId() + " is not a PatientEvent", e);
+        }
+        UUID patientId = UUID.fromString(row.getMessageKey());
+        String changedAt = AppUtils.convertLocalDateTimeToString(row.getCreatedAt());
+        if (event.getEventType() == EventType.DELETED) {
+            return new PatientChange(row.getChangeSeq(), patientId, event.getEventType().name(), changedAt,
+                null, null, null, null);
+        }
+        return new PatientChange(row.getChangeSeq(), patientId, event.getEventType().name(), changedAt,
+            emptyToNull(event.getName()), emptyToNull(event.getEmail()), address(event), changedFields(event));
+    }
+
+    private static List<String> changedFields(PatientEvent event) {
+        if (!event.hasChangedFields()) {
+            return null;
+        }
+        return event.getChangedFields().getPathsList().stream()
+            .map(CHANGED_FIELD_NAMES::get)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    private static Address address(PatientEvent event) {
+        Address address = new Address()
+            .street(emptyToNull(event.getStreet()))
+            .city(emptyToNull(event.getCity()))
+            .state(emptyToNull(event.getState()))
+            .zipCode(emptyToNull(event.getZipCode()))
+            .country(emptyToNull(event.getCountry()));
+        return address.equals(new Address()) ? null : address;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.sm.patientservice.mapper;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.FieldMask;
+import com.sm.patientservice.model.Patient;
+import com.sm.patientservice.utils.AppUtils;
+
+import lombok.extern.slf4j.Slf4j;
+import patient.events.EventType;
+import patient.events.PatientEvent;
+
+@Slf4j
+public class PatientEventMapper {
+
+    // Fields an UPDATED delta can carry; patentId and event_type are always set
+    private static final List<FieldDescriptor> DELTA_FIELDS = IntStream.of(
+            PatientEvent.NAME_FIELD_NUMBER,
+            PatientEvent.EMAIL_FIELD_NUMBER,
+            PatientEvent.STREET_FIELD_NUMBER,
+            PatientEvent.CITY_FIELD_NUMBER,
+            PatientEvent.STATE_FIELD_NUMBER,
+            PatientEvent.ZIPCODE_FIELD_NUMBER,
+            PatientEvent.COUNTRY_FIELD_NUMBER,
+            PatientEvent.UPDATED_AT_FIELD_NUMBER)
+        .mapToObj(PatientEvent.getDescriptor()::findFieldByNumber)
+        .toList();
+
+    public static PatientEvent createPatientEvent(Patient patient, EventType eventType) {
+        if (patient == null) {
+            log.error("Patient is null, cannot create event.");
+            return null;
+        }
+        if (eventType == null) {
+            log.error("Event type is null, cannot create event.");
+            return null;
+        }
+
+        log.debug("Creating patient event for patient ID: {}, Event Type: {}", patient.getId(), eventType);
+
+        var address = patient.getAddress();
+        return PatientEvent.newBuilder()
+            .setPatentId(patient.getId().toString())
+            .setName(fullName(patient))
+            .setEmail(str(patient.getEmail()))
+            .setStreet(address != null ? str(address.getStreet()) : "")
+            .setCity(address != null ? str(address.getCity()) : "")
+            .setState(address != null ? str(address.getState()) : "")
+            .setZipCode(address != null ? str(address.getZipCode()) : "")
+            .setCountry(address != null ? str(address.getCountry()) : "")
+            .setCreatedAt(AppUtils.toProtoTimestamp(patient.getCreatedAt()))
+            .setUpdatedAt(AppUtils.toProtoTimestamp(patient.getUpdatedAt()))
+            .setEventType(eventType)
+            .build();
+    }
+
+    /**
+     * Builds an UPDATED event holding only the fields that differ between two snapshots of the same patient, listed
+     * in {@code changed_fields}. Fields that were cleared are in the mask with their empty value.
+     *
+     * @param before snapshot taken before the update, see {@link #createPatientEvent}
+     * @param after  snapshot taken after the update
+     */
+    public static PatientEvent createUpdatedDelta(PatientEvent before, PatientEvent after) {
+        PatientEvent.Builder delta = PatientEvent.newBuilder()
+            .setPatentId(after.getPatentId())
+            .setEventType(EventType.UPDATED);
+        FieldMask.Builder changedFields = FieldMask.newBuilder();
+        for (FieldDescriptor field : DELTA_FIELDS) {
+            Object value = after.getField(field);
+            if (!value.equals(before.getField(field))) {
+                delta.setField(field, value);
+                changedFields.addPaths(field.getName());
+            }
+        }
+        return delta.setChangedFields(changedFields).build();
+    }
+
+    private static String fullName(Patient patient) {
+        if (patient.getFirstName() == null) {
+            return str(patient.getLastName());
+        }
+        if (patient.getLastName() == null) {
+            return patient.getFirstName();
+        }
+        return patient.getFirstName() + " " + patient.getLastName();
+    }
+
+    private static String str(String value) {
+        return value == null ? "" : value;
+    }
+
+}
@@ -2,8 +2,11 @@ package com.sm.patientservice.mapper;
 
 import java.time.LocalDateTime;
 
+import com.sm.patientservice.model.dto.Address;
+import com.sm.patientservice.model.dto.Insurance;
 import com.sm.patientservice.model.dto.Patient;
 import com.sm.patientservice.model.dto.PatientCreateRequest;
+import com.sm.patientservice.repository.PatientListView;
 import com.sm.patientservice.utils.AppUtils;
 
 import lombok.extern.slf4j.Slf4j;
@@ -27,10 +30,49 @@ public class PatientMapper {
         dto.setInsurance(null == patient.getInsurance() ? null : com.sm.patientservice.mapper.InsuranceMapper.toDto(patient.getInsurance()));
         dto.setCreatedAt(AppUtils.convertLocalDateTimeToString(patient.getCreatedAt()));
         dto.setUpdatedAt(AppUtils.convertLocalDateTimeToString(patient.getUpdatedAt()));
+        dto.setBillingStatus(null == patient.getBillingStatus() ? null : Patient.BillingStatusEnum.valueOf(patient.getBillingStatus().name()));
         return dto;
     }
 
-    public static com.sm.patientservice.model.Patient toEntity(PatientCreateRequest patientDto) {
+    public static Patient toDto(PatientListView patient) {
+        if (patient == null) {
+            return null;
+        }
+        Patient dto = new Patient();
+        dto.setId(patient.id());
+        dto.setFirstName(patient.firstName());
+        dto.setLastName(patient.lastName());
+        dto.setEmail(patient.email());
+        dto.setPhoneNumber(patient.phoneNumber());
+        dto.setDob(patient.dob());
+        dto.setGender(null == patient.gender() ? null : Patient.GenderEnum.valueOf(patient.gender()));
+        // Hibernate maps an embeddable whose columns are all null to null; keep the same shape as toDto(entity)
+        if (patient.street() != null || patient.city() != null || patient.state() != null
+                || patient.zipCode() != null || patient.country() != null) {
+            Address address = new Address();
+            address.setStreet(patient.street());
+            address.setCity(patient.city());
+            address.setState(patient.state());
+            address.setZipCode(patient.zipCode());
+            address.setCountry(patient.country());
+            dto.setAddress(address);
+        }
+        if (patient.provider() != null || patient.policyNumber() != null) {
+            Insurance insurance = new Insurance();
+            insurance.setProvider(patient.provider());
+            insurance.setPolicyNumber(patient.policyNumber());
+            dto.setInsurance(insurance);
+        }
+        dto.setCreatedAt(AppUtils.convertLocalDateTimeToString(patient.createdAt()));
+        dto.setUpdatedAt(AppUtils.convertLocalDateTimeToString(patient.updatedAt()));
+        dto.setBillingStatus(null == patient.billingStatus() ? null : Patient.BillingStatusEnum.valueOf(patient.billingStatus().name()));
+        return dto;
+    }
+
+    /**
+     * @param now creation time, stored as both the created and updated timestamp
+     */
+    public static com.sm.patientservice.model.Patient toEntity(PatientCreateRequest patientDto, LocalDateTime now) {
         if (patientDto == null) {
             return null;
         }
@@ -46,10 +88,9 @@ public class PatientMapper {
         entity.setInsurance(InsuranceMapper.toEntity(patientDto.getInsurance()));
         
         // Set timestamps
-        LocalDateTime now = LocalDateTime.now();
         entity.setCreatedAt(now);
         entity.setUpdatedAt(now);
-        log.info("Patient Request: {}", entity);
+        log.debug("Patient Request: {}", entity);
         return entity;
     }
 
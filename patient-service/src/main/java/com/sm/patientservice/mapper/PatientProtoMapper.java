@@ -0,0 +1,167 @@
+package com.sm.patientservice.mapper;
+
+import com.sm.patientservice.model.dto.PaginatedPatientListResponse;
+import com.sm.patientservice.model.dto.PaginatedPatientListResponseMeta;
+import com.sm.patientservice.model.dto.Patient;
+import com.sm.patientservice.model.dto.PatientBatchGetResponse;
+import com.sm.patientservice.model.dto.PatientBatchGetResult;
+import com.sm.patientservice.model.dto.PatientResponseWrapper;
+import com.sm.patientservice.model.dto.ValidationErrorResponse;
+import com.sm.patientservice.model.dto.ValidationErrorResponseError;
+import com.sm.patientservice.repository.PatientListView;
+import com.sm.patientservice.utils.AppUtils;
+
+import patient.api.PatientListMeta;
+
+/**
+ * Maps the REST response DTOs, and list rows for the gRPC API, to their {@code patient_api.proto} counterparts. {@code null} strings become empty,
+ * as protobuf has no null.
+ *
+ * Proto types are written fully qualified ({@code patient.api.*}); avoid naming variables {@code patient} here, as
+ * they would hide the {@code patient} package.
+ */
+public class PatientProtoMapper {
+
+    public static patient.api.Patient toProto(Patient dto) {
+        var builder = patient.api.Patient.newBuilder()
+            .setId(str(dto.getId()))
+            .setFirstName(str(dto.getFirstName()))
+            .setLastName(str(dto.getLastName()))
+            .setDob(str(dto.getDob()))
+            .setEmail(str(dto.getEmail()))
+            .setPhoneNumber(str(dto.getPhoneNumber()))
+            .setGender(str(dto.getGender()))
+            .setCreatedAt(str(dto.getCreatedAt()))
+            .setUpdatedAt(str(dto.getUpdatedAt()))
+            .setBillingStatus(str(dto.getBillingStatus()));
+        if (dto.getAddress() != null) {
+            var address = dto.getAddress();
+            builder.setAddress(patient.api.Address.newBuilder()
+                .setStreet(str(address.getStreet()))
+                .setCity(str(address.getCity()))
+                .setState(str(address.getState()))
+                .setZipCode(str(address.getZipCode()))
+                .setCountry(str(address.getCountry())));
+        }
+        if (dto.getInsurance() != null) {
+            var insurance = dto.getInsurance();
+            builder.setInsurance(patient.api.Insurance.newBuilder()
+                .setProvider(str(insurance.getProvider()))
+                .setPolicyNumber(str(insurance.getPolicyNumber())));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Maps a list row straight to proto, with the same field formats as {@link #toProto(Patient)} of
+     * {@link PatientMapper#toDto(PatientListView)}.
+     */
+    public static patient.api.Patient toProto(PatientListView row) {
+        var builder = patient.api.Patient.newBuilder()
+            .setId(str(row.id()))
+            .setFirstName(str(row.firstName()))
+            .setLastName(str(row.lastName()))
+            .setDob(str(row.dob()))
+            .setEmail(str(row.email()))
+            .setPhoneNumber(str(row.phoneNumber()))
+            .setGender(str(row.gender()))
+            .setCreatedAt(str(AppUtils.convertLocalDateTimeToString(row.createdAt())))
+            .setUpdatedAt(str(AppUtils.convertLocalDateTimeToString(row.updatedAt())))
+            .setBillingStatus(str(row.billingStatus()));
+        if (row.street() != null || row.city() != null || row.state() != null
+                || row.zipCode() != null || row.country() != null) {
+            builder.setAddress(patient.api.Address.newBuilder()
+                .setStreet(str(row.street()))
+                .setCity(str(row.city()))
+                .setState(str(row.state()))
+                .setZipCode(str(row.zipCode()))
+                .setCountry(str(row.country())));
+        }
+        if (row.provider() != null || row.policyNumber() != null) {
+            builder.setInsurance(patient.api.Insurance.newBuilder()
+                .setProvider(str(row.provider()))
+                .setPolicyNumber(str(row.policyNumber())));
+        }
+        return builder.build();
+    }
+
+    public static patient.api.PatientResponse toProto(PatientResponseWrapper response) {
+        var builder = patient.api.PatientResponse.newBuilder()
+            .setStatus(str(response.getStatus()))
+            .setTimestamp(str(response.getTimestamp()));
+        if (response.getData() != null) {
+            builder.setData(toProto(response.getData()));
+        }
+        return builder.build();
+    }
+
+    public static patient.api.PatientListResponse toProto(PaginatedPatientListResponse response) {
+        var builder = patient.api.PatientListResponse.newBuilder()
+            .setStatus(str(response.getStatus()))
+            .setTimestamp(str(response.getTimestamp()));
+        if (response.getData() != null) {
+            for (Patient dto : response.getData()) {
+                builder.addData(toProto(dto));
+            }
+        }
+        if (response.getMeta() != null) {
+            builder.setMeta(toProto(response.getMeta()));
+        }
+        return builder.build();
+    }
+
+    public static patient.api.PatientBatchGetResponse toProto(PatientBatchGetResponse response) {
+        var builder = patient.api.PatientBatchGetResponse.newBuilder()
+            .setStatus(str(response.getStatus()))
+            .setTimestamp(str(response.getTimestamp()));
+        if (response.getData() != null) {
+            for (PatientBatchGetResult result : response.getData()) {
+                var item = patient.api.PatientBatchGetResult.newBuilder()
+                    .setId(str(result.getId()))
+                    .setFound(Boolean.TRUE.equals(result.getFound()));
+                if (result.getPatient() != null) {
+                    item.setPatient(toProto(result.getPatient()));
+                }
+                builder.addData(item);
+            }
+        }
+        return builder.build();
+    }
+
+    public static patient.api.ErrorResponse toProto(ValidationErrorResponse response) {
+        var builder = patient.api.ErrorResponse.newBuilder()
+            .setStatus(str(response.getStatus()));
+        ValidationErrorResponseError error = response.getError();
+        if (error != null) {
+            var errorBuilder = patient.api.Error.newBuilder()
+                .setCode(str(error.getCode()))
+                .setMessage(str(error.getMessage()))
+                .setPath(str(error.getPath()))
+                .setTimestamp(str(error.getTimestamp()));
+            if (error.getFieldErrors() != null) {
+                error.getFieldErrors().forEach(fieldError -> errorBuilder.addFieldErrors(patient.api.FieldError.newBuilder()
+                    .setField(str(fieldError.getField()))
+                    .setMessage(str(fieldError.getMessage()))));
+            }
+            builder.setError(errorBuilder);
+        }
+        return builder.build();
+    }
+
+    private static PatientListMeta toProto(PaginatedPatientListResponseMeta meta) {
+        var builder = PatientListMeta.newBuilder();
+        if (meta.getPage() != null) builder.setPage(meta.getPage());
+        if (meta.getSize() != null) builder.setSize(meta.getSize());
+        if (meta.getTotalPages() != null) builder.setTotalPages(meta.getTotalPages());
+        if (meta.getTotalItems() != null) builder.setTotalItems(meta.getTotalItems());
+        if (meta.getTotalEstimated() != null) builder.setTotalEstimated(meta.getTotalEstimated());
+        if (meta.getHasMore() != null) builder.setHasMore(meta.getHasMore());
+        if (meta.getNextCursor() != null) builder.setNextCursor(meta.getNextCursor());
+        return builder.build();
+    }
+
+    private static String str(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.sm.patientservice.model;
+
+/**
+ * State of a patient's billing account as far as patient-service knows.
+ */
+public enum BillingStatus {
+    /** billing-service confirmed the account */
+    ACTIVE,
+    /** billing-service was slow or unavailable at creation time; BillingReconciler retries */
+    PENDING,
+    /** billing-service rejected the account */
+    FAILED
+}
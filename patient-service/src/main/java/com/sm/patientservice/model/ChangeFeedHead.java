@@ -0,0 +1,25 @@
+package com.sm.patientservice.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Single row holding the last change feed sequence number handed out. A relay holds its lock for a whole batch, so
+ * only one replica relays at a time, sequence numbers become visible in the order they were assigned and a reader
+ * never skips a change.
+ */
+@Entity
+@Table(name = "patient_change_feed_head")
+@Data
+public class ChangeFeedHead {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    private long lastSeq;
+
+}
@@ -0,0 +1,38 @@
+package com.sm.patientservice.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * A request made with an Idempotency-Key, shared by all replicas. The row is inserted as a reservation before the
+ * request runs and gets its response once it has succeeded.
+ */
+@Entity
+@Table(name = "patient_idempotency_key")
+@Data
+public class IdempotencyRecord {
+
+    // Caller name and client key, see IdempotencyService
+    @Id
+    @Column(length = 512)
+    private String idempotencyKey;
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    // Serialized response body, null while the request is still running
+    @Column(length = 65536)
+    private byte[] response;
+
+    @Column(nullable = false)
+    private LocalDateTime reservedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+}
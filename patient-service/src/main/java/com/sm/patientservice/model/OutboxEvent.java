@@ -0,0 +1,60 @@
+package com.sm.patientservice.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * A Kafka record waiting to be published. Rows are written in the same transaction as the change they describe
+ * and marked published by the relay once the broker has acknowledged them. Published rows are kept for
+ * {@code patient.outbox.retention} to serve {@code GET /patients/changes}, then purged.
+ */
+@Entity
+@Table(name = "patient_outbox", indexes = {
+    @Index(name = "idx_patient_outbox_published_at", columnList = "publishedAt"),
+    @Index(name = "idx_patient_outbox_change_seq", columnList = "changeSeq", unique = true)
+})
+@Data
+public class OutboxEvent {
+
+    // A pooled sequence (rather than IDENTITY) keeps JDBC insert batching available for outbox rows
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_outbox_seq")
+    @SequenceGenerator(name = "patient_outbox_seq", sequenceName = "patient_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    // Relay order. Pooled ids from different replicas interleave, so rows are sent in the order of this number,
+    // drawn once per transaction by PatientEventOutbox after the patient row is locked
+    private Long relaySeq;
+
+    private String topic;
+
+    private String messageKey;
+
+    private String eventType;
+
+    // Serialized record value, null for a tombstone
+    @Column(length = 65536)
+    private byte[] payload;
+
+    private LocalDateTime createdAt;
+
+    // Instance id of the replica that wrote the change, sent as the origin header
+    @Column(length = 100)
+    private String origin;
+
+    // Null until the relay has published the row
+    private LocalDateTime publishedAt;
+
+    // Position in the change feed, assigned in commit order when a patients event is published
+    private Long changeSeq;
+
+}
@@ -4,20 +4,23 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+import org.hibernate.annotations.DynamicUpdate;
+
 import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
 import jakarta.persistence.Version;
 import lombok.Data;
 
 @Entity
+@DynamicUpdate
 @Data
 public class Patient {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     private String firstName;
@@ -38,6 +41,9 @@ public class Patient {
     @Embedded
     private Insurance insurance;
 
+    @Enumerated(EnumType.STRING)
+    private BillingStatus billingStatus;
+
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
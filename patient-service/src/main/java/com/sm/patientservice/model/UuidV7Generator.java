@@ -0,0 +1,79 @@
+package com.sm.patientservice.model;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+/**
+ * Generates UUIDv7 ids (RFC 9562): a 48-bit Unix millisecond timestamp, a 12-bit counter and 62 random bits.
+ * <p>
+ * Ids from one generator are strictly increasing. The counter restarts every millisecond and, should more than 4096
+ * ids be drawn within one, carries into the timestamp, which then runs briefly ahead of the clock. Because new keys
+ * always land at the right edge of the primary key index, inserts touch a few hot pages instead of random ones
+ * across the whole B-tree as with {@link UUID#randomUUID()}. The random part still comes from a
+ * {@link SecureRandom}, so ids are not guessable from one another.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+    private static final int COUNTER_BITS = 12;
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+    private static final long VARIANT_RFC_4122 = 0x8000_0000_0000_0000L;
+
+    private final Clock clock;
+    private final Random random;
+    private final AtomicLong lastTimestampAndCounter = new AtomicLong();
+
+    public UuidV7Generator() {
+        this(Clock.systemUTC(), new SecureRandom());
+    }
+
+    public UuidV7Generator(Clock clock, Random random) {
+        this.clock = clock;
+        this.random = random;
+    }
+
+    public UUID generate() {
+        long timestampAndCounter = nextTimestampAndCounter();
+        long mostSigBits = (timestampAndCounter >>> COUNTER_BITS) << 16
+            | VERSION_7
+            | (timestampAndCounter & ((1L << COUNTER_BITS) - 1));
+        long leastSigBits = (random.nextLong() & VARIANT_MASK) | VARIANT_RFC_4122;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+            EventType eventType) {
+        return generate();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    /**
+     * Returns the millisecond timestamp shifted left by the counter width plus the counter, never the same value
+     * twice and never less than the previous one, even if the clock steps back.
+     */
+    private long nextTimestampAndCounter() {
+        long now = clock.millis() << COUNTER_BITS;
+        while (true) {
+            long last = lastTimestampAndCounter.get();
+            long next = Math.max(now, last + 1);
+            if (lastTimestampAndCounter.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+}
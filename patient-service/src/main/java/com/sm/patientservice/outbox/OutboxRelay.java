@@ -0,0 +1,189 @@
+package com.sm.patientservice.outbox;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sm.patientservice.config.OutboxConfig;
+import com.sm.patientservice.constant.AppConstant;
+import com.sm.patientservice.kafka.KafkaProducer;
+import com.sm.patientservice.model.ChangeFeedHead;
+import com.sm.patientservice.model.OutboxEvent;
+import com.sm.patientservice.repository.ChangeFeedHeadRepository;
+import com.sm.patientservice.repository.OutboxEventRepository;
+import com.sm.patientservice.utils.AppClock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publishes outbox rows to Kafka in relay order ({@code relaySeq}, then id) and marks them published once every
+ * record of the batch is acknowledged. {@code patients} events also get their change feed sequence numbers then;
+ * published rows are purged after {@code patient.outbox.retention}.
+ *
+ * Each batch runs under the lock on the change feed head row, so one replica relays at a time and the others wait
+ * their turn. Concurrent relays would send disjoint batches in parallel, and a patient's later event could reach a
+ * partition, or win compaction of {@code patients-snapshot}, ahead of an earlier one.
+ *
+ * A batch that fails or times out is rolled back and retried on the next run, so delivery is at-least-once:
+ * consumers may see an event twice but never miss one. Metrics:
+ * <ul>
+ *   <li>{@code patient.outbox.relayed} - events published (throughput)</li>
+ *   <li>{@code patient.outbox.relay.failures} - batches that had to be retried</li>
+ *   <li>{@code patient.outbox.relay.batch} - time to publish and delete a batch</li>
+ *   <li>{@code patient.outbox.lag} - age in seconds of the oldest unpublished event</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ChangeFeedHeadRepository changeFeedHeadRepository;
+    private final KafkaProducer kafkaProducer;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxConfig outboxConfig;
+    private final AppClock appClock;
+
+    private final Counter relayedCounter;
+    private final Counter failureCounter;
+    private final Timer batchTimer;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       ChangeFeedHeadRepository changeFeedHeadRepository,
+                       KafkaProducer kafkaProducer,
+                       TransactionTemplate transactionTemplate,
+                       OutboxConfig outboxConfig,
+                       AppClock appClock,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.changeFeedHeadRepository = changeFeedHeadRepository;
+        this.kafkaProducer = kafkaProducer;
+        this.transactionTemplate = transactionTemplate;
+        this.outboxConfig = outboxConfig;
+        this.appClock = appClock;
+        this.relayedCounter = Counter.builder("patient.outbox.relayed")
+            .description("Outbox events published to Kafka")
+            .register(meterRegistry);
+        this.failureCounter = Counter.builder("patient.outbox.relay.failures")
+            .description("Outbox batches that failed to publish and will be retried")
+            .register(meterRegistry);
+        this.batchTimer = Timer.builder("patient.outbox.relay.batch")
+            .description("Time to publish and mark one outbox batch")
+            .register(meterRegistry);
+        Gauge.builder("patient.outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+            .description("Age of the oldest unpublished outbox event")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Drains the outbox: keeps relaying full batches until a partial one signals that the backlog is gone.
+     */
+    @Scheduled(fixedDelayString = "${patient.outbox.relay-interval-ms:200}")
+    public void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed == outboxConfig.getBatchSize());
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            log.warn("Outbox relay failed, batch will be retried: {}", e.getMessage());
+        } finally {
+            updateLag();
+        }
+    }
+
+    /**
+     * Deletes published rows that are older than the change feed retention.
+     */
+    @Scheduled(fixedDelayString = "${patient.outbox.purge-interval-ms:60000}")
+    public void purgePublished() {
+        int purged = outboxEventRepository.deletePublishedBefore(appClock.now().minus(outboxConfig.getRetention()));
+        if (purged > 0) {
+            log.debug("Purged {} published outbox events", purged);
+        }
+    }
+
+    private int relayBatch() {
+        ChangeFeedHead head = lockHead();
+        List<OutboxEvent> batch = outboxEventRepository.findPending(Limit.of(outboxConfig.getBatchSize()));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Timer.Sample sample = Timer.start();
+        // Send the whole batch before waiting so the producer can group records per partition
+        CompletableFuture<?>[] sends = batch.stream()
+            .map(event -> kafkaProducer.send(event.getTopic(), event.getMessageKey(), event.getPayload(), event.getOrigin()))
+            .toArray(CompletableFuture[]::new);
+        awaitAcks(sends, outboxConfig.getSendTimeout());
+
+        markPublished(head, batch);
+        sample.stop(batchTimer);
+        relayedCounter.increment(batch.size());
+        log.debug("Relayed {} outbox events", batch.size());
+        return batch.size();
+    }
+
+    private ChangeFeedHead lockHead() {
+        return changeFeedHeadRepository.lockHead().orElseGet(() -> {
+            // First batch ever; should two replicas race here, one insert fails and that relay retries on its next run
+            ChangeFeedHead head = new ChangeFeedHead();
+            head.setId(ChangeFeedHead.ID);
+            return changeFeedHeadRepository.saveAndFlush(head);
+        });
+    }
+
+    /**
+     * Numbers the batch's {@code patients} events for the change feed and marks every row published.
+     */
+    private void markPublished(ChangeFeedHead head, List<OutboxEvent> batch) {
+        long seq = head.getLastSeq();
+        for (OutboxEvent event : batch) {
+            if (AppConstant.PATIENT_EVENTS_TOPIC.equals(event.getTopic())) {
+                event.setChangeSeq(++seq);
+            }
+        }
+        head.setLastSeq(seq);
+        LocalDateTime publishedAt = appClock.now();
+        batch.forEach(event -> event.setPublishedAt(publishedAt));
+    }
+
+    private static void awaitAcks(CompletableFuture<?>[] sends, Duration timeout) {
+        try {
+            CompletableFuture.allOf(sends).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Kafka acknowledgements", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Kafka rejected an outbox event", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out after " + timeout + " waiting for Kafka acknowledgements", e);
+        }
+    }
+
+    private void updateLag() {
+        long lag = outboxEventRepository.findFirstByPublishedAtIsNullOrderByIdAsc()
+            .map(OutboxEvent::getCreatedAt)
+            .map(createdAt -> Duration.between(createdAt, appClock.now()).toMillis())
+            .orElse(0L);
+        lagMillis.set(Math.max(lag, 0));
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.sm.patientservice.outbox;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Draws numbers from {@code patient_outbox_relay_seq} (see schema.sql) one at a time, unlike the pooled outbox id
+ * sequence, so numbers follow the order in which transactions draw them across replicas.
+ */
+@Component
+public class OutboxRelaySequence {
+
+    static final String SEQUENCE_NAME = "patient_outbox_relay_seq";
+
+    private final EntityManager entityManager;
+    private final String nextValueSql;
+
+    public OutboxRelaySequence(EntityManager entityManager, EntityManagerFactory entityManagerFactory) {
+        this.entityManager = entityManager;
+        this.nextValueSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices().getDialect().getSequenceSupport().getSequenceNextValString(SEQUENCE_NAME);
+    }
+
+    public long next() {
+        return ((Number) entityManager.createNativeQuery(nextValueSql).getSingleResult()).longValue();
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.sm.patientservice.outbox;
+
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sm.patientservice.config.InstanceConfig;
+import com.sm.patientservice.config.PatientEventConfig;
+import com.sm.patientservice.constant.AppConstant;
+import com.sm.patientservice.mapper.PatientEventMapper;
+import com.sm.patientservice.model.OutboxEvent;
+import com.sm.patientservice.repository.OutboxEventRepository;
+import com.sm.patientservice.utils.AppClock;
+import com.sm.patientservice.utils.TransactionUtils;
+
+import lombok.extern.slf4j.Slf4j;
+import patient.events.EventType;
+import patient.events.PatientEvent;
+
+/**
+ * Records patient events in the outbox table. The insert joins the caller's transaction, so an event exists
+ * if and only if the change it describes was committed; {@link OutboxRelay} publishes it afterwards.
+ *
+ * Every event is mirrored to the log-compacted {@code patients-snapshot} topic: the patient's full state, or a
+ * tombstone once it is deleted. The snapshot row is queued first, so it is sent ahead of its event.
+ *
+ * All rows of a transaction share one {@code relaySeq}, drawn when the first row is queued and after pending
+ * changes are flushed. The flush takes the patient's row lock, so a later transaction on the same patient, even on
+ * another replica, can only draw a higher number: relay order follows commit order per patient.
+ */
+@Component
+@Slf4j
+public class PatientEventOutbox {
+
+    private static final Object RELAY_SEQ = new Object();
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxRelaySequence relaySequence;
+    private final PatientEventConfig eventConfig;
+    private final InstanceConfig instanceConfig;
+    private final AppClock appClock;
+
+    public PatientEventOutbox(OutboxEventRepository outboxEventRepository, OutboxRelaySequence relaySequence,
+                              PatientEventConfig eventConfig, InstanceConfig instanceConfig, AppClock appClock) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.relaySequence = relaySequence;
+        this.eventConfig = eventConfig;
+        this.instanceConfig = instanceConfig;
+        this.appClock = appClock;
+    }
+
+    /**
+     * Appends a full-snapshot event for the {@code patients} topic, keyed by patient id. Must be called inside a
+     * transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(UUID patientId, PatientEvent event) {
+        appendSnapshot(patientId, event);
+        queue(AppConstant.PATIENT_EVENTS_TOPIC, patientId, event.getEventType().name(), event.toByteArray());
+        log.debug("Queued {} event for patient ID: {}", event.getEventType(), patientId);
+    }
+
+    /**
+     * Appends an UPDATED event for the change from {@code before} to {@code after}: a field-mask delta, or the full
+     * {@code after} snapshot with {@code patient.events.updated-payload=snapshot}. Must be called inside a
+     * transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendUpdated(UUID patientId, PatientEvent before, PatientEvent after) {
+        if (eventConfig.isSnapshotUpdates()) {
+            append(patientId, after);
+            return;
+        }
+        appendSnapshot(patientId, after);
+        PatientEvent delta = PatientEventMapper.createUpdatedDelta(before, after);
+        queue(AppConstant.PATIENT_EVENTS_TOPIC, patientId, delta.getEventType().name(), delta.toByteArray());
+        log.debug("Queued UPDATED delta of {} for patient ID: {}", delta.getChangedFields().getPathsList(), patientId);
+    }
+
+    private void appendSnapshot(UUID patientId, PatientEvent snapshot) {
+        if (!eventConfig.isSnapshotTopicEnabled()) {
+            return;
+        }
+        byte[] payload = snapshot.getEventType() == EventType.DELETED ? null : snapshot.toByteArray();
+        queue(AppConstant.PATIENT_SNAPSHOT_TOPIC, patientId, snapshot.getEventType().name(), payload);
+    }
+
+    private void queue(String topic, UUID patientId, String eventType, byte[] payload) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setTopic(topic);
+        outboxEvent.setMessageKey(patientId.toString());
+        outboxEvent.setEventType(eventType);
+        outboxEvent.setPayload(payload);
+        outboxEvent.setCreatedAt(appClock.now());
+        outboxEvent.setOrigin(instanceConfig.getInstanceId());
+        outboxEvent.setRelaySeq(relaySeq());
+        outboxEventRepository.save(outboxEvent);
+    }
+
+    private long relaySeq() {
+        Long relaySeq = (Long) TransactionSynchronizationManager.getResource(RELAY_SEQ);
+        if (relaySeq == null) {
+            outboxEventRepository.flush();
+            relaySeq = relaySequence.next();
+            TransactionSynchronizationManager.bindResource(RELAY_SEQ, relaySeq);
+            TransactionUtils.afterCompletion(() -> TransactionSynchronizationManager.unbindResourceIfPossible(RELAY_SEQ));
+        }
+        return relaySeq;
+    }
+
+}
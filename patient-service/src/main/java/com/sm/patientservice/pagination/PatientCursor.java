@@ -0,0 +1,47 @@
+package com.sm.patientservice.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import com.sm.patientservice.exception.InvalidCursorException;
+import com.sm.patientservice.model.Patient;
+import com.sm.patientservice.repository.PatientListView;
+
+/**
+ * Position of the last row of a page in the (last_name, first_name, id) ordering used for keyset pagination.
+ * Clients only ever see the encoded form, which is an opaque URL-safe token.
+ */
+public record PatientCursor(String lastName, String firstName, UUID id) {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "\u001F";
+
+    public static PatientCursor of(Patient patient) {
+        return new PatientCursor(patient.getLastName(), patient.getFirstName(), patient.getId());
+    }
+
+    public static PatientCursor of(PatientListView patient) {
+        return new PatientCursor(patient.lastName(), patient.firstName(), patient.id());
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, VERSION, lastName, firstName, id.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PatientCursor decode(String token) {
+        String[] parts;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            parts = raw.split(SEPARATOR, -1);
+            if (parts.length == 4 && VERSION.equals(parts[0])) {
+                return new PatientCursor(parts[1], parts[2], UUID.fromString(parts[3]));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid pagination cursor: " + token, e);
+        }
+        throw new InvalidCursorException("Invalid pagination cursor: " + token);
+    }
+
+}
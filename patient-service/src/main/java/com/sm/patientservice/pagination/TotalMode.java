@@ -0,0 +1,32 @@
+package com.sm.patientservice.pagination;
+
+import java.util.Locale;
+
+import com.sm.patientservice.exception.InvalidTotalModeException;
+
+/**
+ * Controls how the total number of matching patients is reported for a page.
+ */
+public enum TotalMode {
+
+    /** Skip counting entirely; only hasMore/nextCursor are reported. */
+    NONE,
+    /** Run a COUNT query. */
+    EXACT,
+    /**
+     * Use planner statistics for unfiltered listings, otherwise fall back to {@link #EXACT}. Name searches only
+     * report a total when the search backend can count without scanning the patient table.
+     */
+    ESTIMATED;
+
+    public static TotalMode from(String value) {
+        if (value == null || value.isBlank()) {
+            return ESTIMATED;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTotalModeException("Unsupported total mode: " + value, e);
+        }
+    }
+}
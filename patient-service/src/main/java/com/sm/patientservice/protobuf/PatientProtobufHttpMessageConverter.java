@@ -0,0 +1,70 @@
+package com.sm.patientservice.protobuf;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter;
+
+import com.google.protobuf.Message;
+import com.sm.patientservice.mapper.PatientProtoMapper;
+import com.sm.patientservice.model.dto.PaginatedPatientListResponse;
+import com.sm.patientservice.model.dto.PatientBatchGetResponse;
+import com.sm.patientservice.model.dto.PatientResponseWrapper;
+import com.sm.patientservice.model.dto.ValidationErrorResponse;
+
+/**
+ * Writes the patients API responses as {@code application/x-protobuf} (messages in {@code patient_api.proto}) when
+ * the client asks for it in {@code Accept}; JSON stays the default, see
+ * {@link com.sm.patientservice.config.ProtobufWebConfig}. Only responses are converted, requests are still JSON.
+ */
+public class PatientProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private static final Set<Class<?>> SUPPORTED_TYPES = Set.of(
+        PatientResponseWrapper.class,
+        PaginatedPatientListResponse.class,
+        PatientBatchGetResponse.class,
+        ValidationErrorResponse.class);
+
+    public PatientProtobufHttpMessageConverter() {
+        super(ProtobufHttpMessageConverter.PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return SUPPORTED_TYPES.contains(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        toMessage(body).writeTo(outputMessage.getBody());
+    }
+
+    private static Message toMessage(Object body) {
+        if (body instanceof PatientResponseWrapper response) {
+            return PatientProtoMapper.toProto(response);
+        }
+        if (body instanceof PaginatedPatientListResponse response) {
+            return PatientProtoMapper.toProto(response);
+        }
+        if (body instanceof PatientBatchGetResponse response) {
+            return PatientProtoMapper.toProto(response);
+        }
+        return PatientProtoMapper.toProto((ValidationErrorResponse) body);
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.sm.patientservice.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sm.patientservice.model.ChangeFeedHead;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface ChangeFeedHeadRepository extends JpaRepository<ChangeFeedHead, Integer> {
+
+    /**
+     * Locks the head row until the caller's transaction ends, waiting while another relay holds it.
+     *
+     * @return the head, or empty if it has not been created yet
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM ChangeFeedHead h WHERE h.id = " + ChangeFeedHead.ID)
+    Optional<ChangeFeedHead> lockHead();
+
+    @Query("SELECT h.lastSeq FROM ChangeFeedHead h WHERE h.id = " + ChangeFeedHead.ID)
+    Optional<Long> findLastSeq();
+
+}
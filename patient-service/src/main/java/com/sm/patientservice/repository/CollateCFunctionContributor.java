@@ -0,0 +1,26 @@
+package com.sm.patientservice.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers the HQL function {@code collate_c(name)}, which compares and sorts a string by code point whatever the
+ * database's default collation is: {@code name COLLATE "C"} on PostgreSQL. H2 has no {@code COLLATE} expression and
+ * already compares strings by character, so there the name is rendered as is.
+ *
+ * The keyset queries of {@link PatientRepository} order names with it, so their order matches the ngram backend's
+ * and a cursor stays valid when the backend or the database changes. Registered in
+ * {@code META-INF/services/org.hibernate.boot.model.FunctionContributor}.
+ */
+public class CollateCFunctionContributor implements FunctionContributor {
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        String pattern = functionContributions.getDialect() instanceof PostgreSQLDialect ? "(?1 collate \"C\")" : "(?1)";
+        functionContributions.getFunctionRegistry().registerPattern("collate_c", pattern,
+            functionContributions.getTypeConfiguration().getBasicTypeRegistry().resolve(StandardBasicTypes.STRING));
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.sm.patientservice.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sm.patientservice.model.IdempotencyRecord;
+
+/*
+ * Every write runs in its own transaction: a failed reservation insert aborts the transaction on Postgres, and the
+ * store's callers are not transactional anyway.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Query("""
+            SELECT r FROM IdempotencyRecord r
+            WHERE r.idempotencyKey = :key AND r.response IS NOT NULL AND r.expiresAt > :now
+            """)
+    Optional<IdempotencyRecord> findCompleted(@Param("key") String key, @Param("now") LocalDateTime now);
+
+    /**
+     * Inserts a reservation; fails with a unique key violation when the key is already present.
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO patient_idempotency_key (idempotency_key, fingerprint, reserved_at, expires_at)
+            VALUES (:key, :fingerprint, :now, :expiresAt)
+            """)
+    int insertReservation(
+        @Param("key") String key,
+        @Param("fingerprint") String fingerprint,
+        @Param("now") LocalDateTime now,
+        @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Takes over a key whose reservation went stale without a response, or whose response has expired.
+     *
+     * @return 1 if the key is now reserved by the caller, 0 if it is held by a live reservation or response
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE IdempotencyRecord r
+            SET r.fingerprint = :fingerprint, r.response = null, r.reservedAt = :now, r.expiresAt = :expiresAt
+            WHERE r.idempotencyKey = :key
+              AND ((r.response IS NULL AND r.reservedAt < :staleBefore) OR r.expiresAt <= :now)
+            """)
+    int takeOver(
+        @Param("key") String key,
+        @Param("fingerprint") String fingerprint,
+        @Param("now") LocalDateTime now,
+        @Param("staleBefore") LocalDateTime staleBefore,
+        @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.response = :response, r.expiresAt = :expiresAt WHERE r.idempotencyKey = :key")
+    int complete(
+        @Param("key") String key,
+        @Param("response") byte[] response,
+        @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.response IS NULL")
+    int deleteReservation(@Param("key") String key);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+}
@@ -0,0 +1,40 @@
+package com.sm.patientservice.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sm.patientservice.model.OutboxEvent;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Returns the oldest pending rows in relay order. Only the relay holding
+     * {@link ChangeFeedHeadRepository#lockHead()} reads them. Rows written before {@code relaySeq} existed come first.
+     */
+    @Query("SELECT e FROM OutboxEvent e WHERE e.publishedAt IS NULL ORDER BY e.relaySeq ASC NULLS FIRST, e.id")
+    List<OutboxEvent> findPending(Limit limit);
+
+    Optional<OutboxEvent> findFirstByPublishedAtIsNullOrderByIdAsc();
+
+    @Query("SELECT e FROM OutboxEvent e WHERE e.changeSeq > :since ORDER BY e.changeSeq")
+    List<OutboxEvent> findChangesAfter(@Param("since") long since, Limit limit);
+
+    @Query("SELECT min(e.changeSeq) FROM OutboxEvent e")
+    Optional<Long> findOldestChangeSeq();
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :publishedBefore")
+    int deletePublishedBefore(@Param("publishedBefore") LocalDateTime publishedBefore);
+
+}
@@ -0,0 +1,51 @@
+package com.sm.patientservice.repository;
+
+import java.util.OptionalLong;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cheap row count for the patient table based on planner statistics.
+ * Only PostgreSQL exposes a usable estimate; other databases report no estimate so callers fall back to COUNT(*).
+ */
+@Repository
+@Slf4j
+public class PatientCountEstimator {
+
+    private static final String POSTGRES_ESTIMATE_SQL =
+        "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass('patient')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    public PatientCountEstimator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public OptionalLong estimate() {
+        if (!isPostgres()) {
+            return OptionalLong.empty();
+        }
+        Long estimate = jdbcTemplate.queryForObject(POSTGRES_ESTIMATE_SQL, Long.class);
+        // reltuples is -1 (or 0) until the table has been vacuumed/analyzed at least once
+        if (estimate == null || estimate <= 0) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(estimate);
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            postgres = "PostgreSQL".equalsIgnoreCase(product);
+            log.info("Patient count estimation {} for database {}", postgres ? "enabled" : "disabled", product);
+        }
+        return postgres;
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.sm.patientservice.repository;
+
+import java.util.List;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Creates the functional index on {@code lower(email)} that backs the case-insensitive email checks and enforces
+ * case-insensitive uniqueness across replicas.
+ *
+ * Lives here rather than in schema.sql because H2 has no expression indexes and the docker profile does not run
+ * schema.sql. If existing rows differ only in email case the unique index cannot be built; a plain index is created
+ * instead so lookups are still indexed.
+ *
+ * A concurrent build that fails or is interrupted (e.g. the replica is stopped mid-build) leaves an INVALID index
+ * behind, which enforces nothing and which {@code IF NOT EXISTS} would keep forever. Such an index is dropped and
+ * built again on the next start.
+ */
+@Component
+@Slf4j
+public class PatientEmailIndexInitializer implements ApplicationRunner {
+
+    private static final String UNIQUE_INDEX_SQL =
+        "CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS idx_patient_email_lower ON patient (lower(email))";
+    // to_regclass resolves the name through the search_path, like the CREATE and DROP statements
+    private static final String INDEX_STATE_SQL =
+        "SELECT indisvalid, indisunique FROM pg_index WHERE indexrelid = to_regclass('idx_patient_email_lower')";
+    private static final String DROP_INDEX_SQL =
+        "DROP INDEX CONCURRENTLY IF EXISTS idx_patient_email_lower";
+    private static final String INDEX_SQL =
+        "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patient_email_lower ON patient (lower(email))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PatientEmailIndexInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String product = jdbcTemplate.execute(
+            (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(product)) {
+            log.info("Skipping lower(email) index on {}", product);
+            return;
+        }
+        List<IndexState> existing = jdbcTemplate.query(INDEX_STATE_SQL,
+            (row, rowNum) -> new IndexState(row.getBoolean("indisvalid"), row.getBoolean("indisunique")));
+        if (!existing.isEmpty()) {
+            IndexState index = existing.get(0);
+            if (index.valid()) {
+                if (!index.unique()) {
+                    log.warn("lower(email) index is not unique, emails differing only in case exist");
+                }
+                return;
+            }
+            log.warn("Dropping invalid lower(email) index left by an interrupted build");
+            jdbcTemplate.execute(DROP_INDEX_SQL);
+        }
+        try {
+            jdbcTemplate.execute(UNIQUE_INDEX_SQL);
+        } catch (DataAccessException e) {
+            // A failed concurrent build leaves an invalid index behind that IF NOT EXISTS would keep
+            log.error("Could not create unique index on lower(email), emails differing only in case exist: {}", e.getMessage());
+            jdbcTemplate.execute(DROP_INDEX_SQL);
+            jdbcTemplate.execute(INDEX_SQL);
+        }
+    }
+
+    private record IndexState(boolean valid, boolean unique) {}
+
+}
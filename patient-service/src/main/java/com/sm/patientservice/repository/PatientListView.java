@@ -0,0 +1,45 @@
+package com.sm.patientservice.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.sm.patientservice.model.BillingStatus;
+
+/**
+ * Read-only row for patient lists, built by a JPQL constructor expression straight from the result set. Unlike a
+ * {@link com.sm.patientservice.model.Patient} entity it is not registered in the persistence context, so no
+ * snapshot is kept for dirty checking and no embeddables are instantiated.
+ */
+public record PatientListView(
+        UUID id,
+        String firstName,
+        String lastName,
+        LocalDate dob,
+        String email,
+        String phoneNumber,
+        String gender,
+        String street,
+        String city,
+        String state,
+        String zipCode,
+        String country,
+        String provider,
+        String policyNumber,
+        BillingStatus billingStatus,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Long version) {
+
+    /**
+     * JPQL select clause producing this record for the alias {@code p}.
+     */
+    static final String SELECT = """
+            SELECT new com.sm.patientservice.repository.PatientListView(
+                p.id, p.firstName, p.lastName, p.dob, p.email, p.phoneNumber, p.gender,
+                p.address.street, p.address.city, p.address.state, p.address.zipCode, p.address.country,
+                p.insurance.provider, p.insurance.policyNumber, p.billingStatus, p.createdAt, p.updatedAt, p.version)
+            FROM Patient p
+            """;
+
+}
@@ -0,0 +1,59 @@
+package com.sm.patientservice.repository;
+
+import java.util.List;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Creates the index behind keyset pagination on PostgreSQL. The keyset queries compare names {@code COLLATE "C"}
+ * (see {@link CollateCFunctionContributor}), and PostgreSQL only answers them from an index built with the same
+ * collation, whatever the database default is. H2 gets the plain index from schema.sql.
+ *
+ * Like {@link PatientEmailIndexInitializer}, an invalid index left by an interrupted concurrent build is dropped and
+ * built again on the next start.
+ */
+@Component
+@Slf4j
+public class PatientNameIndexInitializer implements ApplicationRunner {
+
+    private static final String INDEX_SQL = """
+        CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patient_name_keyset_c
+            ON patient (last_name COLLATE "C", first_name COLLATE "C", id)
+        """;
+    private static final String INDEX_VALID_SQL =
+        "SELECT indisvalid FROM pg_index WHERE indexrelid = to_regclass('idx_patient_name_keyset_c')";
+    private static final String DROP_INDEX_SQL =
+        "DROP INDEX CONCURRENTLY IF EXISTS idx_patient_name_keyset_c";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PatientNameIndexInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String product = jdbcTemplate.execute(
+            (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(product)) {
+            log.info("Skipping C collation name index on {}", product);
+            return;
+        }
+        List<Boolean> valid = jdbcTemplate.queryForList(INDEX_VALID_SQL, Boolean.class);
+        if (!valid.isEmpty()) {
+            if (valid.get(0)) {
+                return;
+            }
+            log.warn("Dropping invalid name keyset index left by an interrupted build");
+            jdbcTemplate.execute(DROP_INDEX_SQL);
+        }
+        jdbcTemplate.execute(INDEX_SQL);
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.sm.patientservice.repository;
+
+import java.util.UUID;
+
+/**
+ * Projection carrying only the columns needed to build the in-memory name index.
+ */
+public interface PatientNameView {
+
+    UUID getId();
+
+    String getFirstName();
+
+    String getLastName();
+
+}
@@ -1,24 +1,152 @@
 package com.sm.patientservice.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.sm.patientservice.model.BillingStatus;
 import com.sm.patientservice.model.Patient;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, UUID> {
 
-    boolean existsByEmailIgnoreCase(String email);
+    /** Sort key of every patient page, also compared as a row value by the keyset queries. */
+    String NAME_KEY = "(collate_c(p.lastName), collate_c(p.firstName), p.id)";
+    String NAME_ORDER = "collate_c(p.lastName), collate_c(p.firstName), p.id";
+
+    // lower() rather than the derived upper() so the checks can use idx_patient_email_lower
+    @Query("SELECT count(p) > 0 FROM Patient p WHERE lower(p.email) = lower(:email)")
+    boolean existsByEmailIgnoreCase(@Param("email") String email);
+
+    @Query("SELECT count(p) > 0 FROM Patient p WHERE lower(p.email) = lower(:email) AND p.id <> :id")
+    boolean existsByEmailIgnoreCaseAndIdNot(@Param("email") String email, @Param("id") UUID id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT lower(p.email) FROM Patient p")
+    Stream<String> streamAllEmailsLowerCase();
+
+    /**
+     * Returns which of the given lower-cased emails are already taken, lower-cased.
+     */
+    @Query("SELECT lower(p.email) FROM Patient p WHERE lower(p.email) IN :emails")
+    List<String> findExistingEmailsIgnoreCase(@Param("emails") Collection<String> emails);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT coalesce(p.version, 0) FROM Patient p WHERE p.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
+    /**
+     * Deletes the patient in one statement, unlike {@link #deleteById}, which loads the entity first.
+     *
+     * @return 1 if the row was deleted, 0 if it does not exist
+     */
+    @Modifying
+    @Query("DELETE FROM Patient p WHERE p.id = :id")
+    int deleteByIdReturningCount(@Param("id") UUID id);
+
+    /**
+     * Deletes the patient only if it is still at {@code version}.
+     *
+     * @return 1 if the row was deleted, 0 if it does not exist or has another version
+     */
+    @Modifying
+    @Query("DELETE FROM Patient p WHERE p.id = :id AND p.version = :version")
+    int deleteByIdAndVersion(@Param("id") UUID id, @Param("version") long version);
 
-    boolean existsByEmailIgnoreCaseAndIdNot(String email, UUID id);
+    long countByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(
+        String firstName,
+        String lastName);
 
-    List<Patient> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(
-        String firstName, 
-        String lastName,
+    /*
+     * List and search queries return PatientListView rows instead of entities, so listing does no persistence
+     * context bookkeeping. Offset pages use the same order as keyset pages; pass an unsorted Pageable.
+     */
+    @Query(PatientListView.SELECT + "ORDER BY " + NAME_ORDER)
+    List<PatientListView> findListViews(Pageable pageable);
+
+    /*
+     * Keyset pagination. Rows are ordered by (last_name, first_name, id) so the seek predicate can be
+     * answered from an index instead of skipping OFFSET rows. Names are compared with an explicit C collation
+     * (see CollateCFunctionContributor) rather than the database default, so on PostgreSQL that index is
+     * idx_patient_name_keyset_c (see PatientNameIndexInitializer).
+     */
+    @Query(PatientListView.SELECT + "WHERE " + NAME_KEY + " > (:lastName, :firstName, :id) ORDER BY " + NAME_ORDER)
+    List<PatientListView> findListViewsAfter(
+        @Param("lastName") String lastName,
+        @Param("firstName") String firstName,
+        @Param("id") UUID id,
+        Limit limit);
+
+    @Query(PatientListView.SELECT + """
+            WHERE lower(p.firstName) LIKE :firstNamePattern OR lower(p.lastName) LIKE :lastNamePattern
+            """ + "ORDER BY " + NAME_ORDER)
+    List<PatientListView> findListViewsByName(
+        @Param("firstNamePattern") String firstNamePattern,
+        @Param("lastNamePattern") String lastNamePattern,
         Pageable pageable);
 
+    @Query(PatientListView.SELECT + """
+            WHERE (lower(p.firstName) LIKE :firstNamePattern OR lower(p.lastName) LIKE :lastNamePattern)
+            """ + "AND " + NAME_KEY + " > (:lastName, :firstName, :id) ORDER BY " + NAME_ORDER)
+    List<PatientListView> findListViewsByNameAfter(
+        @Param("firstNamePattern") String firstNamePattern,
+        @Param("lastNamePattern") String lastNamePattern,
+        @Param("lastName") String lastName,
+        @Param("firstName") String firstName,
+        @Param("id") UUID id,
+        Limit limit);
+
+    @Transactional(readOnly = true)
+    @Query(PatientListView.SELECT + "WHERE p.id IN :ids")
+    List<PatientListView> findListViewsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Streams the names of all patients with a forward-only cursor. Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<PatientNameView> streamAllBy();
+
+    /**
+     * Streams all patients in id order with a forward-only cursor. Must be consumed inside a transaction; callers
+     * should detach each entity once used so the persistence context does not grow with the table.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Patient> streamAllByOrderByIdAsc();
+
+    List<Patient> findByBillingStatusOrderByCreatedAtAsc(BillingStatus billingStatus, Limit limit);
+
+    /**
+     * Moves a patient's billing status from {@code expected} to {@code status}, bumping the version.
+     *
+     * @return 1 if the row was updated, 0 if it was deleted or no longer in the expected state
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE Patient p SET p.billingStatus = :status, p.version = p.version + 1
+            WHERE p.id = :id AND p.billingStatus = :expected
+            """)
+    int updateBillingStatus(
+        @Param("id") UUID id,
+        @Param("expected") BillingStatus expected,
+        @Param("status") BillingStatus status);
+
 }
@@ -0,0 +1,62 @@
+package com.sm.patientservice.search;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.sm.patientservice.model.Patient;
+import com.sm.patientservice.pagination.PatientCursor;
+import com.sm.patientservice.repository.PatientListView;
+import com.sm.patientservice.repository.PatientRepository;
+
+/**
+ * Searches with {@code LIKE '%term%'} queries. Nothing is kept in memory, but every search scans the patient table.
+ */
+@Component
+@ConditionalOnProperty(name = "patient.search.backend", havingValue = "database")
+public class DatabasePatientSearchBackend implements PatientSearchBackend {
+
+    private final PatientRepository patientRepository;
+
+    public DatabasePatientSearchBackend(PatientRepository patientRepository) {
+        this.patientRepository = patientRepository;
+    }
+
+    @Override
+    public List<PatientListView> findPage(NameQuery query, int page, int size) {
+        return patientRepository.findListViewsByName(toLikePattern(query.firstName()), toLikePattern(query.lastName()),
+                PageRequest.of(page, size));
+    }
+
+    @Override
+    public List<PatientListView> findPageAfter(NameQuery query, PatientCursor cursor, int limit) {
+        return patientRepository.findListViewsByNameAfter(toLikePattern(query.firstName()), toLikePattern(query.lastName()),
+                cursor.lastName(), cursor.firstName(), cursor.id(), Limit.of(limit));
+    }
+
+    @Override
+    public long count(NameQuery query) {
+        return patientRepository.countByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(
+                query.firstName(), query.lastName());
+    }
+
+    @Override
+    public void indexPatient(Patient patient) {
+        // Nothing to maintain, the table is the index
+    }
+
+    @Override
+    public void removePatient(UUID id) {
+        // Nothing to maintain, the table is the index
+    }
+
+    private static String toLikePattern(String term) {
+        String escaped = term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.sm.patientservice.search;
+
+import java.util.Arrays;
+
+/**
+ * Sorted, duplicate-free list of document ids backed by a primitive {@code int[]}.
+ * Not thread-safe; {@link TrigramIndex} guards access.
+ */
+public final class IntPostingList {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] docs;
+    private int size;
+
+    public IntPostingList() {
+        this.docs = new int[INITIAL_CAPACITY];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int get(int index) {
+        return docs[index];
+    }
+
+    public void add(int doc) {
+        // Documents are mostly indexed in increasing id order, so appending is the common case
+        if (size == 0 || doc > docs[size - 1]) {
+            ensureCapacity(size + 1);
+            docs[size++] = doc;
+            return;
+        }
+        int position = Arrays.binarySearch(docs, 0, size, doc);
+        if (position >= 0) {
+            return;
+        }
+        int insertAt = -position - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(docs, insertAt, docs, insertAt + 1, size - insertAt);
+        docs[insertAt] = doc;
+        size++;
+    }
+
+    public void remove(int doc) {
+        int position = Arrays.binarySearch(docs, 0, size, doc);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(docs, position + 1, docs, position, size - position - 1);
+        size--;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(docs, size);
+    }
+
+    /**
+     * Keeps the first {@code length} entries of {@code candidates} that are also contained in this list.
+     *
+     * @return the number of entries kept; they are compacted to the front of {@code candidates}
+     */
+    public int retainIn(int[] candidates, int length) {
+        int kept = 0;
+        int i = 0;
+        int j = 0;
+        while (i < length && j < size) {
+            int candidate = candidates[i];
+            int doc = docs[j];
+            if (candidate == doc) {
+                candidates[kept++] = candidate;
+                i++;
+                j++;
+            } else if (candidate < doc) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return kept;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > docs.length) {
+            docs = Arrays.copyOf(docs, Math.max(capacity, docs.length + (docs.length >> 1)));
+        }
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.sm.patientservice.search;
+
+import java.util.Locale;
+
+/**
+ * Lower-cased name search terms. "john doe" matches first names containing "john" or last names containing "doe";
+ * a single term is matched against both names.
+ */
+public record NameQuery(String firstName, String lastName) {
+
+    public static NameQuery parse(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        String[] parts = name.trim().toLowerCase(Locale.ROOT).split(" ");
+        String firstName = parts[0];
+        String lastName = parts.length > 1 ? parts[1] : parts[0];
+        return new NameQuery(firstName, lastName);
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.sm.patientservice.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sm.patientservice.model.Patient;
+import com.sm.patientservice.pagination.PatientCursor;
+import com.sm.patientservice.repository.PatientListView;
+import com.sm.patientservice.repository.PatientNameView;
+import com.sm.patientservice.repository.PatientRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Answers name searches from a {@link TrigramIndex} and only goes to the database to load the patients of the
+ * requested page by primary key, as {@link PatientListView} rows. The index is loaded once the application is ready; until then searches fall back
+ * to {@link DatabasePatientSearchBackend}.
+ */
+@Component
+@ConditionalOnProperty(name = "patient.search.backend", havingValue = "ngram", matchIfMissing = true)
+@Slf4j
+public class NgramPatientSearchBackend implements PatientSearchBackend {
+
+    private final PatientRepository patientRepository;
+    private final DatabasePatientSearchBackend databaseFallback;
+    private final TrigramIndex index = new TrigramIndex();
+    private volatile boolean ready;
+
+    public NgramPatientSearchBackend(PatientRepository patientRepository) {
+        this.patientRepository = patientRepository;
+        this.databaseFallback = new DatabasePatientSearchBackend(patientRepository);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildIndex() {
+        long started = System.nanoTime();
+        index.beginLoad();
+        try (Stream<PatientNameView> names = patientRepository.streamAllBy()) {
+            names.forEach(name -> index.load(name.getId(), name.getFirstName(), name.getLastName()));
+        } finally {
+            index.endLoad();
+        }
+        ready = true;
+        log.info("Patient name index built with {} patients in {} ms",
+            index.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Override
+    public List<PatientListView> findPage(NameQuery query, int page, int size) {
+        if (!ready) {
+            return databaseFallback.findPage(query, page, size);
+        }
+        int offset = (int) Math.min((long) page * size, Integer.MAX_VALUE);
+        return loadPage(query, null, offset, size);
+    }
+
+    @Override
+    public List<PatientListView> findPageAfter(NameQuery query, PatientCursor cursor, int limit) {
+        if (!ready) {
+            return databaseFallback.findPageAfter(query, cursor, limit);
+        }
+        return loadPage(query, cursor, 0, limit);
+    }
+
+    @Override
+    public long count(NameQuery query) {
+        if (!ready) {
+            return databaseFallback.count(query);
+        }
+        return index.count(query);
+    }
+
+    @Override
+    public OptionalLong countWithoutScan(NameQuery query) {
+        return ready ? OptionalLong.of(index.count(query)) : OptionalLong.empty();
+    }
+
+    @Override
+    public void indexPatient(Patient patient) {
+        index.put(patient.getId(), patient.getFirstName(), patient.getLastName());
+    }
+
+    @Override
+    public void removePatient(UUID id) {
+        index.remove(id);
+    }
+
+    /**
+     * Loads up to {@code limit} matches, reading further into the index for every indexed patient that is no longer
+     * in the database (deleted on another replica whose event has not arrived yet), so a page is only short when the
+     * matches run out.
+     */
+    private List<PatientListView> loadPage(NameQuery query, PatientCursor cursor, int offset, int limit) {
+        List<PatientListView> page = new ArrayList<>(limit);
+        int skip = offset;
+        while (page.size() < limit) {
+            int wanted = limit - page.size();
+            List<UUID> ids = index.page(query, cursor, skip, wanted);
+            page.addAll(load(ids));
+            if (ids.size() < wanted) {
+                break;
+            }
+            skip += ids.size();
+        }
+        return page;
+    }
+
+    private List<PatientListView> load(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, PatientListView> patients = patientRepository.findListViewsByIdIn(ids).stream()
+            .collect(Collectors.toMap(PatientListView::id, Function.identity()));
+        return ids.stream()
+            .map(patients::get)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.sm.patientservice.search;
+
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import com.sm.patientservice.model.Patient;
+import com.sm.patientservice.pagination.PatientCursor;
+import com.sm.patientservice.repository.PatientListView;
+
+/**
+ * Resolves name searches for {@code GET /patients?name=}. Results are ordered by (last name, first name, id)
+ * so they can be paged by offset or by {@link PatientCursor}. Pages are returned as read-only {@link PatientListView}
+ * rows rather than managed entities.
+ *
+ * The backend is selected with {@code patient.search.backend} ({@code ngram} or {@code database}).
+ */
+public interface PatientSearchBackend {
+
+    List<PatientListView> findPage(NameQuery query, int page, int size);
+
+    List<PatientListView> findPageAfter(NameQuery query, PatientCursor cursor, int limit);
+
+    long count(NameQuery query);
+
+    /**
+     * Returns the number of matches if it can be answered without scanning the patient table, otherwise empty.
+     */
+    default OptionalLong countWithoutScan(NameQuery query) {
+        return OptionalLong.empty();
+    }
+
+    /**
+     * Called after a patient has been created or updated.
+     */
+    void indexPatient(Patient patient);
+
+    /**
+     * Called after a patient has been deleted.
+     */
+    void removePatient(UUID id);
+
+}
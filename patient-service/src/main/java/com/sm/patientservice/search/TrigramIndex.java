@@ -0,0 +1,416 @@
+package com.sm.patientservice.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.sm.patientservice.pagination.PatientCursor;
+
+/**
+ * In-memory inverted index of first and last name trigrams.
+ *
+ * Every patient gets a dense int document id; each trigram maps to an {@link IntPostingList} of the documents
+ * containing it. A substring query intersects the posting lists of its trigrams and then verifies the candidates,
+ * so only terms shorter than a trigram fall back to scanning the stored names. Ids of removed patients are reused
+ * by the next added patient, so the id space stays as large as the peak number of indexed patients.
+ *
+ * Pages are ordered like the keyset queries of {@link DatabasePatientSearchBackend} so a cursor issued by either
+ * backend stays valid on the other: names by code point, which is the {@code C} collation those queries compare
+ * names with (see {@code CollateCFunctionContributor}), and ids as unsigned bytes, which is Postgres' and H2's uuid
+ * order.
+ */
+public final class TrigramIndex {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int[] NO_DOCS = new int[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IntPostingList> firstNameGrams = new HashMap<>();
+    private final Map<Long, IntPostingList> lastNameGrams = new HashMap<>();
+    private final Map<UUID, Integer> docIds = new HashMap<>();
+    // Ids removed while the index is being loaded, so a stale row read by the loader is not resurrected
+    private final Set<UUID> removedWhileLoading = new HashSet<>();
+
+    private UUID[] patientIds = new UUID[INITIAL_CAPACITY];
+    private String[] firstNames = new String[INITIAL_CAPACITY];
+    private String[] lastNames = new String[INITIAL_CAPACITY];
+    private String[] firstNamesLower = new String[INITIAL_CAPACITY];
+    private String[] lastNamesLower = new String[INITIAL_CAPACITY];
+    private int[] freeDocIds = new int[INITIAL_CAPACITY];
+    private int freeDocCount;
+    private int nextDocId;
+    private boolean loading;
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            loading = true;
+            removedWhileLoading.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void endLoad() {
+        lock.writeLock().lock();
+        try {
+            loading = false;
+            removedWhileLoading.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a row read by the bulk loader. Rows already written through {@link #put} or removed through
+     * {@link #remove} since {@link #beginLoad()} are newer than the loader's snapshot and win.
+     */
+    public void load(UUID id, String firstName, String lastName) {
+        lock.writeLock().lock();
+        try {
+            if (docIds.containsKey(id) || removedWhileLoading.contains(id)) {
+                return;
+            }
+            addDocument(id, firstName, lastName);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(UUID id, String firstName, String lastName) {
+        lock.writeLock().lock();
+        try {
+            removedWhileLoading.remove(id);
+            Integer existing = docIds.get(id);
+            if (existing == null) {
+                addDocument(id, firstName, lastName);
+                return;
+            }
+            int doc = existing;
+            if (firstNames[doc].equals(firstName) && lastNames[doc].equals(lastName)) {
+                return;
+            }
+            unindex(doc);
+            storeNames(doc, firstName, lastName);
+            index(doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                removedWhileLoading.add(id);
+            }
+            Integer doc = docIds.remove(id);
+            if (doc == null) {
+                return;
+            }
+            unindex(doc);
+            patientIds[doc] = null;
+            storeNames(doc, null, null);
+            if (freeDocCount == freeDocIds.length) {
+                freeDocIds = Arrays.copyOf(freeDocIds, freeDocCount * 2);
+            }
+            freeDocIds[freeDocCount++] = doc;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int count(NameQuery query) {
+        lock.readLock().lock();
+        try {
+            return match(query).length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of matching patients ordered by (last name, first name, id).
+     *
+     * @param after  only return patients ordered after this cursor, or {@code null}
+     * @param offset number of matches to skip
+     * @param limit  maximum number of ids to return
+     */
+    public List<UUID> page(NameQuery query, PatientCursor after, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            int[] matches = match(query);
+            int length = matches.length;
+            if (after != null) {
+                int kept = 0;
+                for (int i = 0; i < length; i++) {
+                    if (compareToCursor(matches[i], after) > 0) {
+                        matches[kept++] = matches[i];
+                    }
+                }
+                length = kept;
+            }
+            int wanted = (int) Math.min((long) offset + limit, length);
+            int[] ordered = smallest(matches, length, wanted);
+            List<UUID> ids = new ArrayList<>(Math.max(0, wanted - offset));
+            for (int i = offset; i < wanted; i++) {
+                ids.add(patientIds[ordered[i]]);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addDocument(UUID id, String firstName, String lastName) {
+        int doc;
+        if (freeDocCount > 0) {
+            doc = freeDocIds[--freeDocCount];
+        } else {
+            doc = nextDocId++;
+            ensureCapacity(nextDocId);
+        }
+        docIds.put(id, doc);
+        patientIds[doc] = id;
+        storeNames(doc, firstName, lastName);
+        index(doc);
+    }
+
+    private void storeNames(int doc, String firstName, String lastName) {
+        firstNames[doc] = firstName;
+        lastNames[doc] = lastName;
+        firstNamesLower[doc] = firstName == null ? null : firstName.toLowerCase(Locale.ROOT);
+        lastNamesLower[doc] = lastName == null ? null : lastName.toLowerCase(Locale.ROOT);
+    }
+
+    private void index(int doc) {
+        for (long gram : grams(firstNamesLower[doc])) {
+            firstNameGrams.computeIfAbsent(gram, key -> new IntPostingList()).add(doc);
+        }
+        for (long gram : grams(lastNamesLower[doc])) {
+            lastNameGrams.computeIfAbsent(gram, key -> new IntPostingList()).add(doc);
+        }
+    }
+
+    private void unindex(int doc) {
+        unindex(firstNameGrams, firstNamesLower[doc], doc);
+        unindex(lastNameGrams, lastNamesLower[doc], doc);
+    }
+
+    private static void unindex(Map<Long, IntPostingList> postings, String name, int doc) {
+        for (long gram : grams(name)) {
+            IntPostingList list = postings.get(gram);
+            if (list != null) {
+                list.remove(doc);
+                if (list.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private int[] match(NameQuery query) {
+        int[] firstNameMatches = matchField(firstNameGrams, firstNamesLower, query.firstName());
+        int[] lastNameMatches = matchField(lastNameGrams, lastNamesLower, query.lastName());
+        return union(firstNameMatches, lastNameMatches);
+    }
+
+    private int[] matchField(Map<Long, IntPostingList> postings, String[] lowerNames, String term) {
+        if (term.length() < GRAM_LENGTH) {
+            int[] candidates = new int[docIds.size()];
+            int found = 0;
+            for (int doc = 0; doc < nextDocId; doc++) {
+                if (lowerNames[doc] != null && lowerNames[doc].contains(term)) {
+                    candidates[found++] = doc;
+                }
+            }
+            return Arrays.copyOf(candidates, found);
+        }
+
+        long[] grams = grams(term);
+        IntPostingList[] lists = new IntPostingList[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = postings.get(grams[i]);
+            if (lists[i] == null) {
+                return NO_DOCS;
+            }
+        }
+        // Intersect starting from the rarest trigram to keep the candidate set small
+        Arrays.sort(lists, Comparator.comparingInt(IntPostingList::size));
+        int[] candidates = lists[0].toArray();
+        int length = candidates.length;
+        for (int i = 1; i < lists.length && length > 0; i++) {
+            length = lists[i].retainIn(candidates, length);
+        }
+        // Sharing all trigrams does not guarantee the term occurs contiguously, so verify
+        int kept = 0;
+        for (int i = 0; i < length; i++) {
+            int doc = candidates[i];
+            if (lowerNames[doc].contains(term)) {
+                candidates[kept++] = doc;
+            }
+        }
+        return Arrays.copyOf(candidates, kept);
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        int[] merged = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                merged[n++] = a[i++];
+                j++;
+            } else if (a[i] < b[j]) {
+                merged[n++] = a[i++];
+            } else {
+                merged[n++] = b[j++];
+            }
+        }
+        while (i < a.length) {
+            merged[n++] = a[i++];
+        }
+        while (j < b.length) {
+            merged[n++] = b[j++];
+        }
+        return n == merged.length ? merged : Arrays.copyOf(merged, n);
+    }
+
+    static long[] grams(String value) {
+        if (value == null || value.length() < GRAM_LENGTH) {
+            return new long[0];
+        }
+        long[] grams = new long[value.length() - GRAM_LENGTH + 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) value.charAt(i) << 32) | ((long) value.charAt(i + 1) << 16) | value.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return distinct == grams.length ? grams : Arrays.copyOf(grams, distinct);
+    }
+
+    /**
+     * Partial heap sort: returns the {@code k} smallest of the first {@code length} docs, in ascending order.
+     */
+    private int[] smallest(int[] docs, int length, int k) {
+        if (k <= 0) {
+            return NO_DOCS;
+        }
+        int[] heap = Arrays.copyOf(docs, k);
+        for (int i = k / 2 - 1; i >= 0; i--) {
+            siftDown(heap, i, k);
+        }
+        for (int i = k; i < length; i++) {
+            if (compare(docs[i], heap[0]) < 0) {
+                heap[0] = docs[i];
+                siftDown(heap, 0, k);
+            }
+        }
+        for (int end = k - 1; end > 0; end--) {
+            int top = heap[0];
+            heap[0] = heap[end];
+            heap[end] = top;
+            siftDown(heap, 0, end);
+        }
+        return heap;
+    }
+
+    private void siftDown(int[] heap, int index, int size) {
+        int doc = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && compare(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (compare(doc, heap[child]) >= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = doc;
+    }
+
+    private int compare(int a, int b) {
+        int result = compareNames(lastNames[a], lastNames[b]);
+        if (result == 0) {
+            result = compareNames(firstNames[a], firstNames[b]);
+        }
+        return result != 0 ? result : compareIds(patientIds[a], patientIds[b]);
+    }
+
+    private int compareToCursor(int doc, PatientCursor cursor) {
+        int result = compareNames(lastNames[doc], cursor.lastName());
+        if (result == 0) {
+            result = compareNames(firstNames[doc], cursor.firstName());
+        }
+        return result != 0 ? result : compareIds(patientIds[doc], cursor.id());
+    }
+
+    /**
+     * Code point order, i.e. the byte order of the UTF-8 encoding. Unlike {@link String#compareTo} it sorts
+     * supplementary characters after all other characters.
+     */
+    static int compareNames(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            char x = a.charAt(i);
+            char y = b.charAt(i);
+            if (x != y) {
+                if (Character.isSurrogate(x) || Character.isSurrogate(y)) {
+                    return Integer.compare(a.codePointAt(i), b.codePointAt(i));
+                }
+                return x - y;
+            }
+        }
+        return a.length() - b.length();
+    }
+
+    /**
+     * Unsigned byte order. {@link UUID#compareTo} compares the two halves as signed longs.
+     */
+    static int compareIds(UUID a, UUID b) {
+        int result = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return result != 0 ? result : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= patientIds.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, patientIds.length * 2);
+        patientIds = Arrays.copyOf(patientIds, newCapacity);
+        firstNames = Arrays.copyOf(firstNames, newCapacity);
+        lastNames = Arrays.copyOf(lastNames, newCapacity);
+        firstNamesLower = Arrays.copyOf(firstNamesLower, newCapacity);
+        lastNamesLower = Arrays.copyOf(lastNamesLower, newCapacity);
+    }
+
+}
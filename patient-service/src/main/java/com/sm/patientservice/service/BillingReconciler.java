@@ -0,0 +1,117 @@
+package com.sm.patientservice.service;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.sm.patientservice.cache.PatientCache;
+import com.sm.patientservice.config.BillingServiceConfig;
+import com.sm.patientservice.grpc.BillingServiceGrpcClient;
+import com.sm.patientservice.model.BillingStatus;
+import com.sm.patientservice.model.Patient;
+import com.sm.patientservice.repository.PatientRepository;
+
+import billing.BillingResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resolves the billing status of {@link BillingStatus#PENDING} patients. A new patient is committed as PENDING and
+ * handed to {@link #requestAccount} without waiting for billing-service; patients it could not resolve are retried
+ * by the scheduled run.
+ *
+ * Patients are retried oldest first; a run stops at the first unavailable call and is skipped entirely while the
+ * billing circuit breaker is open. billing-service may see the same patient more than once (a timed-out call can
+ * still have succeeded), so account creation there has to be idempotent per patient id. Outcomes are counted in
+ * {@code patient.billing.reconciled} tagged by resulting status.
+ */
+@Component
+@Slf4j
+public class BillingReconciler {
+
+    private final PatientRepository patientRepository;
+    private final BillingServiceGrpcClient billingServiceGrpcClient;
+    private final PatientCache patientCache;
+    private final BillingServiceConfig billingConfig;
+    private final MeterRegistry meterRegistry;
+
+    public BillingReconciler(PatientRepository patientRepository,
+                             BillingServiceGrpcClient billingServiceGrpcClient,
+                             PatientCache patientCache,
+                             BillingServiceConfig billingConfig,
+                             MeterRegistry meterRegistry) {
+        this.patientRepository = patientRepository;
+        this.billingServiceGrpcClient = billingServiceGrpcClient;
+        this.patientCache = patientCache;
+        this.billingConfig = billingConfig;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(fixedDelayString = "${patient.billing.reconcile-interval-ms:30000}")
+    public void reconcile() {
+        if (!billingServiceGrpcClient.isAvailable()) {
+            log.debug("Billing circuit breaker is open, skipping reconciliation");
+            return;
+        }
+        List<Patient> pending;
+        do {
+            pending = patientRepository.findByBillingStatusOrderByCreatedAtAsc(
+                BillingStatus.PENDING, Limit.of(billingConfig.getReconcileBatchSize()));
+            for (Patient patient : pending) {
+                if (!reconcile(patient)) {
+                    return;
+                }
+            }
+        } while (pending.size() == billingConfig.getReconcileBatchSize());
+    }
+
+    /**
+     * Asks billing-service for the account of a patient just committed as PENDING and records the outcome when the
+     * call completes, without blocking the caller. If billing-service is unavailable the patient stays PENDING for
+     * the next scheduled run.
+     */
+    public void requestAccount(Patient patient) {
+        billingServiceGrpcClient.createBillingAccount(patient).whenComplete((response, failure) -> {
+            if (failure != null) {
+                log.warn("Billing unavailable for patient: {}, billing will be retried: {}", patient.getId(), failure.getMessage());
+                return;
+            }
+            try {
+                record(patient, response);
+            } catch (RuntimeException e) {
+                log.warn("Could not record billing status of patient: {}, billing will be retried: {}", patient.getId(), e.getMessage());
+            }
+        });
+    }
+
+    /*
+     * Returns false when billing-service is unavailable and the run should stop.
+     */
+    private boolean reconcile(Patient patient) {
+        BillingResponse response;
+        try {
+            response = billingServiceGrpcClient.createBillingAccount(patient).join();
+        } catch (CompletionException e) {
+            log.warn("Billing still unavailable, reconciliation resumes on the next run: {}", e.getCause().getMessage());
+            return false;
+        }
+        record(patient, response);
+        return true;
+    }
+
+    private void record(Patient patient, BillingResponse response) {
+        BillingStatus status = response.getStatus().equals("SUCCESS") ? BillingStatus.ACTIVE : BillingStatus.FAILED;
+        if (status == BillingStatus.FAILED) {
+            log.error("Billing rejected account for pending patient: {}, status: {}", patient.getId(), response.getStatus());
+        }
+        // Other replicas drop their cached copy when the TTL expires
+        if (patientRepository.updateBillingStatus(patient.getId(), BillingStatus.PENDING, status) > 0) {
+            patientCache.invalidate(patient.getId());
+        }
+        meterRegistry.counter("patient.billing.reconciled", "status", status.name()).increment();
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.sm.patientservice.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sm.patientservice.cache.PatientCache;
+import com.sm.patientservice.cache.VersionedPatient;
+import com.sm.patientservice.config.PatientBatchGetConfig;
+import com.sm.patientservice.datasource.ReadWriteRoutingDataSource;
+import com.sm.patientservice.mapper.PatientMapper;
+import com.sm.patientservice.model.dto.Patient;
+import com.sm.patientservice.model.dto.PatientBatchGetResult;
+import com.sm.patientservice.repository.PatientListView;
+import com.sm.patientservice.repository.PatientRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resolves {@code POST /patients:batchGet}. Patients already in {@link PatientCache} are served from it; the rest
+ * are read as {@link PatientListView} projections with one {@code IN} query per chunk of ids and put into the cache,
+ * unless they were read from a replica that may lag behind the primary.
+ */
+@Service
+@Slf4j
+public class PatientBatchGetService {
+
+    private final PatientRepository patientRepository;
+    private final PatientCache patientCache;
+    private final int chunkSize;
+    private final Counter cacheHits;
+    private final Counter databaseHits;
+    private final Counter misses;
+
+    public PatientBatchGetService(PatientRepository patientRepository,
+                                  PatientCache patientCache,
+                                  PatientBatchGetConfig batchGetConfig,
+                                  MeterRegistry meterRegistry) {
+        this.patientRepository = patientRepository;
+        this.patientCache = patientCache;
+        this.chunkSize = Math.max(1, batchGetConfig.getChunkSize());
+        this.cacheHits = meterRegistry.counter("patient.batchget.ids", "source", "cache");
+        this.databaseHits = meterRegistry.counter("patient.batchget.ids", "source", "database");
+        this.misses = meterRegistry.counter("patient.batchget.ids", "source", "not_found");
+    }
+
+    /**
+     * Returns one result per distinct id, in the order the ids were first requested. Unknown ids get
+     * {@code found=false} and no patient.
+     */
+    @Transactional(readOnly = true)
+    public List<PatientBatchGetResult> getPatients(List<UUID> ids) {
+        Set<UUID> distinctIds = new LinkedHashSet<>(ids.size());
+        ids.stream().filter(Objects::nonNull).forEach(distinctIds::add);
+
+        Map<UUID, Patient> patients = new HashMap<>(distinctIds.size() * 2);
+        List<UUID> uncached = new ArrayList<>();
+        for (UUID id : distinctIds) {
+            VersionedPatient cached = patientCache.getIfPresent(id);
+            if (cached != null) {
+                patients.put(id, cached.patient());
+            } else {
+                uncached.add(id);
+            }
+        }
+        cacheHits.increment(patients.size());
+
+        int loaded = 0;
+        for (int from = 0; from < uncached.size(); from += chunkSize) {
+            List<UUID> chunk = uncached.subList(from, Math.min(from + chunkSize, uncached.size()));
+            List<PatientListView> views = patientRepository.findListViewsByIdIn(chunk);
+            boolean cacheable = !ReadWriteRoutingDataSource.isCurrentTransactionOnReplica();
+            for (PatientListView view : views) {
+                Patient patient = PatientMapper.toDto(view);
+                patients.put(view.id(), patient);
+                if (cacheable) {
+                    patientCache.put(view.id(), new VersionedPatient(patient, view.version() == null ? 0L : view.version()));
+                }
+                loaded++;
+            }
+        }
+        databaseHits.increment(loaded);
+        misses.increment(distinctIds.size() - patients.size());
+        log.debug("Batch get of {} ids: {} cached, {} loaded, {} not found",
+            distinctIds.size(), distinctIds.size() - uncached.size(), loaded, distinctIds.size() - patients.size());
+
+        List<PatientBatchGetResult> results = new ArrayList<>(distinctIds.size());
+        for (UUID id : distinctIds) {
+            Patient patient = patients.get(id);
+            results.add(new PatientBatchGetResult()
+                .id(id)
+                .found(patient != null)
+                .patient(patient));
+        }
+        return results;
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.sm.patientservice.service;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sm.patientservice.mapper.PatientMapper;
+import com.sm.patientservice.model.dto.Patient;
+import com.sm.patientservice.repository.PatientRepository;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exports the whole patient table without materializing it: rows come from a forward-only cursor, are mapped one
+ * at a time and detached right after, so memory stays constant regardless of table size.
+ */
+@Service
+@Slf4j
+public class PatientExportService {
+
+    private final PatientRepository patientRepository;
+    private final EntityManager entityManager;
+
+    public PatientExportService(PatientRepository patientRepository, EntityManager entityManager) {
+        this.patientRepository = patientRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Passes every patient, in id order, to the sink. The read-only transaction keeps the cursor open until the
+     * sink has seen the last row.
+     *
+     * @return number of exported patients
+     */
+    @Transactional(readOnly = true)
+    public long exportPatients(Consumer<Patient> sink) {
+        long count = 0;
+        try (Stream<com.sm.patientservice.model.Patient> patients = patientRepository.streamAllByOrderByIdAsc()) {
+            var iterator = patients.iterator();
+            while (iterator.hasNext()) {
+                var patient = iterator.next();
+                sink.accept(PatientMapper.toDto(patient));
+                entityManager.detach(patient);
+                count++;
+            }
+        }
+        log.info("Exported {} patients", count);
+        return count;
+    }
+
+}
@@ -0,0 +1,262 @@
+package com.sm.patientservice.service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static java.util.stream.Collectors.joining;
+
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sm.patientservice.bulk.ImportRowResult;
+import com.sm.patientservice.bulk.ImportSummary;
+import com.sm.patientservice.bulk.PatientRow;
+import com.sm.patientservice.bulk.PatientRowReader;
+import com.sm.patientservice.config.PatientImportConfig;
+import com.sm.patientservice.email.EmailUniquenessGuard;
+import com.sm.patientservice.mapper.PatientEventMapper;
+import com.sm.patientservice.mapper.PatientMapper;
+import com.sm.patientservice.model.BillingStatus;
+import com.sm.patientservice.model.Patient;
+import com.sm.patientservice.model.dto.PatientCreateRequest;
+import com.sm.patientservice.outbox.PatientEventOutbox;
+import com.sm.patientservice.repository.PatientRepository;
+import com.sm.patientservice.search.PatientSearchBackend;
+import com.sm.patientservice.utils.AppClock;
+import com.sm.patientservice.utils.TransactionUtils;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import patient.events.EventType;
+
+/**
+ * Imports patients in batches instead of one request per patient.
+ *
+ * Each batch is validated, its emails are reserved and checked (Bloom filter, then a single query for the rest), and
+ * it is inserted in one transaction, so Hibernate can send the patient and outbox inserts as JDBC batches; the relay
+ * then publishes the CREATED events in batches as well. Billing accounts are not created inline: imported patients start {@link BillingStatus#PENDING}
+ * and {@link BillingReconciler} creates their accounts in the background. If a batch insert fails, for example
+ * because a concurrent request took one of the emails, its rows are retried one by one so only the offending rows
+ * are rejected.
+ */
+@Service
+@Slf4j
+public class PatientImportService {
+
+    private final PatientRepository patientRepository;
+    private final PatientEventOutbox patientEventOutbox;
+    private final PatientSearchBackend patientSearchBackend;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final PatientImportConfig importConfig;
+    private final EmailUniquenessGuard emailUniquenessGuard;
+    private final AppClock appClock;
+
+    public PatientImportService(PatientRepository patientRepository,
+                                PatientEventOutbox patientEventOutbox,
+                                PatientSearchBackend patientSearchBackend,
+                                TransactionTemplate transactionTemplate,
+                                EntityManager entityManager,
+                                Validator validator,
+                                PatientImportConfig importConfig,
+                                EmailUniquenessGuard emailUniquenessGuard,
+                                AppClock appClock) {
+        this.patientRepository = patientRepository;
+        this.patientEventOutbox = patientEventOutbox;
+        this.patientSearchBackend = patientSearchBackend;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.importConfig = importConfig;
+        this.emailUniquenessGuard = emailUniquenessGuard;
+        this.appClock = appClock;
+    }
+
+    /**
+     * Imports every record of the reader.
+     *
+     * @param reader source of records, consumed incrementally
+     * @param report receives one result per record in input order, batch by batch
+     * @return the totals of the import
+     */
+    public ImportSummary importPatients(PatientRowReader reader, Consumer<ImportRowResult> report) throws IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        long created = 0;
+        List<PatientRow> batch = new ArrayList<>(importConfig.getBatchSize());
+        PatientRow row;
+        while ((row = reader.next()) != null) {
+            batch.add(row);
+            if (batch.size() == importConfig.getBatchSize()) {
+                created += importBatch(batch, report);
+                rows += batch.size();
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            created += importBatch(batch, report);
+            rows += batch.size();
+        }
+
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Imported {} of {} patients in {} ms", created, rows, durationMillis);
+        return new ImportSummary(rows, created, rows - created, durationMillis);
+    }
+
+    private int importBatch(List<PatientRow> batch, Consumer<ImportRowResult> report) {
+        ImportRowResult[] results = new ImportRowResult[batch.size()];
+
+        // Lower-cased email -> position in the batch, for rows that passed validation
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            PatientRow row = batch.get(i);
+            String error = row.error() != null ? row.error() : validate(row.request());
+            if (error != null) {
+                results[i] = ImportRowResult.rejected(row.row(), error);
+                continue;
+            }
+            String email = row.request().getEmail().toLowerCase(Locale.ROOT);
+            if (candidates.putIfAbsent(email, i) != null) {
+                results[i] = ImportRowResult.rejected(row.row(), "Patient with email " + row.request().getEmail() + " appears more than once in this import.");
+            }
+        }
+
+        Object owner = new Object();
+        List<String> reserved = new ArrayList<>(candidates.size());
+        int created;
+        try {
+            created = insertBatch(batch, candidates, results, owner, reserved);
+        } finally {
+            reserved.forEach(email -> emailUniquenessGuard.release(email, owner));
+        }
+
+        for (ImportRowResult result : results) {
+            report.accept(result);
+        }
+        return created;
+    }
+
+    private int insertBatch(List<PatientRow> batch, Map<String, Integer> candidates, ImportRowResult[] results,
+                            Object owner, List<String> reserved) {
+        Set<String> toCheck = new LinkedHashSet<>();
+        for (var iterator = candidates.entrySet().iterator(); iterator.hasNext(); ) {
+            var candidate = iterator.next();
+            if (!emailUniquenessGuard.tryReserve(candidate.getKey(), owner)) {
+                int i = candidate.getValue();
+                results[i] = ImportRowResult.rejected(batch.get(i).row(), "Patient with email " + batch.get(i).request().getEmail() + " already exists.");
+                iterator.remove();
+                continue;
+            }
+            reserved.add(candidate.getKey());
+            if (emailUniquenessGuard.mightBeTaken(candidate.getKey())) {
+                toCheck.add(candidate.getKey());
+            }
+        }
+
+        if (!toCheck.isEmpty()) {
+            for (String existing : patientRepository.findExistingEmailsIgnoreCase(toCheck)) {
+                int i = candidates.remove(existing);
+                results[i] = ImportRowResult.rejected(batch.get(i).row(), "Patient with email " + batch.get(i).request().getEmail() + " already exists.");
+            }
+        }
+
+        int created = 0;
+        if (!candidates.isEmpty()) {
+            List<Integer> positions = new ArrayList<>(candidates.values());
+            LocalDateTime now = appClock.now();
+            List<Patient> patients = positions.stream().map(i -> toEntity(batch.get(i).request(), now)).toList();
+            if (insert(patients)) {
+                for (int k = 0; k < positions.size(); k++) {
+                    int i = positions.get(k);
+                    results[i] = ImportRowResult.created(batch.get(i).row(), patients.get(k).getId());
+                }
+                created = patients.size();
+            } else {
+                for (int k = 0; k < positions.size(); k++) {
+                    int i = positions.get(k);
+                    results[i] = insertOne(batch.get(i), patients.get(k));
+                    if (results[i].status() == ImportRowResult.Status.CREATED) {
+                        created++;
+                    }
+                }
+            }
+        }
+        return created;
+    }
+
+    private String validate(PatientCreateRequest request) {
+        Set<ConstraintViolation<PatientCreateRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .sorted(Comparator.naturalOrder())
+            .collect(joining("; "));
+    }
+
+    private static Patient toEntity(PatientCreateRequest request, LocalDateTime now) {
+        Patient patient = PatientMapper.toEntity(request, now);
+        patient.setBillingStatus(BillingStatus.PENDING);
+        return patient;
+    }
+
+    private boolean insert(List<Patient> patients) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(patients));
+            return true;
+        } catch (DataAccessException | PersistenceException e) {
+            log.warn("Batch insert of {} patients failed, retrying one by one: {}", patients.size(),
+                NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            // Ids and versions assigned by the rolled back persist would make the retry look like an update
+            patients.forEach(patient -> {
+                patient.setId(null);
+                patient.setVersion(null);
+            });
+            return false;
+        }
+    }
+
+    private ImportRowResult insertOne(PatientRow row, Patient patient) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(List.of(patient)));
+            return ImportRowResult.created(row.row(), patient.getId());
+        } catch (DataAccessException | PersistenceException e) {
+            if (patientRepository.existsByEmailIgnoreCase(patient.getEmail())) {
+                return ImportRowResult.rejected(row.row(), "Patient with email " + patient.getEmail() + " already exists.");
+            }
+            return ImportRowResult.rejected(row.row(), "Patient could not be stored: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+    }
+
+    private void persist(List<Patient> patients) {
+        for (Patient patient : patients) {
+            entityManager.persist(patient);
+            patientEventOutbox.append(patient.getId(), PatientEventMapper.createPatientEvent(patient, EventType.CREATED));
+        }
+        // Flush and detach per batch so the persistence context does not grow with the import
+        entityManager.flush();
+        entityManager.clear();
+        TransactionUtils.afterCommit(() -> patients.forEach(patient -> {
+            patientSearchBackend.indexPatient(patient);
+            emailUniquenessGuard.add(patient.getEmail());
+        }));
+    }
+
+}
@@ -2,105 +2,226 @@ package com.sm.patientservice.service;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.OptionalLong;
 import java.util.UUID;
 
 import static java.util.stream.Collectors.*;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.sm.patientservice.cache.PatientCache;
+import com.sm.patientservice.cache.VersionedPatient;
 import com.sm.patientservice.constant.ResponseConstant;
-import com.sm.patientservice.exception.BillingException;
+import com.sm.patientservice.email.EmailUniquenessGuard;
+import com.sm.patientservice.etag.PatientETag;
 import com.sm.patientservice.exception.EmailAlreadyExistException;
 import com.sm.patientservice.exception.PatientNotExistException;
-import com.sm.patientservice.grpc.BillingServiceGrpcClient;
-import com.sm.patientservice.kafka.KafkaProducer;
+import com.sm.patientservice.exception.PreconditionFailedException;
 import com.sm.patientservice.mapper.AddressMapper;
 import com.sm.patientservice.mapper.InsuranceMapper;
+import com.sm.patientservice.mapper.PatientEventMapper;
 import com.sm.patientservice.mapper.PatientMapper;
+import com.sm.patientservice.model.BillingStatus;
 import com.sm.patientservice.model.dto.PaginatedPatientListResponseMeta;
 import com.sm.patientservice.model.dto.Patient;
 import com.sm.patientservice.model.dto.PatientCreateRequest;
+import com.sm.patientservice.outbox.PatientEventOutbox;
+import com.sm.patientservice.pagination.PatientCursor;
+import com.sm.patientservice.pagination.TotalMode;
+import com.sm.patientservice.repository.PatientCountEstimator;
+import com.sm.patientservice.repository.PatientListView;
 import com.sm.patientservice.repository.PatientRepository;
-import com.sm.patientservice.utils.AppUtils;
+import com.sm.patientservice.search.NameQuery;
+import com.sm.patientservice.search.PatientSearchBackend;
+import com.sm.patientservice.utils.AppClock;
+import com.sm.patientservice.utils.TransactionUtils;
 
 import lombok.extern.slf4j.Slf4j;
 import patient.events.EventType;
-import patient.events.PatientEvent;
 
 @Service
 @Slf4j
 public class PatientService {
 
     private final PatientRepository patientRepository;
-    private final BillingServiceGrpcClient billingServiceGrpcClient;
-    private final KafkaProducer kafkaProducer;
+    private final BillingReconciler billingReconciler;
+    private final PatientEventOutbox patientEventOutbox;
+    private final PatientCountEstimator patientCountEstimator;
+    private final PatientSearchBackend patientSearchBackend;
+    private final PatientCache patientCache;
+    private final EmailUniquenessGuard emailUniquenessGuard;
+    private final AppClock appClock;
     
     public PatientService(PatientRepository patientRepository, 
-                          BillingServiceGrpcClient billingServiceGrpcClient,
-                          KafkaProducer kafkaProducer) {
+                          BillingReconciler billingReconciler,
+                          PatientEventOutbox patientEventOutbox,
+                          PatientCountEstimator patientCountEstimator,
+                          PatientSearchBackend patientSearchBackend,
+                          PatientCache patientCache,
+                          EmailUniquenessGuard emailUniquenessGuard,
+                          AppClock appClock) {
         this.patientRepository = patientRepository;
-        this.billingServiceGrpcClient = billingServiceGrpcClient;
-        this.kafkaProducer = kafkaProducer;
+        this.billingReconciler = billingReconciler;
+        this.patientEventOutbox = patientEventOutbox;
+        this.patientCountEstimator = patientCountEstimator;
+        this.patientSearchBackend = patientSearchBackend;
+        this.patientCache = patientCache;
+        this.emailUniquenessGuard = emailUniquenessGuard;
+        this.appClock = appClock;
     }
 
     public static class PatientPage {
         public final List<Patient> patients;
         public final PaginatedPatientListResponseMeta meta;
+        /** Strong ETag of the page, see {@link PatientETag#ofPage}. {@code null} if not computed. */
+        public final String etag;
         public PatientPage(List<Patient> patients, PaginatedPatientListResponseMeta meta) {
+            this(patients, meta, null);
+        }
+        public PatientPage(List<Patient> patients, PaginatedPatientListResponseMeta meta, String etag) {
             this.patients = patients;
             this.meta = meta;
+            this.etag = etag;
         }
     }
     
+    /**
+     * Creates the patient with billing status PENDING. The billing account is requested once the transaction has
+     * committed, so no connection or row lock is held while billing-service answers; {@link BillingReconciler}
+     * records the outcome.
+     */
     @Transactional
     public Patient createPatient(@NonNull PatientCreateRequest newPatientRequest) {
-        if (patientRepository.existsByEmailIgnoreCase(newPatientRequest.getEmail())) {
-            throw new EmailAlreadyExistException("Patient with email " + newPatientRequest.getEmail() + " already exists.");
+        String email = newPatientRequest.getEmail();
+        emailUniquenessGuard.reserveForTransaction(email, TransactionUtils.currentTransactionKey());
+        if (emailUniquenessGuard.mightBeTaken(email) && patientRepository.existsByEmailIgnoreCase(email)) {
+            throw new EmailAlreadyExistException("Patient with email " + email + " already exists.");
         }
         
-        var newPatient = patientRepository.save(PatientMapper.toEntity(newPatientRequest));
-        var billingResponse = billingServiceGrpcClient.createBillingAccount(newPatient);
-
-        if (!billingResponse.getStatus().equals("SUCCESS")) {
-            log.error("Failed to create billing account for patient: {}", newPatient.getId());
-            throw new BillingException("Failed to create billing account for patient: " + newPatient.getId());
-        }
+        var newPatient = PatientMapper.toEntity(newPatientRequest, appClock.now());
+        newPatient.setBillingStatus(BillingStatus.PENDING);
+        newPatient = saveAndFlush(newPatient);
 
-        // Sent Kafka event after successful patient creation and billing account creation
-        var event = createPatientEvent(newPatient, EventType.CREATED);
-        kafkaProducer.sendEvent(newPatient.getId().toString(), event.toByteArray());
+        // Queue the Kafka event in the same transaction; OutboxRelay publishes it once committed
+        var event = PatientEventMapper.createPatientEvent(newPatient, EventType.CREATED);
+        patientEventOutbox.append(newPatient.getId(), event);
 
+        var createdPatient = newPatient;
+        TransactionUtils.afterCommit(() -> {
+            patientSearchBackend.indexPatient(createdPatient);
+            billingReconciler.requestAccount(createdPatient);
+        });
         return PatientMapper.toDto(newPatient);
     }
 
+    /*
+     * Flushes right away so a concurrent write of the same email on another replica, caught only by the unique
+     * index, surfaces as EmailAlreadyExistException rather than a failed commit.
+     */
+    private com.sm.patientservice.model.Patient saveAndFlush(com.sm.patientservice.model.Patient patient) {
+        try {
+            return patientRepository.saveAndFlush(patient);
+        } catch (DataIntegrityViolationException e) {
+            if (EmailUniquenessGuard.isEmailConstraintViolation(e)) {
+                throw new EmailAlreadyExistException("Patient with email " + patient.getEmail() + " already exists.");
+            }
+            throw e;
+        }
+    }
+
     public Patient getPatientById(UUID id) {
-        return patientRepository.findById(id)
-                .map(PatientMapper::toDto)
+        return getVersionedPatient(id).patient();
+    }
+
+    public VersionedPatient getVersionedPatient(UUID id) {
+        VersionedPatient patient = patientCache.get(id, key -> patientRepository.findById(key)
+                .map(entity -> new VersionedPatient(PatientMapper.toDto(entity), versionOf(entity)))
+                .orElse(null));
+        if (patient == null) {
+            throw new PatientNotExistException("Patient with ID " + id + " does not exist.");
+        }
+        return patient;
+    }
+
+    /**
+     * Returns the current version of a patient so a conditional GET can be answered without loading or mapping it:
+     * from the cache when the patient is cached, otherwise with a query that reads only the version column.
+     */
+    public long getPatientVersion(UUID id) {
+        VersionedPatient cached = patientCache.getIfPresent(id);
+        if (cached != null) {
+            return cached.version();
+        }
+        return patientRepository.findVersionById(id)
                 .orElseThrow(() -> new PatientNotExistException("Patient with ID " + id + " does not exist."));
     }
 
-    private List<Patient> searchPatients(String name, int page, int size) {
-        if (name != null && !name.isBlank()) {
-            log.info("Searching patients by name: {}", name);
-            String[] parts = name.trim().toLowerCase().split(" ");
-            String firstName = parts[0];
-            String lastName = parts.length > 1 ? parts[1] : parts[0];
-            return patientRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(
-                    firstName, lastName, PageRequest.of(page, size))
-                    .stream()
-                    .map(PatientMapper::toDto)
-                    .collect(collectingAndThen(toList(), Collections::unmodifiableList));
-        } else {
-            return patientRepository.findAll(PageRequest.of(page, size)).stream()
-                    .map(PatientMapper::toDto)
-                    .collect(collectingAndThen(toList(), Collections::unmodifiableList));
+    private static long versionOf(com.sm.patientservice.model.Patient patient) {
+        return patient.getVersion() == null ? 0L : patient.getVersion();
+    }
+
+    private List<PatientListView> searchPatients(NameQuery nameQuery, int page, int size) {
+        if (nameQuery != null) {
+            log.info("Searching patients by name: {}", nameQuery);
+            return patientSearchBackend.findPage(nameQuery, page, size);
+        }
+        return patientRepository.findListViews(PageRequest.of(page, size));
+    }
+
+    private List<PatientListView> seekPatients(NameQuery nameQuery, PatientCursor cursor, int limit) {
+        if (nameQuery != null) {
+            return patientSearchBackend.findPageAfter(nameQuery, cursor, limit);
+        }
+        return patientRepository.findListViewsAfter(cursor.lastName(), cursor.firstName(), cursor.id(), Limit.of(limit));
+    }
+
+    private record PatientTotal(long count, boolean estimated) {}
+
+    /**
+     * Returns {@code null} when the total is not worth computing: an estimated total of a name search that the
+     * search backend can only count with a scan.
+     */
+    private PatientTotal countPatients(NameQuery nameQuery, TotalMode totalMode) {
+        if (nameQuery != null) {
+            if (totalMode == TotalMode.EXACT) {
+                return new PatientTotal(patientSearchBackend.count(nameQuery), false);
+            }
+            OptionalLong count = patientSearchBackend.countWithoutScan(nameQuery);
+            return count.isPresent() ? new PatientTotal(count.getAsLong(), false) : null;
+        }
+        if (totalMode == TotalMode.ESTIMATED) {
+            OptionalLong estimate = patientCountEstimator.estimate();
+            if (estimate.isPresent()) {
+                return new PatientTotal(estimate.getAsLong(), true);
+            }
         }
+        return new PatientTotal(patientRepository.count(), false);
     }
 
     public PatientPage getPatients(String name, Integer page, Integer size) {
+        return getPatients(name, page, size, null, null);
+    }
+
+    /**
+     * Returns a page of patients ordered by last name, first name and id.
+     * Without a cursor the page is resolved by offset; with a cursor (taken from meta.nextCursor of the previous page)
+     * the rows are fetched with a keyset seek, so the cost does not grow with the depth of the page.
+     * Rows are read as {@link PatientListView} projections, so listing never hydrates or dirty-checks entities.
+     *
+     * @param name  optional name filter ("first last" or a single term matched against both names)
+     * @param page  zero-based page number, ignored when {@code after} is present
+     * @param size  page size, rounded up to a multiple of 10 and capped at 100
+     * @param after opaque cursor of the last row of the previous page
+     * @param total total count mode, see {@link TotalMode}
+     * @return the patients of the page together with the pagination metadata
+     */
+    @Transactional(readOnly = true)
+    public PatientPage getPatients(String name, Integer page, Integer size, String after, String total) {
         int p = page == null ? ResponseConstant.DEFAULT_PAGE_NUMBER : page;
         int s = size == null ? ResponseConstant.DEFAULT_PAGE_SIZE : size;
         if (p < 0 || s <= 0){
@@ -109,33 +230,104 @@ public class PatientService {
         s = s % 10 == 0 ? s : s + (10 - (s % 10));
         if (s > 100) s = 100;
 
-        List<Patient> patients = searchPatients(name, p, s);
-        int totalPatients = patients.size();
-        int totalPages = (int) Math.ceil((double) totalPatients / s);
-        if (p >= totalPages) {
-            return new PatientPage(List.of(), new PaginatedPatientListResponseMeta().totalPages(0).totalItems(0));
+        TotalMode totalMode = TotalMode.from(total);
+        NameQuery nameQuery = NameQuery.parse(name);
+        boolean keyset = after != null && !after.isBlank();
+
+        List<PatientListView> rows;
+        boolean hasMore;
+        if (keyset) {
+            // Fetch one extra row to find out whether another page exists without counting
+            rows = seekPatients(nameQuery, PatientCursor.decode(after), s + 1);
+            hasMore = rows.size() > s;
+            if (hasMore) {
+                rows = rows.subList(0, s);
+            }
+        } else {
+            rows = searchPatients(nameQuery, p, s);
+            hasMore = rows.size() == s;
         }
-        PaginatedPatientListResponseMeta meta = patients.isEmpty() ? null : new PaginatedPatientListResponseMeta()
-                .page(p + 1)
-                .size(s)
+
+        PaginatedPatientListResponseMeta meta = new PaginatedPatientListResponseMeta()
+                .page(keyset ? null : p + 1)
+                .size(s);
+        PatientTotal totalPatients = totalMode == TotalMode.NONE ? null : countPatients(nameQuery, totalMode);
+        if (totalPatients != null) {
+            int totalPages = (int) Math.ceil((double) totalPatients.count() / s);
+            meta.totalItems((int) Math.min(totalPatients.count(), Integer.MAX_VALUE))
                 .totalPages(totalPages)
-                .totalItems(totalPatients);
-        return new PatientPage(patients, meta);
+                .totalEstimated(totalPatients.estimated());
+            if (!keyset) {
+                hasMore = p + 1 < totalPages;
+            }
+        }
+        meta.hasMore(hasMore && !rows.isEmpty());
+        if (meta.getHasMore()) {
+            meta.nextCursor(PatientCursor.of(rows.get(rows.size() - 1)).encode());
+        }
+
+        List<Patient> patients = rows.stream()
+                .map(PatientMapper::toDto)
+                .collect(collectingAndThen(toList(), Collections::unmodifiableList));
+        return new PatientPage(patients, meta, PatientETag.ofPage(rows, meta));
+    }
+
+    /**
+     * Returns up to {@code limit} patient rows in the same order as {@link #getPatients}, starting after
+     * {@code after} or from the first row. Rows are not mapped to DTOs, so callers with their own representation
+     * (the gRPC API) map them once.
+     */
+    @Transactional(readOnly = true)
+    public List<PatientListView> getPatientRows(String name, PatientCursor after, int limit) {
+        NameQuery nameQuery = NameQuery.parse(name);
+        if (after == null) {
+            return searchPatients(nameQuery, 0, limit);
+        }
+        return seekPatients(nameQuery, after, limit);
     }
 
+    /**
+     * Updates a patient in at most two round trips before commit: the primary-key read and one
+     * {@code UPDATE ... WHERE id = ? AND version = ?} touching only the changed columns (see {@code @DynamicUpdate}).
+     * The email is only checked when it changes, and a duplicate that slips past the check is caught by the unique
+     * index.
+     */
+    @Transactional
     public Patient updatePatient(@NonNull UUID id, @NonNull PatientCreateRequest patientCreateRequest) {
-        if (!patientRepository.existsById(id)) {
+        return updatePatient(id, patientCreateRequest, null).patient();
+    }
+
+    /**
+     * Same as {@link #updatePatient(UUID, PatientCreateRequest)}, but only applies the change if the patient is
+     * still at {@code expectedVersion} (taken from {@code If-Match}).
+     *
+     * @param expectedVersion version the change is based on, or {@code null} to update any version
+     * @return the updated patient and its new version
+     * @throws PreconditionFailedException if the patient has another version
+     */
+    @Transactional
+    public VersionedPatient updatePatient(@NonNull UUID id, @NonNull PatientCreateRequest patientCreateRequest,
+            Long expectedVersion) {
+        var existingPatient = patientRepository.findById(id).orElseThrow(() -> {
             log.warn("Patient with ID {} not found for update.", id);
-            throw new PatientNotExistException("Patient with ID " + id + " does not exist.");
+            return new PatientNotExistException("Patient with ID " + id + " does not exist.");
+        });
+        if (expectedVersion != null && expectedVersion != versionOf(existingPatient)) {
+            throw new PreconditionFailedException("Patient with ID " + id + " has been modified since version "
+                    + expectedVersion + ".");
         }
-        
-        if (patientRepository.existsByEmailIgnoreCaseAndIdNot(patientCreateRequest.getEmail(), id)) {
-            throw new EmailAlreadyExistException("Patient with email " + patientCreateRequest.getEmail() + " already exists.");
+
+        String email = patientCreateRequest.getEmail();
+        if (!email.equalsIgnoreCase(existingPatient.getEmail())) {
+            emailUniquenessGuard.reserveForTransaction(email, id);
+            if (emailUniquenessGuard.mightBeTaken(email) && patientRepository.existsByEmailIgnoreCaseAndIdNot(email, id)) {
+                throw new EmailAlreadyExistException("Patient with email " + email + " already exists.");
+            }
         }
         
-        var existingPatient = patientRepository.findById(id)
-                .orElseThrow(() -> new PatientNotExistException("Patient with ID " + id + " does not exist."));
-        
+        // Snapshot before the setters so the UPDATED event can carry only what changed
+        var before = PatientEventMapper.createPatientEvent(existingPatient, EventType.UPDATED);
+
         // Update fields
         existingPatient.setFirstName(patientCreateRequest.getFirstName());
         existingPatient.setLastName(patientCreateRequest.getLastName());
@@ -145,58 +337,58 @@ public class PatientService {
         existingPatient.setGender(patientCreateRequest.getGender() != null ? patientCreateRequest.getGender().name() : null);
         existingPatient.setAddress(AddressMapper.toEntity(patientCreateRequest.getAddress()));
         existingPatient.setInsurance(InsuranceMapper.toEntity(patientCreateRequest.getInsurance()));
+        existingPatient.setUpdatedAt(appClock.now());
         
         // Save updated patient
-        var updatedPatient = patientRepository.save(existingPatient);
+        var updatedPatient = saveAndFlush(existingPatient);
 
-         // Sent Kafka event after successful patient creation and billing account creation
-         var event = createPatientEvent(updatedPatient, EventType.UPDATED);
-         kafkaProducer.sendEvent(updatedPatient.getId().toString(), event.toByteArray());
+        var after = PatientEventMapper.createPatientEvent(updatedPatient, EventType.UPDATED);
+        patientEventOutbox.appendUpdated(updatedPatient.getId(), before, after);
 
-        return PatientMapper.toDto(updatedPatient);
+        TransactionUtils.afterCommit(() -> {
+            patientCache.invalidate(id);
+            patientSearchBackend.indexPatient(updatedPatient);
+        });
+        return new VersionedPatient(PatientMapper.toDto(updatedPatient), versionOf(updatedPatient));
     }
 
+    @Transactional
     public void deletePatient(UUID id) {
-        if (!patientRepository.existsById(id)) {
-            log.warn("Patient with ID {} not found for deletion.", id);
-            throw new PatientNotExistException("Patient with ID " + id + " does not exist.");
+        deletePatient(id, null);
+    }
+
+    /**
+     * Deletes a patient, and with an {@code expectedVersion} (taken from {@code If-Match}) only if it is still at
+     * that version. The existence or version check and the delete are one statement.
+     *
+     * @throws PreconditionFailedException if the patient has another version
+     */
+    @Transactional
+    public void deletePatient(UUID id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            if (patientRepository.deleteByIdReturningCount(id) == 0) {
+                log.warn("Patient with ID {} not found for deletion.", id);
+                throw new PatientNotExistException("Patient with ID " + id + " does not exist.");
+            }
+        } else if (patientRepository.deleteByIdAndVersion(id, expectedVersion) == 0) {
+            if (!patientRepository.existsById(id)) {
+                log.warn("Patient with ID {} not found for deletion.", id);
+                throw new PatientNotExistException("Patient with ID " + id + " does not exist.");
+            }
+            throw new PreconditionFailedException("Patient with ID " + id + " has been modified since version "
+                    + expectedVersion + ".");
         }
-        patientRepository.deleteById(id);
+        TransactionUtils.afterCommit(() -> {
+            patientCache.invalidate(id);
+            patientSearchBackend.removePatient(id);
+        });
 
         var patient = new com.sm.patientservice.model.Patient();
         patient.setId(id);
-        var patientEvent = createPatientEvent(patient, EventType.DELETED);
-        kafkaProducer.sendEvent(id.toString(), patientEvent.toByteArray());
+        var patientEvent = PatientEventMapper.createPatientEvent(patient, EventType.DELETED);
+        patientEventOutbox.append(id, patientEvent);
         
         log.info("Patient with ID {} deleted successfully.", id);
     }
-
-    private PatientEvent createPatientEvent(com.sm.patientservice.model.Patient patient, EventType eventType) {
-        if (patient == null) {
-            log.error("Patient is null, cannot create event.");
-            return null;
-        } 
-        if (eventType == null) {
-            log.error("Event type is null, cannot create event.");
-            return null;
-        }
-
-        log.debug("Creating patient event for patient ID: {}, Event Type: {}", patient.getId(), eventType);
-
-        return PatientEvent.newBuilder()
-            .setPatentId(patient.getId().toString())
-            .setName(patient.getFirstName() != null ? patient.getFirstName() : "" +
-                        patient.getLastName() != null ? " " + patient.getLastName() : "")
-            .setEmail(patient.getEmail() != null? patient.getEmail() : "")
-            .setStreet(patient.getAddress() != null? patient.getAddress().getStreet(): "")
-            .setCity(patient.getAddress() != null? patient.getAddress().getCity(): "")
-            .setState(patient.getAddress() != null? patient.getAddress().getState(): "")
-            .setZipCode(patient.getAddress() != null? patient.getAddress().getZipCode(): "")
-            .setCountry(patient.getAddress() != null? patient.getAddress().getCountry(): "")
-            .setCreatedAt(AppUtils.toProtoTimestamp(patient.getCreatedAt()))
-            .setUpdatedAt(AppUtils.toProtoTimestamp(patient.getUpdatedAt()))
-            .setEventType(eventType)
-            .build();
-    }
     
 }
@@ -0,0 +1,109 @@
+package com.sm.patientservice.utils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+import com.google.protobuf.Timestamp;
+import com.sm.patientservice.constant.AppConstant;
+
+/**
+ * Time source of the service, exposed as a bean by {@code ClockConfig}. The display zone and its rules are resolved once, the formatted current time
+ * is cached for the millisecond it was computed in, and {@link LocalDateTime} values are converted with the zone
+ * rules directly instead of going through {@code ZonedDateTime}/{@code OffsetDateTime}.
+ *
+ * Tests can pin time by building one over a fixed {@link Clock} and passing it to the class under test.
+ */
+public final class AppClock {
+
+    private static final AppClock SYSTEM = new AppClock(Clock.systemDefaultZone(), ZoneId.of(AppConstant.DEFAULT_ZONE));
+
+    private final Clock clock;
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    private volatile CachedNow cachedNow = new CachedNow(Long.MIN_VALUE, null);
+
+    private record CachedNow(long epochMilli, String formatted) {}
+
+    /**
+     * @param clock source of the current instant; its zone is used for {@link #now()}
+     * @param zone  zone timestamps are rendered and interpreted in
+     */
+    public AppClock(Clock clock, ZoneId zone) {
+        this.clock = clock;
+        this.zone = zone;
+        this.rules = zone.getRules();
+    }
+
+    public static AppClock system() {
+        return SYSTEM;
+    }
+
+    public ZoneId zone() {
+        return zone;
+    }
+
+    public LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    /**
+     * Current time as an ISO offset date-time in the display zone, with millisecond precision. All callers within
+     * the same millisecond share one string.
+     */
+    public String currentTimestamp() {
+        long epochMilli = clock.millis();
+        CachedNow cached = cachedNow;
+        if (cached.epochMilli() == epochMilli) {
+            return cached.formatted();
+        }
+        String formatted = OffsetDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), zone).toString();
+        cachedNow = new CachedNow(epochMilli, formatted);
+        return formatted;
+    }
+
+    /**
+     * Same output as {@code localDateTime.atZone(zone).toOffsetDateTime().toString()}.
+     */
+    public String format(LocalDateTime localDateTime) {
+        ZoneOffsetTransition transition = rules.getTransition(localDateTime);
+        if (transition != null && transition.isGap()) {
+            // The local time does not exist in the zone; let atZone shift it past the gap
+            return localDateTime.atZone(zone).toOffsetDateTime().toString();
+        }
+        return localDateTime.toString() + rules.getOffset(localDateTime).getId();
+    }
+
+    /**
+     * Converts a local date-time in the display zone to a proto timestamp, or the current instant when {@code null}.
+     */
+    public Timestamp toProtoTimestamp(LocalDateTime localDateTime) {
+        if (localDateTime == null) {
+            Instant now = clock.instant();
+            return Timestamp.newBuilder()
+                .setSeconds(now.getEpochSecond())
+                .setNanos(now.getNano())
+                .build();
+        }
+        // For a local time in a DST gap this is the offset before the transition, which yields the same instant as
+        // atZone's shifted local time with the offset after it
+        ZoneOffset offset = rules.getOffset(localDateTime);
+        return Timestamp.newBuilder()
+            .setSeconds(localDateTime.toEpochSecond(offset))
+            .setNanos(localDateTime.getNano())
+            .build();
+    }
+
+    public LocalDateTime fromProtoTimestamp(Timestamp timestamp) {
+        return LocalDateTime.ofEpochSecond(
+            timestamp.getSeconds(),
+            timestamp.getNanos(),
+            rules.getOffset(clock.instant()));
+    }
+
+}
@@ -1,56 +1,42 @@
 package com.sm.patientservice.utils;
 
-import java.time.Instant;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
 
 import com.google.protobuf.Timestamp;
 
+/**
+ * Static conversions between stored {@link LocalDateTime} values and their display and proto forms, for the static
+ * mappers. They use {@link AppClock#system()}; code that needs the current time takes the {@link AppClock} bean.
+ */
 public class AppUtils {
-    
+
+    private static final AppClock clock = AppClock.system();
+
     private AppUtils() {
         // Private constructor to prevent instantiation
     }
 
     public static ZoneId getDefaultZoneSupplier() {
-        return ZoneId.of("America/New_York"); // Default time zone
-    }
-
-    public static String getCurrentTimestamp() {
-        return java.time.OffsetDateTime.now(
-            getDefaultZoneSupplier()).toString();
+        return clock.zone();
     }
 
-    public static String convertLocalDateTimeToString(java.time.LocalDateTime localDateTime) {
+    public static String convertLocalDateTimeToString(LocalDateTime localDateTime) {
         if (localDateTime == null) {
             return null;
         }
-
-        return localDateTime.atZone(getDefaultZoneSupplier()).toOffsetDateTime().toString();
+        return clock.format(localDateTime);
     }
 
-    public static Timestamp toProtoTimestamp(java.time.LocalDateTime localDateTime) {
-        if (localDateTime == null) {
-            return Timestamp.newBuilder()
-                .setSeconds(Instant.now().getEpochSecond())
-                .setNanos(Instant.now().getNano())
-                .build();
-        }
-        
-        return Timestamp.newBuilder()
-                .setSeconds(localDateTime.atZone(getDefaultZoneSupplier()).toEpochSecond())
-                .setNanos(localDateTime.getNano())
-                .build();
+    public static Timestamp toProtoTimestamp(LocalDateTime localDateTime) {
+        return clock.toProtoTimestamp(localDateTime);
     }
-    
-    public static java.time.LocalDateTime fromProtoTimestamp(Timestamp timestamp) {
+
+    public static LocalDateTime fromProtoTimestamp(Timestamp timestamp) {
         if (timestamp == null) {
             return null;
         }
-        
-        return java.time.LocalDateTime.ofEpochSecond(
-                timestamp.getSeconds(), 
-                timestamp.getNanos(), 
-                getDefaultZoneSupplier().getRules().getOffset(java.time.Instant.now()));
+        return clock.fromProtoTimestamp(timestamp);
     }
 
 }
@@ -0,0 +1,76 @@
+package com.sm.patientservice.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class TransactionUtils {
+
+    private static final Object TRANSACTION_KEY = new Object();
+    private static final AtomicLong transactionSerials = new AtomicLong();
+
+    /**
+     * Identifies one transaction, e.g. as the owner of something it holds until it completes.
+     *
+     * @param name   the transaction name, by default the transactional method; {@code null} outside a transaction
+     * @param serial distinguishes transactions of the same name
+     */
+    public record TransactionKey(String name, long serial) {}
+
+    private TransactionUtils() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Runs the action once the current transaction has committed, or immediately when no transaction is active.
+     * Used for side effects on in-memory state that must not observe rolled back writes.
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Returns the key of the current transaction: the same key for every call within it and a new one in the next
+     * transaction. Outside a transaction every call gets its own key.
+     */
+    public static TransactionKey currentTransactionKey() {
+        if (TransactionSynchronizationManager.getResource(TRANSACTION_KEY) instanceof TransactionKey key) {
+            return key;
+        }
+        TransactionKey key = new TransactionKey(TransactionSynchronizationManager.getCurrentTransactionName(),
+            transactionSerials.incrementAndGet());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.bindResource(TRANSACTION_KEY, key);
+            afterCompletion(() -> TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_KEY));
+        }
+        return key;
+    }
+
+    /**
+     * Runs the action once the current transaction has finished, whether it committed or rolled back, or immediately
+     * when no transaction is active. Used to release resources held for the duration of a transaction.
+     */
+    public static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+}
@@ -3,7 +3,7 @@ CREATE TABLE IF NOT EXISTS patient (
     first_name VARCHAR(50) NOT NULL,
     last_name VARCHAR(50) NOT NULL,
     dob DATE NOT NULL,
-    email VARCHAR(100) UNIQUE NOT NULL,
+    email VARCHAR(100) NOT NULL CONSTRAINT uk_patient_email UNIQUE,
     phone_number VARCHAR(20) NOT NULL,
     gender VARCHAR(10) NOT NULL,
     street VARCHAR(100) NOT NULL,
@@ -13,6 +13,7 @@ CREATE TABLE IF NOT EXISTS patient (
     country VARCHAR(50) NOT NULL,
     provider VARCHAR(100) NOT NULL,
     policy_number VARCHAR(50) NOT NULL,
+    billing_status VARCHAR(20) DEFAULT 'ACTIVE' NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     version BIGINT DEFAULT 0
@@ -20,6 +21,48 @@ CREATE TABLE IF NOT EXISTS patient (
 
 CREATE INDEX IF NOT EXISTS idx_patient_email ON patient(email);
 CREATE INDEX IF NOT EXISTS idx_patient_name ON patient(first_name, last_name);
+-- Backs keyset pagination on GET /patients (ORDER BY last_name, first_name, id)
+CREATE INDEX IF NOT EXISTS idx_patient_name_keyset ON patient(last_name, first_name, id);
+-- Lets the billing reconciler find PENDING patients without a full scan
+CREATE INDEX IF NOT EXISTS idx_patient_billing_status ON patient(billing_status, created_at);
+
+-- Transactional outbox: Kafka records written with the change they describe, drained by OutboxRelay
+CREATE SEQUENCE IF NOT EXISTS patient_outbox_seq START WITH 1 INCREMENT BY 50;
+-- Relay order, one number per transaction drawn after the patient row is locked (see PatientEventOutbox)
+CREATE SEQUENCE IF NOT EXISTS patient_outbox_relay_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS patient_outbox (
+    id BIGINT PRIMARY KEY,
+    topic VARCHAR(100) NOT NULL,
+    message_key VARCHAR(100) NOT NULL,
+    event_type VARCHAR(20) NOT NULL,
+    payload BYTEA,
+    created_at TIMESTAMP NOT NULL,
+    published_at TIMESTAMP,
+    change_seq BIGINT,
+    relay_seq BIGINT
+);
+ALTER TABLE patient_outbox ADD COLUMN IF NOT EXISTS relay_seq BIGINT;
+ALTER TABLE patient_outbox ADD COLUMN IF NOT EXISTS origin VARCHAR(100);
+
+CREATE INDEX IF NOT EXISTS idx_patient_outbox_published_at ON patient_outbox (published_at);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_patient_outbox_change_seq ON patient_outbox (change_seq);
+
+-- Last change feed sequence number handed out by OutboxRelay, a single row created by the first relayed batch.
+-- Relays lock it for a whole batch, so one replica relays at a time
+CREATE TABLE IF NOT EXISTS patient_change_feed_head (
+    id INT PRIMARY KEY,
+    last_seq BIGINT NOT NULL
+);
+
+-- Idempotency-Key reservations and stored responses, used with patient.idempotency.store=database
+CREATE TABLE IF NOT EXISTS patient_idempotency_key (
+    idempotency_key VARCHAR(512) PRIMARY KEY,
+    fingerprint VARCHAR(64) NOT NULL,
+    response BYTEA,
+    reserved_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
 
 -- CREATE OR REPLACE FUNCTION update_updated_at_column()
 -- RETURNS TRIGGER AS $$
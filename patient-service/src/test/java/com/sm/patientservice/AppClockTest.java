@@ -0,0 +1,69 @@
+package com.sm.patientservice;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.Timestamp;
+import com.sm.patientservice.utils.AppClock;
+
+class AppClockTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    private final AppClock clock = new AppClock(
+            Clock.fixed(Instant.parse("2024-03-14T13:26:53.589793Z"), ZoneOffset.UTC), NEW_YORK);
+
+    @Test
+    @DisplayName("formats local date-times like atZone().toOffsetDateTime().toString()")
+    void shouldFormatLikeOffsetDateTime() {
+        for (LocalDateTime value : new LocalDateTime[] {
+                LocalDateTime.of(2024, 1, 15, 8, 30),
+                LocalDateTime.of(2024, 7, 1, 23, 59, 59, 999_999_999),
+                LocalDateTime.of(2024, 3, 10, 2, 30),      // spring-forward gap
+                LocalDateTime.of(2024, 11, 3, 1, 30, 15) }) { // fall-back overlap
+            assertThat(clock.format(value)).isEqualTo(value.atZone(NEW_YORK).toOffsetDateTime().toString());
+        }
+    }
+
+    @Test
+    @DisplayName("converts local date-times to the same proto timestamp as atZone()")
+    void shouldConvertToProtoTimestampLikeZonedDateTime() {
+        for (LocalDateTime value : new LocalDateTime[] {
+                LocalDateTime.of(2024, 1, 15, 8, 30, 0, 123_456_789),
+                LocalDateTime.of(2024, 3, 10, 2, 30),
+                LocalDateTime.of(2024, 11, 3, 1, 30, 15) }) {
+            Timestamp timestamp = clock.toProtoTimestamp(value);
+            assertThat(timestamp.getSeconds()).isEqualTo(value.atZone(NEW_YORK).toEpochSecond());
+            assertThat(timestamp.getNanos()).isEqualTo(value.getNano());
+        }
+    }
+
+    @Test
+    void shouldUsePinnedClockForNow() {
+        // when
+        Timestamp timestamp = clock.toProtoTimestamp(null);
+        // then
+        assertThat(timestamp.getSeconds()).isEqualTo(Instant.parse("2024-03-14T13:26:53Z").getEpochSecond());
+        assertThat(timestamp.getNanos()).isEqualTo(589_793_000);
+        assertThat(clock.now()).isEqualTo(LocalDateTime.of(2024, 3, 14, 13, 26, 53, 589_793_000));
+    }
+
+    @Test
+    void shouldCacheCurrentTimestampWithinMillisecond() {
+        // when
+        String first = clock.currentTimestamp();
+        String second = clock.currentTimestamp();
+        // then
+        assertThat(first).isEqualTo("2024-03-14T09:26:53.589-04:00");
+        assertThat(second).isSameAs(first);
+    }
+
+}
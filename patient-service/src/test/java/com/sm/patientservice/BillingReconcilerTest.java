@@ -0,0 +1,85 @@
+package com.sm.patientservice;
+
+import billing.BillingResponse;
+import com.sm.patientservice.cache.PatientCache;
+import com.sm.patientservice.config.BillingServiceConfig;
+import com.sm.patientservice.exception.BillingUnavailableException;
+import com.sm.patientservice.grpc.BillingServiceGrpcClient;
+import com.sm.patientservice.model.BillingStatus;
+import com.sm.patientservice.model.Patient;
+import com.sm.patientservice.repository.PatientRepository;
+import com.sm.patientservice.service.BillingReconciler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BillingReconcilerTest {
+    @Mock
+    private PatientRepository patientRepository;
+    @Mock
+    private BillingServiceGrpcClient billingServiceGrpcClient;
+    @Mock
+    private PatientCache patientCache;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BillingReconciler billingReconciler;
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        billingReconciler = new BillingReconciler(patientRepository, billingServiceGrpcClient, patientCache,
+                new BillingServiceConfig(), meterRegistry);
+        patient = new Patient();
+        patient.setId(UUID.randomUUID());
+        patient.setBillingStatus(BillingStatus.PENDING);
+    }
+
+    @Test
+    void shouldActivatePatientWhenBillingAccepts() {
+        // given
+        when(billingServiceGrpcClient.createBillingAccount(patient))
+                .thenReturn(CompletableFuture.completedFuture(BillingResponse.newBuilder().setStatus("SUCCESS").build()));
+        when(patientRepository.updateBillingStatus(patient.getId(), BillingStatus.PENDING, BillingStatus.ACTIVE)).thenReturn(1);
+        // when
+        billingReconciler.requestAccount(patient);
+        // then
+        verify(patientCache).invalidate(patient.getId());
+        assertThat(meterRegistry.get("patient.billing.reconciled").tag("status", "ACTIVE").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldMarkPatientFailedWhenBillingRejects() {
+        // given
+        when(billingServiceGrpcClient.createBillingAccount(patient))
+                .thenReturn(CompletableFuture.completedFuture(BillingResponse.newBuilder().setStatus("FAILED").build()));
+        when(patientRepository.updateBillingStatus(patient.getId(), BillingStatus.PENDING, BillingStatus.FAILED)).thenReturn(1);
+        // when
+        billingReconciler.requestAccount(patient);
+        // then
+        verify(patientRepository).updateBillingStatus(patient.getId(), BillingStatus.PENDING, BillingStatus.FAILED);
+    }
+
+    @Test
+    void shouldLeavePatientPendingWhenBillingUnavailable() {
+        // given
+        when(billingServiceGrpcClient.createBillingAccount(patient))
+                .thenReturn(CompletableFuture.failedFuture(new BillingUnavailableException("Billing circuit breaker is OPEN")));
+        // when
+        billingReconciler.requestAccount(patient);
+        // then
+        verify(patientRepository, never()).updateBillingStatus(any(), any(), any());
+        verifyNoInteractions(patientCache);
+    }
+}
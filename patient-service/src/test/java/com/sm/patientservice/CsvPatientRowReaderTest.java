@@ -0,0 +1,72 @@
+package com.sm.patientservice;
+
+import com.sm.patientservice.bulk.CsvPatientRowReader;
+import com.sm.patientservice.bulk.PatientRow;
+import com.sm.patientservice.exception.InvalidImportException;
+import com.sm.patientservice.model.dto.PatientCreateRequest;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvPatientRowReaderTest {
+
+    private static final String HEADER = "email,firstName,lastName,dob,phoneNumber,gender,street,city,provider\n";
+
+    @Test
+    void shouldMapColumnsByName() throws IOException {
+        var reader = new CsvPatientRowReader(new StringReader(HEADER
+                + "john@email.com,John,Doe,1990-01-01,555-0101,MALE,1 Main St,Boston,\n"));
+
+        PatientRow row = reader.next();
+
+        assertThat(row.row()).isEqualTo(1);
+        assertThat(row.error()).isNull();
+        PatientCreateRequest request = row.request();
+        assertThat(request.getEmail()).isEqualTo("john@email.com");
+        assertThat(request.getDob()).isEqualTo(LocalDate.of(1990, 1, 1));
+        assertThat(request.getGender()).isEqualTo(PatientCreateRequest.GenderEnum.MALE);
+        assertThat(request.getAddress().getCity()).isEqualTo("Boston");
+        assertThat(request.getInsurance()).isNull();
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void shouldHandleQuotedFieldsAndBlankLines() throws IOException {
+        var reader = new CsvPatientRowReader(new StringReader(HEADER
+                + "\r\n"
+                + "a@email.com,\"O\"\"Neil, Jr\",Doe,1990-01-01,555,FEMALE,\"1 Main St\nApt 2\",Boston,Aetna\r\n"));
+
+        PatientRow row = reader.next();
+
+        assertThat(row.row()).isEqualTo(1);
+        assertThat(row.request().getFirstName()).isEqualTo("O\"Neil, Jr");
+        assertThat(row.request().getAddress().getStreet()).isEqualTo("1 Main St\nApt 2");
+        assertThat(row.request().getInsurance().getProvider()).isEqualTo("Aetna");
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void shouldReportUnparseableRowsAndContinue() throws IOException {
+        var reader = new CsvPatientRowReader(new StringReader(HEADER
+                + "a@email.com,A,Doe,01/01/1990,555,MALE,,,\n"
+                + "b@email.com,B,Doe,1990-01-01,555,ROBOT,,,\n"
+                + "c@email.com,C,Doe,1990-01-01,555,OTHER,,,\n"));
+
+        assertThat(reader.next().error()).startsWith("dob");
+        assertThat(reader.next().error()).startsWith("gender");
+        PatientRow row = reader.next();
+        assertThat(row.row()).isEqualTo(3);
+        assertThat(row.request().getAddress()).isNull();
+    }
+
+    @Test
+    void shouldRejectHeaderWithoutRequiredColumns() {
+        assertThrows(InvalidImportException.class,
+                () -> new CsvPatientRowReader(new StringReader("firstName,lastName\nJohn,Doe\n")));
+    }
+}
@@ -0,0 +1,116 @@
+package com.sm.patientservice;
+
+import com.sm.patientservice.config.EmailUniquenessConfig;
+import com.sm.patientservice.email.EmailUniquenessGuard;
+import com.sm.patientservice.exception.EmailAlreadyExistException;
+import com.sm.patientservice.repository.PatientRepository;
+import com.sm.patientservice.utils.TransactionUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmailUniquenessGuardTest {
+    @Mock
+    private PatientRepository patientRepository;
+
+    private EmailUniquenessGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        EmailUniquenessConfig config = new EmailUniquenessConfig();
+        config.setExpectedEmails(1000);
+        config.setFalsePositiveRate(0.01);
+        guard = new EmailUniquenessGuard(patientRepository, config, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldAskDatabaseUntilLoaded() {
+        assertThat(guard.mightBeTaken("new@email.com")).isTrue();
+    }
+
+    @Test
+    void shouldSkipDatabaseForUnknownEmailsOnceLoaded() {
+        when(patientRepository.streamAllEmailsLowerCase()).thenReturn(Stream.of("john.doe@email.com"));
+        guard.load();
+
+        assertThat(guard.mightBeTaken("John.Doe@email.com")).isTrue();
+        assertThat(guard.mightBeTaken("new@email.com")).isFalse();
+
+        guard.add("New@email.com");
+        assertThat(guard.mightBeTaken("new@email.com")).isTrue();
+    }
+
+    @Test
+    void shouldRejectConcurrentReservationOfSameEmail() {
+        Object first = new Object();
+        UUID patientId = UUID.randomUUID();
+
+        assertThat(guard.tryReserve("a@email.com", first)).isTrue();
+        assertThat(guard.tryReserve("A@EMAIL.COM", new Object())).isFalse();
+        assertThat(guard.tryReserve("a@email.com", first)).isTrue();
+
+        guard.release("a@email.com", first);
+        assertThat(guard.tryReserve("a@email.com", patientId)).isTrue();
+        assertThat(guard.tryReserve("a@email.com", patientId)).isTrue();
+        // Outside a transaction the reservation is released right away
+        guard.release("a@email.com", patientId);
+        guard.reserveForTransaction("b@email.com", new Object());
+        assertThat(guard.tryReserve("b@email.com", new Object())).isTrue();
+        assertThrows(EmailAlreadyExistException.class, () -> guard.reserveForTransaction("b@email.com", new Object()));
+    }
+
+    @Test
+    void shouldHoldTransactionKeyedReservationUntilTransactionCompletes() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // given
+            guard.reserveForTransaction("c@email.com", TransactionUtils.currentTransactionKey());
+            // when/then: the same transaction may reserve again, another writer may not
+            guard.reserveForTransaction("C@email.com", TransactionUtils.currentTransactionKey());
+            assertThat(guard.tryReserve("c@email.com", UUID.randomUUID())).isFalse();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(0));
+        } finally {
+            TransactionSynchronizationManager.clear();
+        }
+        assertThat(guard.tryReserve("c@email.com", TransactionUtils.currentTransactionKey())).isTrue();
+    }
+
+    @Test
+    void shouldRecognizeEmailConstraintViolations() {
+        assertThat(EmailUniquenessGuard.isEmailConstraintViolation(violation(
+                "duplicate key value violates unique constraint \"idx_patient_email_lower\"", "23505")))
+                .isTrue();
+        assertThat(EmailUniquenessGuard.isEmailConstraintViolation(violation(
+                "Unique index or primary key violation: \"PUBLIC.UK_PATIENT_EMAIL_INDEX_8 ON PUBLIC.PATIENT(EMAIL)\"", "23505")))
+                .isTrue();
+        // Other unique constraints and other violations on a row with an email in it are not email conflicts
+        assertThat(EmailUniquenessGuard.isEmailConstraintViolation(violation(
+                "duplicate key value violates unique constraint \"patient_pkey\" Detail: Key (id)=(...) email", "23505")))
+                .isFalse();
+        assertThat(EmailUniquenessGuard.isEmailConstraintViolation(violation(
+                "value too long for type character varying(100): idx_patient_email_lower", "22001")))
+                .isFalse();
+        assertThat(EmailUniquenessGuard.isEmailConstraintViolation(
+                new DataIntegrityViolationException("NULL not allowed for column \"EMAIL\"")))
+                .isFalse();
+    }
+
+    private static DataIntegrityViolationException violation(String message, String sqlState) {
+        return new DataIntegrityViolationException("could not execute statement", new SQLException(message, sqlState));
+    }
+}
@@ -0,0 +1,123 @@
+package com.sm.patientservice;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sm.patientservice.config.IdempotencyConfig;
+import com.sm.patientservice.exception.EmailAlreadyExistException;
+import com.sm.patientservice.exception.IdempotencyKeyReusedException;
+import com.sm.patientservice.idempotency.IdempotencyService;
+import com.sm.patientservice.idempotency.IdempotentResult;
+import com.sm.patientservice.idempotency.InMemoryIdempotencyStore;
+import com.sm.patientservice.model.dto.PatientCreateRequest;
+import com.sm.patientservice.model.dto.PatientResponseWrapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class IdempotencyServiceTest {
+
+    private final PatientCreateRequest request = new PatientCreateRequest().firstName("John").email("john@email.com");
+    private final AtomicInteger runs = new AtomicInteger();
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyConfig config = new IdempotencyConfig();
+        config.setTtl(Duration.ofMinutes(1));
+        config.setMaximumSize(100);
+        config.setWaitTimeout(Duration.ofSeconds(5));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        idempotencyService = new IdempotencyService(
+            new InMemoryIdempotencyStore(config, meterRegistry), new ObjectMapper(), config, meterRegistry);
+    }
+
+    private PatientResponseWrapper create() {
+        return new PatientResponseWrapper().status("success").timestamp("run-" + runs.incrementAndGet());
+    }
+
+    @Test
+    void shouldReplayStoredResponseForRepeatedKey() {
+        // given
+        IdempotentResult<PatientResponseWrapper> first =
+            idempotencyService.execute("key-1", request, PatientResponseWrapper.class, this::create);
+        // when
+        IdempotentResult<PatientResponseWrapper> second =
+            idempotencyService.execute("key-1", request, PatientResponseWrapper.class, this::create);
+        // then
+        assertThat(first.replayed()).isFalse();
+        assertThat(second.replayed()).isTrue();
+        assertThat(second.body().getTimestamp()).isEqualTo("run-1");
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void shouldRejectKeyReusedWithDifferentBody() {
+        // given
+        idempotencyService.execute("key-1", request, PatientResponseWrapper.class, this::create);
+        PatientCreateRequest other = new PatientCreateRequest().firstName("Jane").email("jane@email.com");
+        // when / then
+        assertThatThrownBy(() -> idempotencyService.execute("key-1", other, PatientResponseWrapper.class, this::create))
+            .isInstanceOf(IdempotencyKeyReusedException.class);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void shouldRunAgainAfterFailure() {
+        // given
+        assertThatThrownBy(() -> idempotencyService.execute("key-1", request, PatientResponseWrapper.class, () -> {
+            throw new EmailAlreadyExistException("taken");
+        })).isInstanceOf(EmailAlreadyExistException.class);
+        // when
+        IdempotentResult<PatientResponseWrapper> retry =
+            idempotencyService.execute("key-1", request, PatientResponseWrapper.class, this::create);
+        // then
+        assertThat(retry.replayed()).isFalse();
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void shouldLetConcurrentDuplicateWaitForFirstRequest() throws Exception {
+        // given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<IdempotentResult<PatientResponseWrapper>> first = CompletableFuture.supplyAsync(() ->
+            idempotencyService.execute("key-1", request, PatientResponseWrapper.class, () -> {
+                started.countDown();
+                await(release);
+                return create();
+            }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        // when
+        CompletableFuture<IdempotentResult<PatientResponseWrapper>> duplicate = CompletableFuture.supplyAsync(() ->
+            idempotencyService.execute("key-1", request, PatientResponseWrapper.class, this::create));
+        Thread.sleep(100);
+        release.countDown();
+        // then
+        List<IdempotentResult<PatientResponseWrapper>> results =
+            List.of(first.get(5, TimeUnit.SECONDS), duplicate.get(5, TimeUnit.SECONDS));
+        assertThat(results).extracting(IdempotentResult::replayed).containsExactly(false, true);
+        assertThat(results).extracting(result -> result.body().getTimestamp()).containsOnly("run-1");
+        assertThat(runs).hasValue(1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.sm.patientservice;
+
+import com.sm.patientservice.config.KafkaProducerConfig;
+import com.sm.patientservice.kafka.KafkaProducer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaProducerException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaProducerTest {
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private KafkaProducer kafkaProducer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        KafkaProducerConfig config = new KafkaProducerConfig();
+        config.setLogSampleRate(100);
+        kafkaProducer = new KafkaProducer(kafkaTemplate, config, meterRegistry);
+    }
+
+    @Test
+    void shouldCountAcknowledgedSends() {
+        // given
+        byte[] payload = {1, 2, 3};
+        var record = new ProducerRecord<>("patients", "key", payload);
+        var metadata = new RecordMetadata(new TopicPartition("patients", 0), 41, 0, 0L, 3, payload.length);
+        when(kafkaTemplate.send("patients", "key", payload))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(record, metadata)));
+        // when
+        var result = kafkaProducer.send("patients", "key", payload);
+        // then
+        assertThat(result).isCompleted();
+        assertThat(meterRegistry.get("patient.kafka.send").tags("topic", "patients", "result", "acked").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("patient.kafka.send.latency").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSendOriginHeader() {
+        // given
+        byte[] payload = {1, 2, 3};
+        var record = new ProducerRecord<>("patients", "key", payload);
+        var metadata = new RecordMetadata(new TopicPartition("patients", 0), 41, 0, 0L, 3, payload.length);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(record, metadata)));
+        // when
+        kafkaProducer.send("patients", "key", payload, "patient-service-1");
+        // then
+        ArgumentCaptor<ProducerRecord<String, byte[]>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(sent.capture());
+        assertThat(sent.getValue().headers().lastHeader("origin").value())
+                .isEqualTo("patient-service-1".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldCountFailedSendsAndPassOnTheFailure() {
+        // given
+        byte[] payload = {1, 2, 3};
+        var record = new ProducerRecord<>("patients", "key", payload);
+        when(kafkaTemplate.send("patients", "key", payload)).thenReturn(CompletableFuture.failedFuture(
+                new KafkaProducerException(record, "Send failed", new TimeoutException("Expiring 1 record(s)"))));
+        // when
+        var result = kafkaProducer.send("patients", "key", payload);
+        // then
+        assertThat(result).isCompletedExceptionally();
+        assertThat(meterRegistry.get("patient.kafka.send")
+                .tags("topic", "patients", "result", "failed", "exception", "TimeoutException").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("patient.kafka.send.latency").timer().count()).isZero();
+    }
+}
@@ -0,0 +1,90 @@
+package com.sm.patientservice;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.sm.patientservice.model.Patient;
+import com.sm.patientservice.pagination.PatientCursor;
+import com.sm.patientservice.repository.PatientListView;
+import com.sm.patientservice.repository.PatientRepository;
+import com.sm.patientservice.search.NameQuery;
+import com.sm.patientservice.search.NgramPatientSearchBackend;
+
+@ExtendWith(MockitoExtension.class)
+class NgramPatientSearchBackendTest {
+    @Mock
+    private PatientRepository patientRepository;
+
+    private NgramPatientSearchBackend backend;
+    private final Map<UUID, PatientListView> database = new LinkedHashMap<>();
+    private final NameQuery doe = NameQuery.parse("doe");
+
+    @BeforeEach
+    void setUp() {
+        when(patientRepository.streamAllBy()).thenReturn(Stream.empty());
+        when(patientRepository.findListViewsByIdIn(anyCollection())).thenAnswer(invocation ->
+                invocation.<Collection<UUID>>getArgument(0).stream().map(database::get).filter(Objects::nonNull).toList());
+        backend = new NgramPatientSearchBackend(patientRepository);
+        backend.buildIndex();
+        for (String firstName : List.of("Ann", "Bea", "Cal", "Dee", "Eve")) {
+            add(firstName);
+        }
+    }
+
+    private void add(String firstName) {
+        Patient patient = new Patient();
+        patient.setId(UUID.randomUUID());
+        patient.setFirstName(firstName);
+        patient.setLastName("Doe");
+        backend.indexPatient(patient);
+        database.put(patient.getId(), new PatientListView(patient.getId(), firstName, "Doe", null, null, null, null,
+                null, null, null, null, null, null, null, null, null, null, 1L));
+    }
+
+    private void deleteFromDatabase(String firstName) {
+        database.values().removeIf(row -> row.firstName().equals(firstName));
+    }
+
+    private static List<String> firstNames(List<PatientListView> rows) {
+        return rows.stream().map(PatientListView::firstName).toList();
+    }
+
+    @Test
+    void shouldFillPagePastPatientsDeletedAfterIndexing() {
+        // given: deleted on another replica, the index has not heard of it yet
+        deleteFromDatabase("Bea");
+        // when
+        List<PatientListView> firstPage = backend.findPage(doe, 0, 2);
+        List<PatientListView> seekPage = backend.findPageAfter(doe, PatientCursor.of(firstPage.get(1)), 3);
+        // then
+        assertThat(firstNames(firstPage)).containsExactly("Ann", "Cal");
+        assertThat(firstNames(seekPage)).containsExactly("Dee", "Eve");
+    }
+
+    @Test
+    void shouldStopWhenMatchesRunOut() {
+        // given
+        deleteFromDatabase("Dee");
+        deleteFromDatabase("Eve");
+        // when
+        List<PatientListView> rows = backend.findPage(doe, 0, 4);
+        // then
+        assertThat(firstNames(rows)).containsExactly("Ann", "Bea", "Cal");
+    }
+
+}
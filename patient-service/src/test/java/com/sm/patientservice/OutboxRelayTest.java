@@ -0,0 +1,129 @@
+package com.sm.patientservice;
+
+import com.sm.patientservice.config.OutboxConfig;
+import com.sm.patientservice.kafka.KafkaProducer;
+import com.sm.patientservice.model.ChangeFeedHead;
+import com.sm.patientservice.model.OutboxEvent;
+import com.sm.patientservice.outbox.OutboxRelay;
+import com.sm.patientservice.repository.ChangeFeedHeadRepository;
+import com.sm.patientservice.repository.OutboxEventRepository;
+import com.sm.patientservice.utils.AppClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    @Mock
+    private ChangeFeedHeadRepository changeFeedHeadRepository;
+    @Mock
+    private KafkaProducer kafkaProducer;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        OutboxConfig outboxConfig = new OutboxConfig();
+        outboxConfig.setBatchSize(2);
+        outboxConfig.setSendTimeout(Duration.ofSeconds(1));
+        meterRegistry = new SimpleMeterRegistry();
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        outboxRelay = new OutboxRelay(outboxEventRepository, changeFeedHeadRepository, kafkaProducer, transactionTemplate, outboxConfig,
+                AppClock.system(), meterRegistry);
+    }
+
+    private static OutboxEvent event(long id) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setTopic("patients");
+        event.setMessageKey("key-" + id);
+        event.setPayload(new byte[] {(byte) id});
+        event.setCreatedAt(LocalDateTime.now());
+        return event;
+    }
+
+    @Test
+    void shouldPublishAndMarkBatchesUntilDrained() {
+        // given
+        var first = List.of(event(1), event(2));
+        var second = List.of(event(3));
+        var head = new ChangeFeedHead();
+        head.setId(ChangeFeedHead.ID);
+        head.setLastSeq(10L);
+        when(changeFeedHeadRepository.lockHead()).thenReturn(Optional.of(head));
+        when(outboxEventRepository.findPending(any(Limit.class))).thenReturn(first, second);
+        when(kafkaProducer.send(anyString(), anyString(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(outboxEventRepository.findFirstByPublishedAtIsNullOrderByIdAsc()).thenReturn(Optional.empty());
+        // when
+        outboxRelay.relay();
+        // then
+        verify(kafkaProducer, times(3)).send(eq("patients"), anyString(), any(), any());
+        verify(outboxEventRepository, never()).deleteAllInBatch(any());
+        assertThat(first).extracting(OutboxEvent::getChangeSeq).containsExactly(11L, 12L);
+        assertThat(second).extracting(OutboxEvent::getChangeSeq).containsExactly(13L);
+        assertThat(head.getLastSeq()).isEqualTo(13L);
+        verify(changeFeedHeadRepository, times(2)).lockHead();
+        assertThat(first).allSatisfy(event -> assertThat(event.getPublishedAt()).isNotNull());
+        assertThat(meterRegistry.get("patient.outbox.relayed").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("patient.outbox.lag").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldKeepBatchWhenSendFails() {
+        // given
+        var batch = List.of(event(1));
+        var head = new ChangeFeedHead();
+        head.setId(ChangeFeedHead.ID);
+        head.setLastSeq(10L);
+        when(changeFeedHeadRepository.lockHead()).thenReturn(Optional.of(head));
+        when(outboxEventRepository.findPending(any(Limit.class))).thenReturn(batch);
+        when(kafkaProducer.send(anyString(), anyString(), any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        when(outboxEventRepository.findFirstByPublishedAtIsNullOrderByIdAsc()).thenReturn(Optional.of(batch.get(0)));
+        // when
+        outboxRelay.relay();
+        // then
+        assertThat(batch.get(0).getPublishedAt()).isNull();
+        assertThat(head.getLastSeq()).isEqualTo(10L);
+        assertThat(meterRegistry.get("patient.outbox.relay.failures").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("patient.outbox.relayed").counter().count()).isZero();
+    }
+
+    @Test
+    void shouldCreateHeadOnFirstBatch() {
+        // given
+        when(changeFeedHeadRepository.lockHead()).thenReturn(Optional.empty());
+        when(changeFeedHeadRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        var batch = List.of(event(1));
+        when(outboxEventRepository.findPending(any(Limit.class))).thenReturn(batch);
+        when(kafkaProducer.send(anyString(), anyString(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(outboxEventRepository.findFirstByPublishedAtIsNullOrderByIdAsc()).thenReturn(Optional.empty());
+        // when
+        outboxRelay.relay();
+        // then
+        assertThat(batch.get(0).getChangeSeq()).isEqualTo(1L);
+        verify(changeFeedHeadRepository).saveAndFlush(argThat(head -> head.getId() == ChangeFeedHead.ID));
+    }
+}
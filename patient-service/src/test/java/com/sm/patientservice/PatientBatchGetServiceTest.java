@@ -0,0 +1,104 @@
+package com.sm.patientservice;
+
+import com.sm.patientservice.cache.PatientCache;
+import com.sm.patientservice.cache.VersionedPatient;
+import com.sm.patientservice.config.PatientBatchGetConfig;
+import com.sm.patientservice.datasource.ReadWriteRoutingDataSource;
+import com.sm.patientservice.datasource.ReadYourWritesGuard;
+import com.sm.patientservice.model.dto.PatientBatchGetResult;
+import com.sm.patientservice.repository.PatientListView;
+import com.sm.patientservice.repository.PatientRepository;
+import com.sm.patientservice.service.PatientBatchGetService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientBatchGetServiceTest {
+    @Mock
+    private PatientRepository patientRepository;
+    @Mock
+    private PatientCache patientCache;
+
+    private PatientBatchGetService patientBatchGetService;
+
+    @BeforeEach
+    void setUp() {
+        PatientBatchGetConfig config = new PatientBatchGetConfig();
+        config.setChunkSize(2);
+        patientBatchGetService = new PatientBatchGetService(patientRepository, patientCache, config, new SimpleMeterRegistry());
+    }
+
+    private static PatientListView view(UUID id, String firstName) {
+        return new PatientListView(id, firstName, "Doe", null, firstName.toLowerCase() + "@email.com", null, null,
+                null, null, null, null, null, null, null, null, null, null, 1L);
+    }
+
+    @Test
+    void shouldReturnResultsInRequestOrderWithNotFoundMarkers() {
+        // given
+        UUID cached = UUID.randomUUID();
+        UUID first = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        var cachedPatient = new com.sm.patientservice.model.dto.Patient().id(cached).firstName("Cached");
+        when(patientCache.getIfPresent(any())).thenReturn(null);
+        when(patientCache.getIfPresent(cached)).thenReturn(new VersionedPatient(cachedPatient, 3L));
+        // Chunks of two: [second, missing] and [first]; rows come back in any order
+        when(patientRepository.findListViewsByIdIn(List.of(second, missing))).thenReturn(List.of(view(second, "Second")));
+        when(patientRepository.findListViewsByIdIn(List.of(first))).thenReturn(List.of(view(first, "First")));
+        // when
+        List<PatientBatchGetResult> results =
+                patientBatchGetService.getPatients(List.of(second, cached, missing, first, second));
+        // then
+        assertThat(results).extracting(PatientBatchGetResult::getId).containsExactly(second, cached, missing, first);
+        assertThat(results).extracting(PatientBatchGetResult::getFound).containsExactly(true, true, false, true);
+        assertThat(results.get(0).getPatient().getFirstName()).isEqualTo("Second");
+        assertThat(results.get(1).getPatient()).isSameAs(cachedPatient);
+        assertThat(results.get(2).getPatient()).isNull();
+        assertThat(results.get(3).getPatient().getFirstName()).isEqualTo("First");
+        verify(patientRepository, never()).findListViewsByIdIn(argThat(ids -> ids.contains(cached)));
+        verify(patientCache).put(eq(first), argThat(entry -> entry.version() == 1L));
+    }
+
+    @Test
+    void shouldNotCachePatientsReadFromReplica() throws SQLException {
+        // given
+        UUID id = UUID.randomUUID();
+        DataSource primary = mock(DataSource.class);
+        DataSource replica = mock(DataSource.class);
+        var routing = new ReadWriteRoutingDataSource(primary, replica, new ReadYourWritesGuard(Duration.ofSeconds(5)),
+                new SimpleMeterRegistry());
+        when(patientRepository.findListViewsByIdIn(List.of(id))).thenAnswer(invocation -> {
+            routing.getConnection();
+            return List.of(view(id, "Replica"));
+        });
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            // when
+            List<PatientBatchGetResult> results = patientBatchGetService.getPatients(List.of(id));
+            // then
+            assertThat(results.get(0).getPatient().getFirstName()).isEqualTo("Replica");
+            verify(patientCache, never()).put(any(), any());
+        } finally {
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(0));
+            TransactionSynchronizationManager.clear();
+        }
+        assertThat(ReadWriteRoutingDataSource.isCurrentTransactionOnReplica()).isFalse();
+    }
+}
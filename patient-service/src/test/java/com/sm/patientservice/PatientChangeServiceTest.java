@@ -0,0 +1,122 @@
+package com.sm.patientservice;
+
+import com.sm.patientservice.changes.PatientChange;
+import com.sm.patientservice.changes.PatientChangeService;
+import com.sm.patientservice.exception.ChangesExpiredException;
+import com.sm.patientservice.exception.InvalidChangeTokenException;
+import com.sm.patientservice.model.OutboxEvent;
+import com.sm.patientservice.repository.ChangeFeedHeadRepository;
+import com.sm.patientservice.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import patient.events.EventType;
+import patient.events.PatientEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientChangeServiceTest {
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    @Mock
+    private ChangeFeedHeadRepository changeFeedHeadRepository;
+
+    private PatientChangeService patientChangeService;
+
+    @BeforeEach
+    void setUp() {
+        patientChangeService = new PatientChangeService(outboxEventRepository, changeFeedHeadRepository);
+    }
+
+    private static OutboxEvent change(long seq, UUID patientId, EventType eventType) {
+        OutboxEvent row = new OutboxEvent();
+        row.setId(seq);
+        row.setTopic("patients");
+        row.setMessageKey(patientId.toString());
+        row.setEventType(eventType.name());
+        row.setPayload(PatientEvent.newBuilder()
+                .setPatentId(patientId.toString())
+                .setName("John Doe")
+                .setEmail("john@email.com")
+                .setCity("New York")
+                .setEventType(eventType)
+                .build()
+                .toByteArray());
+        row.setCreatedAt(LocalDateTime.of(2024, 3, 14, 9, 26));
+        row.setChangeSeq(seq);
+        return row;
+    }
+
+    @Test
+    void shouldReturnChangesAfterToken() {
+        // given
+        UUID updated = UUID.randomUUID();
+        UUID deleted = UUID.randomUUID();
+        when(changeFeedHeadRepository.findLastSeq()).thenReturn(Optional.of(7L));
+        when(outboxEventRepository.findChangesAfter(eq(5L), any(Limit.class)))
+                .thenReturn(List.of(change(6, updated, EventType.UPDATED), change(7, deleted, EventType.DELETED)));
+        // when
+        List<PatientChange> changes = patientChangeService.changesAfter(5, 100);
+        // then
+        assertThat(changes).extracting(PatientChange::sequence).containsExactly(6L, 7L);
+        assertThat(changes.get(0).patientId()).isEqualTo(updated);
+        assertThat(changes.get(0).email()).isEqualTo("john@email.com");
+        assertThat(changes.get(0).address().getCity()).isEqualTo("New York");
+        assertThat(changes.get(1).eventType()).isEqualTo("DELETED");
+        assertThat(changes.get(1).email()).isNull();
+    }
+
+    @Test
+    void shouldReturnNothingWithoutQueryingAtHead() {
+        // given
+        when(changeFeedHeadRepository.findLastSeq()).thenReturn(Optional.of(7L));
+        // when
+        List<PatientChange> changes = patientChangeService.changesAfter(7, 100);
+        // then
+        assertThat(changes).isEmpty();
+        verify(outboxEventRepository, never()).findChangesAfter(anyLong(), any());
+    }
+
+    @Test
+    void shouldRejectTokenWhoseChangesWerePurged() {
+        // given
+        when(changeFeedHeadRepository.findLastSeq()).thenReturn(Optional.of(9L));
+        when(outboxEventRepository.findChangesAfter(eq(2L), any(Limit.class)))
+                .thenReturn(List.of(change(8, UUID.randomUUID(), EventType.CREATED)));
+        // when / then
+        assertThatThrownBy(() -> patientChangeService.changesAfter(2, 100))
+                .isInstanceOf(ChangesExpiredException.class);
+    }
+
+    @Test
+    void shouldRejectTokenAheadOfFeed() {
+        // given
+        when(changeFeedHeadRepository.findLastSeq()).thenReturn(Optional.of(3L));
+        // when / then
+        assertThatThrownBy(() -> patientChangeService.changesAfter(10, 100))
+                .isInstanceOf(ChangesExpiredException.class);
+    }
+
+    @Test
+    void shouldStartAtHeadWithoutToken() {
+        // given
+        when(changeFeedHeadRepository.findLastSeq()).thenReturn(Optional.of(42L));
+        // when / then
+        assertThat(patientChangeService.parseToken(null)).isEqualTo(42L);
+        assertThat(patientChangeService.parseToken("17")).isEqualTo(17L);
+        assertThatThrownBy(() -> patientChangeService.parseToken("abc"))
+                .isInstanceOf(InvalidChangeTokenException.class);
+    }
+}
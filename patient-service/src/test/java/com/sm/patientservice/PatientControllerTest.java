@@ -1,18 +1,22 @@
 package com.sm.patientservice;
 
+import com.sm.patientservice.cache.VersionedPatient;
 import com.sm.patientservice.constant.ResponseConstant;
 import com.sm.patientservice.controller.PatientController;
 import com.sm.patientservice.exception.EmailAlreadyExistException;
 import com.sm.patientservice.exception.PatientNotExistException;
+import com.sm.patientservice.exception.PreconditionFailedException;
 import com.sm.patientservice.model.dto.PaginatedPatientListResponse;
 import com.sm.patientservice.model.dto.PatientCreateRequest;
 import com.sm.patientservice.model.dto.PatientResponseWrapper;
 import com.sm.patientservice.service.PatientService;
+import com.sm.patientservice.utils.AppClock;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.ResponseEntity;
@@ -30,6 +34,8 @@ class PatientControllerTest {
     @Mock
     private PatientService patientService;
 
+    @Spy
+    private AppClock appClock = AppClock.system();
     @InjectMocks
     private PatientController patientController;
 
@@ -64,7 +70,7 @@ class PatientControllerTest {
         @Test
         void shouldCreatePatientSuccessfully() {
             when(patientService.createPatient(any())).thenReturn(samplePatient);
-            ResponseEntity<PatientResponseWrapper> response = patientController.createPatient(sampleRequest);
+            ResponseEntity<PatientResponseWrapper> response = patientController.createPatient(sampleRequest, null);
             assertThat(response.getStatusCode().value()).isEqualTo(200);
             assertThat(response.getBody()).isNotNull();
             assertThat(response.getBody().getData()).isEqualTo(samplePatient);
@@ -74,7 +80,7 @@ class PatientControllerTest {
         @Test
         void shouldThrowEmailAlreadyExist() {
             when(patientService.createPatient(any())).thenThrow(new EmailAlreadyExistException("Email already exists"));
-            assertThrows(EmailAlreadyExistException.class, () -> patientController.createPatient(sampleRequest));
+            assertThrows(EmailAlreadyExistException.class, () -> patientController.createPatient(sampleRequest, null));
         }
     }
 
@@ -84,8 +90,8 @@ class PatientControllerTest {
         @Test
         void shouldReturnPaginatedPatients() {
             PatientService.PatientPage page = new PatientService.PatientPage(List.of(samplePatient), null);
-            when(patientService.getPatients(any(), any(), any())).thenReturn(page);
-            ResponseEntity<PaginatedPatientListResponse> response = patientController.getPatients("John", 0, 10);
+            when(patientService.getPatients(any(), any(), any(), any(), any())).thenReturn(page);
+            ResponseEntity<PaginatedPatientListResponse> response = patientController.getPatients("John", 0, 10, null, null, null);
             assertThat(response.getStatusCode().value()).isEqualTo(200);
             assertThat(response.getBody()).isNotNull();
             assertThat(response.getBody().getData()).containsExactly(samplePatient);
@@ -95,8 +101,8 @@ class PatientControllerTest {
         @Test
         void shouldReturnEmptyListIfNoPatients() {
             PatientService.PatientPage page = new PatientService.PatientPage(Collections.emptyList(), null);
-            when(patientService.getPatients(any(), any(), any())).thenReturn(page);
-            ResponseEntity<PaginatedPatientListResponse> response = patientController.getPatients(null, 0, 10);
+            when(patientService.getPatients(any(), any(), any(), any(), any())).thenReturn(page);
+            ResponseEntity<PaginatedPatientListResponse> response = patientController.getPatients(null, 0, 10, null, null, null);
             assertThat(response.getBody().getData()).isEmpty();
         }
     }
@@ -106,16 +112,37 @@ class PatientControllerTest {
     class GetPatientById {
         @Test
         void shouldReturnPatient() {
-            when(patientService.getPatientById(any())).thenReturn(samplePatient);
-            ResponseEntity<PatientResponseWrapper> response = patientController.getPatientById(sampleId);
+            when(patientService.getVersionedPatient(any())).thenReturn(new VersionedPatient(samplePatient, 3L));
+            ResponseEntity<PatientResponseWrapper> response = patientController.getPatientById(sampleId, null);
             assertThat(response.getStatusCode().value()).isEqualTo(200);
             assertThat(response.getBody().getData()).isEqualTo(samplePatient);
+            assertThat(response.getHeaders().getETag()).isEqualTo("\"" + sampleId + ":3\"");
+        }
+
+        @Test
+        void shouldReturnNotModifiedWithoutLoadingPatient() {
+            when(patientService.getPatientVersion(sampleId)).thenReturn(3L);
+            ResponseEntity<PatientResponseWrapper> response =
+                    patientController.getPatientById(sampleId, "\"" + sampleId + ":3\"");
+            assertThat(response.getStatusCode().value()).isEqualTo(304);
+            assertThat(response.getBody()).isNull();
+            verify(patientService, never()).getVersionedPatient(any());
+        }
+
+        @Test
+        void shouldReturnPatientIfVersionChanged() {
+            when(patientService.getPatientVersion(sampleId)).thenReturn(4L);
+            when(patientService.getVersionedPatient(sampleId)).thenReturn(new VersionedPatient(samplePatient, 4L));
+            ResponseEntity<PatientResponseWrapper> response =
+                    patientController.getPatientById(sampleId, "\"" + sampleId + ":3\"");
+            assertThat(response.getStatusCode().value()).isEqualTo(200);
+            assertThat(response.getHeaders().getETag()).isEqualTo("\"" + sampleId + ":4\"");
         }
 
         @Test
         void shouldThrowIfNotFound() {
-            when(patientService.getPatientById(any())).thenThrow(new PatientNotExistException("Not found"));
-            assertThrows(PatientNotExistException.class, () -> patientController.getPatientById(sampleId));
+            when(patientService.getVersionedPatient(any())).thenThrow(new PatientNotExistException("Not found"));
+            assertThrows(PatientNotExistException.class, () -> patientController.getPatientById(sampleId, null));
         }
     }
 
@@ -124,16 +151,31 @@ class PatientControllerTest {
     class UpdatePatient {
         @Test
         void shouldUpdatePatient() {
-            when(patientService.updatePatient(any(), any())).thenReturn(samplePatient);
-            ResponseEntity<PatientResponseWrapper> response = patientController.updatePatient(sampleId, sampleRequest);
+            when(patientService.updatePatient(any(), any(), isNull())).thenReturn(new VersionedPatient(samplePatient, 1L));
+            ResponseEntity<PatientResponseWrapper> response = patientController.updatePatient(sampleId, sampleRequest, null);
             assertThat(response.getStatusCode().value()).isEqualTo(200);
             assertThat(response.getBody().getData()).isEqualTo(samplePatient);
+            assertThat(response.getHeaders().getETag()).isEqualTo("\"" + sampleId + ":1\"");
+        }
+
+        @Test
+        void shouldPassIfMatchVersion() {
+            when(patientService.updatePatient(any(), any(), eq(3L))).thenReturn(new VersionedPatient(samplePatient, 4L));
+            patientController.updatePatient(sampleId, sampleRequest, "\"" + sampleId + ":3\"");
+            verify(patientService).updatePatient(sampleId, sampleRequest, 3L);
+        }
+
+        @Test
+        void shouldRejectIfMatchOfAnotherPatient() {
+            assertThrows(PreconditionFailedException.class,
+                    () -> patientController.updatePatient(sampleId, sampleRequest, "\"" + UUID.randomUUID() + ":3\""));
+            verify(patientService, never()).updatePatient(any(), any(), any());
         }
 
         @Test
         void shouldThrowIfNotFound() {
-            when(patientService.updatePatient(any(), any())).thenThrow(new PatientNotExistException("Not found"));
-            assertThrows(PatientNotExistException.class, () -> patientController.updatePatient(sampleId, sampleRequest));
+            when(patientService.updatePatient(any(), any(), any())).thenThrow(new PatientNotExistException("Not found"));
+            assertThrows(PatientNotExistException.class, () -> patientController.updatePatient(sampleId, sampleRequest, null));
         }
     }
 
@@ -142,8 +184,8 @@ class PatientControllerTest {
     class DeletePatient {
         @Test
         void shouldDeletePatient() {
-            doNothing().when(patientService).deletePatient(any());
-            ResponseEntity<Void> response = patientController.deletePatient(sampleId);
+            doNothing().when(patientService).deletePatient(any(), any());
+            ResponseEntity<Void> response = patientController.deletePatient(sampleId, null);
             assertThat(response.getStatusCode().value()).isEqualTo(204);
             assertThat(response.getHeaders().getFirst("X-Status")).isEqualTo(ResponseConstant.SUCCESS_STATUS);
             assertThat(response.getHeaders().getFirst("X-Timestamp")).isNotNull();
@@ -151,8 +193,8 @@ class PatientControllerTest {
 
         @Test
         void shouldThrowIfNotFound() {
-            doThrow(new PatientNotExistException("Not found")).when(patientService).deletePatient(any());
-            assertThrows(PatientNotExistException.class, () -> patientController.deletePatient(sampleId));
+            doThrow(new PatientNotExistException("Not found")).when(patientService).deletePatient(any(), any());
+            assertThrows(PatientNotExistException.class, () -> patientController.deletePatient(sampleId, null));
         }
     }
 } 
\ No newline at end of file
@@ -1,18 +1,28 @@
 package com.sm.patientservice;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sm.patientservice.cache.VersionedPatient;
+import com.sm.patientservice.config.ClockConfig;
 import com.sm.patientservice.constant.ResponseConstant;
 import com.sm.patientservice.controller.PatientController;
 import com.sm.patientservice.exception.EmailAlreadyExistException;
 import com.sm.patientservice.exception.PatientNotExistException;
+import com.sm.patientservice.exception.PreconditionFailedException;
+import com.sm.patientservice.idempotency.IdempotencyService;
+import com.sm.patientservice.idempotency.IdempotentResult;
+import com.sm.patientservice.model.dto.PatientResponseWrapper;
 import com.sm.patientservice.model.dto.PatientCreateRequest;
+import com.sm.patientservice.model.dto.PatientBatchGetResult;
+import com.sm.patientservice.service.PatientBatchGetService;
 import com.sm.patientservice.service.PatientService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -22,6 +32,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -32,6 +43,9 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(PatientController.class)
+@Import(ClockConfig.class)
+// Requests reach this service already authenticated by the gateway; the header filter chain is not under test here
+@AutoConfigureMockMvc(addFilters = false)
 class PatientControllerWebMvcTest {
     @Autowired
     private MockMvc mockMvc;
@@ -39,6 +53,10 @@ class PatientControllerWebMvcTest {
     private ObjectMapper objectMapper;
     @MockitoBean
     private PatientService patientService;
+    @MockitoBean
+    private PatientBatchGetService patientBatchGetService;
+    @MockitoBean
+    private IdempotencyService idempotencyService;
 
     private PatientCreateRequest sampleRequest;
     private com.sm.patientservice.model.dto.Patient samplePatient;
@@ -78,6 +96,20 @@ class PatientControllerWebMvcTest {
                     .andExpect(jsonPath("$.status", is(ResponseConstant.SUCCESS_STATUS)));
         }
 
+        @Test
+        void shouldMarkReplayedResponseForRepeatedIdempotencyKey() throws Exception {
+            var stored = new PatientResponseWrapper().data(samplePatient).status(ResponseConstant.SUCCESS_STATUS);
+            when(idempotencyService.execute(eq("create-1"), any(), eq(PatientResponseWrapper.class), any()))
+                    .thenReturn(new IdempotentResult<>(stored, true));
+            mockMvc.perform(post("/patients")
+                    .header("Idempotency-Key", "create-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(sampleRequest)))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                    .andExpect(jsonPath("$.data.id", is(sampleId.toString())));
+        }
+
         @Test
         void shouldReturn409IfEmailExists() throws Exception {
             when(patientService.createPatient(any())).thenThrow(new EmailAlreadyExistException("Email already exists"));
@@ -94,7 +126,7 @@ class PatientControllerWebMvcTest {
         @Test
         void shouldReturnPatients() throws Exception {
             PatientService.PatientPage page = new PatientService.PatientPage(List.of(samplePatient), null);
-            when(patientService.getPatients(any(), any(), any())).thenReturn(page);
+            when(patientService.getPatients(any(), any(), any(), any(), any())).thenReturn(page);
             mockMvc.perform(get("/patients?name=John&page=0&size=10"))
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.data", hasSize(1)))
@@ -104,27 +136,78 @@ class PatientControllerWebMvcTest {
         @Test
         void shouldReturnEmptyList() throws Exception {
             PatientService.PatientPage page = new PatientService.PatientPage(Collections.emptyList(), null);
-            when(patientService.getPatients(any(), any(), any())).thenReturn(page);
+            when(patientService.getPatients(any(), any(), any(), any(), any())).thenReturn(page);
             mockMvc.perform(get("/patients"))
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.data", hasSize(0)));
         }
     }
 
+    @Nested
+    @DisplayName("POST /patients:batchGet")
+    class BatchGetPatients {
+        @Test
+        void shouldReturnResultPerId() throws Exception {
+            UUID missingId = UUID.randomUUID();
+            when(patientBatchGetService.getPatients(eq(List.of(sampleId, missingId)))).thenReturn(List.of(
+                    new PatientBatchGetResult().id(sampleId).found(true).patient(samplePatient),
+                    new PatientBatchGetResult().id(missingId).found(false)));
+            mockMvc.perform(post("/patients:batchGet")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"ids\":[\"" + sampleId + "\",\"" + missingId + "\"]}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data", hasSize(2)))
+                    .andExpect(jsonPath("$.data[0].patient.id", is(sampleId.toString())))
+                    .andExpect(jsonPath("$.data[1].found", is(false)));
+        }
+
+        @Test
+        void shouldRejectEmptyIdList() throws Exception {
+            mockMvc.perform(post("/patients:batchGet")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"ids\":[]}"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
     @Nested
     @DisplayName("GET /patients/{id}")
     class GetPatientById {
         @Test
         void shouldReturnPatient() throws Exception {
-            when(patientService.getPatientById(eq(sampleId))).thenReturn(samplePatient);
+            when(patientService.getVersionedPatient(eq(sampleId))).thenReturn(new VersionedPatient(samplePatient, 2L));
             mockMvc.perform(get("/patients/{id}", sampleId))
                     .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", "\"" + sampleId + ":2\""))
                     .andExpect(jsonPath("$.data.id", is(sampleId.toString())));
         }
 
+        @Test
+        void shouldReturnProtobufWhenAccepted() throws Exception {
+            when(patientService.getVersionedPatient(eq(sampleId))).thenReturn(new VersionedPatient(samplePatient, 2L));
+            byte[] body = mockMvc.perform(get("/patients/{id}", sampleId)
+                    .accept("application/x-protobuf"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith("application/x-protobuf"))
+                    .andReturn().getResponse().getContentAsByteArray();
+            var response = patient.api.PatientResponse.parseFrom(body);
+            assertThat(response.getData().getId()).isEqualTo(sampleId.toString());
+            assertThat(response.getData().getGender()).isEqualTo("MALE");
+        }
+
+        @Test
+        void shouldReturn304IfNoneMatch() throws Exception {
+            when(patientService.getPatientVersion(eq(sampleId))).thenReturn(2L);
+            mockMvc.perform(get("/patients/{id}", sampleId)
+                    .header("If-None-Match", "\"" + sampleId + ":2\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", "\"" + sampleId + ":2\""))
+                    .andExpect(content().string(""));
+        }
+
         @Test
         void shouldReturn404IfNotFound() throws Exception {
-            when(patientService.getPatientById(eq(sampleId))).thenThrow(new PatientNotExistException("Not found"));
+            when(patientService.getVersionedPatient(eq(sampleId))).thenThrow(new PatientNotExistException("Not found"));
             mockMvc.perform(get("/patients/{id}", sampleId))
                     .andExpect(status().isNotFound());
         }
@@ -135,7 +218,7 @@ class PatientControllerWebMvcTest {
     class UpdatePatient {
         @Test
         void shouldUpdatePatient() throws Exception {
-            when(patientService.updatePatient(eq(sampleId), any())).thenReturn(samplePatient);
+            when(patientService.updatePatient(eq(sampleId), any(), any())).thenReturn(new VersionedPatient(samplePatient, 1L));
             mockMvc.perform(put("/patients/{id}", sampleId)
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(sampleRequest)))
@@ -145,12 +228,24 @@ class PatientControllerWebMvcTest {
 
         @Test
         void shouldReturn404IfNotFound() throws Exception {
-            when(patientService.updatePatient(eq(sampleId), any())).thenThrow(new PatientNotExistException("Not found"));
+            when(patientService.updatePatient(eq(sampleId), any(), any())).thenThrow(new PatientNotExistException("Not found"));
             mockMvc.perform(put("/patients/{id}", sampleId)
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(sampleRequest)))
                     .andExpect(status().isNotFound());
         }
+
+        @Test
+        void shouldReturn412IfVersionChanged() throws Exception {
+            when(patientService.updatePatient(eq(sampleId), any(), eq(1L)))
+                    .thenThrow(new PreconditionFailedException("modified"));
+            mockMvc.perform(put("/patients/{id}", sampleId)
+                    .header("If-Match", "\"" + sampleId + ":1\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(sampleRequest)))
+                    .andExpect(status().isPreconditionFailed())
+                    .andExpect(jsonPath("$.error.code", is("PRECONDITION_FAILED")));
+        }
     }
 
     @Nested
@@ -158,7 +253,7 @@ class PatientControllerWebMvcTest {
     class DeletePatient {
         @Test
         void shouldDeletePatient() throws Exception {
-            doNothing().when(patientService).deletePatient(eq(sampleId));
+            doNothing().when(patientService).deletePatient(eq(sampleId), any());
             mockMvc.perform(delete("/patients/{id}", sampleId))
                     .andExpect(status().isNoContent())
                     .andExpect(header().string("X-Status", ResponseConstant.SUCCESS_STATUS))
@@ -167,7 +262,7 @@ class PatientControllerWebMvcTest {
 
         @Test
         void shouldReturn404IfNotFound() throws Exception {
-            doThrow(new PatientNotExistException("Not found")).when(patientService).deletePatient(eq(sampleId));
+            doThrow(new PatientNotExistException("Not found")).when(patientService).deletePatient(eq(sampleId), any());
             mockMvc.perform(delete("/patients/{id}", sampleId))
                     .andExpect(status().isNotFound());
         }
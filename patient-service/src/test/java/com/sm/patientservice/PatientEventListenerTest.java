@@ -0,0 +1,75 @@
+package com.sm.patientservice;
+
+import com.sm.patientservice.cache.PatientCache;
+import com.sm.patientservice.config.InstanceConfig;
+import com.sm.patientservice.email.EmailUniquenessGuard;
+import com.sm.patientservice.kafka.PatientEventListener;
+import com.sm.patientservice.model.Patient;
+import com.sm.patientservice.repository.PatientRepository;
+import com.sm.patientservice.search.PatientSearchBackend;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import patient.events.EventType;
+import patient.events.PatientEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientEventListenerTest {
+    @Mock
+    private PatientCache patientCache;
+    @Mock
+    private PatientSearchBackend patientSearchBackend;
+    @Mock
+    private PatientRepository patientRepository;
+    @Mock
+    private EmailUniquenessGuard emailUniquenessGuard;
+
+    private PatientEventListener listener;
+    private UUID id;
+    private byte[] updated;
+
+    @BeforeEach
+    void setUp() {
+        InstanceConfig instanceConfig = new InstanceConfig();
+        instanceConfig.setInstanceId("patient-service-1");
+        listener = new PatientEventListener(patientCache, patientSearchBackend, patientRepository, emailUniquenessGuard,
+                instanceConfig);
+        id = UUID.randomUUID();
+        updated = PatientEvent.newBuilder()
+                .setPatentId(id.toString())
+                .setEmail("john@email.com")
+                .setEventType(EventType.UPDATED)
+                .build()
+                .toByteArray();
+    }
+
+    @Test
+    void shouldSkipEventsWrittenByThisReplica() {
+        // when
+        listener.consumeEvent(updated, "patient-service-1".getBytes(StandardCharsets.UTF_8));
+        // then
+        verifyNoInteractions(patientCache, patientSearchBackend, patientRepository, emailUniquenessGuard);
+    }
+
+    @Test
+    void shouldApplyEventsWrittenByOtherReplicas() {
+        // given
+        Patient patient = new Patient();
+        patient.setId(id);
+        when(patientRepository.findById(id)).thenReturn(Optional.of(patient));
+        // when
+        listener.consumeEvent(updated, "patient-service-2".getBytes(StandardCharsets.UTF_8));
+        // then
+        verify(patientCache).invalidate(id);
+        verify(emailUniquenessGuard).add("john@email.com");
+        verify(patientSearchBackend).indexPatient(patient);
+    }
+}
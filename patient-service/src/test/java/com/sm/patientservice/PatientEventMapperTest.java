@@ -0,0 +1,85 @@
+package com.sm.patientservice;
+
+import com.sm.patientservice.mapper.PatientEventMapper;
+import com.sm.patientservice.model.Address;
+import com.sm.patientservice.model.Patient;
+import org.junit.jupiter.api.Test;
+import patient.events.EventType;
+import patient.events.PatientEvent;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PatientEventMapperTest {
+
+    private static Patient patient() {
+        Address address = new Address();
+        address.setStreet("221B Baker Street");
+        address.setCity("Springfield");
+        address.setCountry("USA");
+
+        Patient patient = new Patient();
+        patient.setId(UUID.randomUUID());
+        patient.setFirstName("Jane");
+        patient.setLastName("Doe");
+        patient.setEmail("jane@email.com");
+        patient.setPhoneNumber("+1234567890");
+        patient.setAddress(address);
+        patient.setCreatedAt(LocalDateTime.of(2024, 3, 14, 9, 26));
+        patient.setUpdatedAt(LocalDateTime.of(2024, 3, 14, 9, 26));
+        return patient;
+    }
+
+    @Test
+    void shouldBuildFullNameAndEmptyStringsForMissingFields() {
+        // given
+        Patient patient = patient();
+        patient.setLastName(null);
+        // when
+        PatientEvent full = PatientEventMapper.createPatientEvent(patient(), EventType.CREATED);
+        PatientEvent firstNameOnly = PatientEventMapper.createPatientEvent(patient, EventType.CREATED);
+        // then
+        assertThat(full.getName()).isEqualTo("Jane Doe");
+        assertThat(full.getState()).isEmpty();
+        assertThat(full.hasChangedFields()).isFalse();
+        assertThat(firstNameOnly.getName()).isEqualTo("Jane");
+    }
+
+    @Test
+    void shouldOnlyCarryChangedFieldsInUpdatedDelta() {
+        // given
+        Patient patient = patient();
+        PatientEvent before = PatientEventMapper.createPatientEvent(patient, EventType.UPDATED);
+        patient.setEmail("jane.doe@email.com");
+        patient.getAddress().setCity(null);
+        patient.setUpdatedAt(LocalDateTime.of(2024, 3, 15, 10, 0));
+        PatientEvent after = PatientEventMapper.createPatientEvent(patient, EventType.UPDATED);
+        // when
+        PatientEvent delta = PatientEventMapper.createUpdatedDelta(before, after);
+        // then
+        assertThat(delta.getChangedFields().getPathsList()).containsExactly("email", "city", "updated_at");
+        assertThat(delta.getPatentId()).isEqualTo(patient.getId().toString());
+        assertThat(delta.getEventType()).isEqualTo(EventType.UPDATED);
+        assertThat(delta.getEmail()).isEqualTo("jane.doe@email.com");
+        assertThat(delta.getCity()).isEmpty();
+        assertThat(delta.getName()).isEmpty();
+        assertThat(delta.getUpdatedAt()).isEqualTo(after.getUpdatedAt());
+        assertThat(delta.getSerializedSize()).isLessThan(after.getSerializedSize());
+    }
+
+    @Test
+    void shouldOnlyCarryUpdatedAtWhenNoEventFieldChanged() {
+        // given
+        Patient patient = patient();
+        PatientEvent before = PatientEventMapper.createPatientEvent(patient, EventType.UPDATED);
+        patient.setPhoneNumber("+1987654321");
+        patient.setUpdatedAt(LocalDateTime.of(2024, 3, 15, 10, 0));
+        // when
+        PatientEvent delta = PatientEventMapper.createUpdatedDelta(before,
+                PatientEventMapper.createPatientEvent(patient, EventType.UPDATED));
+        // then
+        assertThat(delta.getChangedFields().getPathsList()).containsExactly("updated_at");
+    }
+}
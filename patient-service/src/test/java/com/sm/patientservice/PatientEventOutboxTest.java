@@ -0,0 +1,157 @@
+package com.sm.patientservice;
+
+import com.sm.patientservice.config.InstanceConfig;
+import com.sm.patientservice.config.PatientEventConfig;
+import com.sm.patientservice.model.OutboxEvent;
+import com.sm.patientservice.outbox.OutboxRelaySequence;
+import com.sm.patientservice.outbox.PatientEventOutbox;
+import com.sm.patientservice.repository.OutboxEventRepository;
+import com.sm.patientservice.utils.AppClock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import patient.events.EventType;
+import patient.events.PatientEvent;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientEventOutboxTest {
+    private static final AppClock CLOCK = new AppClock(
+            Clock.fixed(Instant.parse("2024-03-14T13:26:53Z"), ZoneOffset.UTC), ZoneId.of("America/New_York"));
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    @Mock
+    private OutboxRelaySequence relaySequence;
+
+    private PatientEventConfig eventConfig;
+    private PatientEventOutbox patientEventOutbox;
+    private UUID id;
+
+    @BeforeEach
+    void setUp() {
+        eventConfig = new PatientEventConfig();
+        eventConfig.setUpdatedPayload("delta");
+        eventConfig.setSnapshotTopicEnabled(true);
+        InstanceConfig instanceConfig = new InstanceConfig();
+        instanceConfig.setInstanceId("patient-service-1");
+        patientEventOutbox = new PatientEventOutbox(outboxEventRepository, relaySequence, eventConfig, instanceConfig, CLOCK);
+        id = UUID.randomUUID();
+        when(relaySequence.next()).thenReturn(7L, 8L);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        completeTransaction();
+        TransactionSynchronizationManager.clear();
+    }
+
+    private static void completeTransaction() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(0));
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    private PatientEvent event(EventType eventType, String email) {
+        return PatientEvent.newBuilder()
+                .setPatentId(id.toString())
+                .setName("John Doe")
+                .setEmail(email)
+                .setEventType(eventType)
+                .build();
+    }
+
+    private List<OutboxEvent> savedRows(int count) {
+        ArgumentCaptor<OutboxEvent> rows = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository, times(count)).save(rows.capture());
+        return rows.getAllValues();
+    }
+
+    @Test
+    void shouldQueueSnapshotBeforeEvent() {
+        // given
+        PatientEvent created = event(EventType.CREATED, "john@email.com");
+        // when
+        patientEventOutbox.append(id, created);
+        // then
+        List<OutboxEvent> rows = savedRows(2);
+        assertThat(rows).extracting(OutboxEvent::getTopic).containsExactly("patients-snapshot", "patients");
+        assertThat(rows).extracting(OutboxEvent::getMessageKey).containsOnly(id.toString());
+        assertThat(rows).extracting(OutboxEvent::getOrigin).containsOnly("patient-service-1");
+        assertThat(rows).extracting(OutboxEvent::getCreatedAt).containsOnly(LocalDateTime.of(2024, 3, 14, 13, 26, 53));
+        assertThat(rows.get(0).getPayload()).isEqualTo(created.toByteArray());
+        assertThat(rows.get(1).getPayload()).isEqualTo(created.toByteArray());
+    }
+
+    @Test
+    void shouldQueueTombstoneForDeletedPatient() {
+        // when
+        patientEventOutbox.append(id, PatientEvent.newBuilder().setPatentId(id.toString()).setEventType(EventType.DELETED).build());
+        // then
+        List<OutboxEvent> rows = savedRows(2);
+        assertThat(rows.get(0).getTopic()).isEqualTo("patients-snapshot");
+        assertThat(rows.get(0).getPayload()).isNull();
+        assertThat(rows.get(1).getPayload()).isNotNull();
+    }
+
+    @Test
+    void shouldQueueFullSnapshotAndDeltaEventForUpdate() throws Exception {
+        // given
+        PatientEvent before = event(EventType.UPDATED, "john@email.com");
+        PatientEvent after = event(EventType.UPDATED, "john.doe@email.com");
+        // when
+        patientEventOutbox.appendUpdated(id, before, after);
+        // then
+        List<OutboxEvent> rows = savedRows(2);
+        assertThat(rows.get(0).getPayload()).isEqualTo(after.toByteArray());
+        PatientEvent delta = PatientEvent.parseFrom(rows.get(1).getPayload());
+        assertThat(delta.getChangedFields().getPathsList()).containsExactly("email");
+        assertThat(delta.getName()).isEmpty();
+    }
+
+    @Test
+    void shouldOnlyQueueEventWhenSnapshotTopicIsDisabled() {
+        // given
+        eventConfig.setSnapshotTopicEnabled(false);
+        eventConfig.setUpdatedPayload("snapshot");
+        PatientEvent after = event(EventType.UPDATED, "john.doe@email.com");
+        // when
+        patientEventOutbox.appendUpdated(id, event(EventType.UPDATED, "john@email.com"), after);
+        // then
+        List<OutboxEvent> rows = savedRows(1);
+        assertThat(rows.get(0).getTopic()).isEqualTo("patients");
+        assertThat(rows.get(0).getPayload()).isEqualTo(after.toByteArray());
+    }
+
+    @Test
+    void shouldDrawOneRelaySeqPerTransactionAfterFlushingTheChange() {
+        // when
+        patientEventOutbox.append(id, event(EventType.CREATED, "john@email.com"));
+        patientEventOutbox.append(id, event(EventType.UPDATED, "john.doe@email.com"));
+        completeTransaction();
+        patientEventOutbox.append(id, event(EventType.UPDATED, "jd@email.com"));
+        // then
+        assertThat(savedRows(6)).extracting(OutboxEvent::getRelaySeq).containsExactly(7L, 7L, 7L, 7L, 8L, 8L);
+        InOrder inOrder = inOrder(outboxEventRepository, relaySequence);
+        inOrder.verify(outboxEventRepository).flush();
+        inOrder.verify(relaySequence).next();
+        verify(outboxEventRepository, times(2)).flush();
+    }
+}
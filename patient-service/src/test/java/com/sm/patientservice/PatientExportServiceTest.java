@@ -0,0 +1,57 @@
+package com.sm.patientservice;
+
+import com.sm.patientservice.model.Patient;
+import com.sm.patientservice.repository.PatientRepository;
+import com.sm.patientservice.service.PatientExportService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientExportServiceTest {
+    @Mock
+    private PatientRepository patientRepository;
+    @Mock
+    private EntityManager entityManager;
+    @InjectMocks
+    private PatientExportService patientExportService;
+
+    private static Patient patient(String firstName) {
+        Patient patient = new Patient();
+        patient.setId(UUID.randomUUID());
+        patient.setFirstName(firstName);
+        patient.setLastName("Doe");
+        return patient;
+    }
+
+    @Test
+    void shouldMapDetachAndCloseEveryRow() {
+        // given
+        var first = patient("John");
+        var second = patient("Jane");
+        var closed = new AtomicBoolean();
+        when(patientRepository.streamAllByOrderByIdAsc())
+                .thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+        List<com.sm.patientservice.model.dto.Patient> exported = new ArrayList<>();
+        // when
+        long count = patientExportService.exportPatients(exported::add);
+        // then
+        assertThat(count).isEqualTo(2);
+        assertThat(exported).extracting(com.sm.patientservice.model.dto.Patient::getFirstName).containsExactly("John", "Jane");
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+        assertThat(closed).isTrue();
+    }
+}
@@ -0,0 +1,144 @@
+package com.sm.patientservice;
+
+import com.sm.patientservice.bulk.ImportRowResult;
+import com.sm.patientservice.bulk.NdjsonPatientRowReader;
+import com.sm.patientservice.config.EmailUniquenessConfig;
+import com.sm.patientservice.config.PatientImportConfig;
+import com.sm.patientservice.email.EmailUniquenessGuard;
+import com.sm.patientservice.model.BillingStatus;
+import com.sm.patientservice.model.Patient;
+import com.sm.patientservice.outbox.PatientEventOutbox;
+import com.sm.patientservice.repository.PatientRepository;
+import com.sm.patientservice.search.PatientSearchBackend;
+import com.sm.patientservice.service.PatientImportService;
+import com.sm.patientservice.utils.AppClock;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientImportServiceTest {
+    @Mock
+    private PatientRepository patientRepository;
+    @Mock
+    private PatientEventOutbox patientEventOutbox;
+    @Mock
+    private PatientSearchBackend patientSearchBackend;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private EntityManager entityManager;
+
+    private PatientImportService patientImportService;
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @BeforeEach
+    void setUp() {
+        PatientImportConfig importConfig = new PatientImportConfig();
+        importConfig.setBatchSize(2);
+        EmailUniquenessConfig emailConfig = new EmailUniquenessConfig();
+        emailConfig.setExpectedEmails(1000);
+        emailConfig.setFalsePositiveRate(0.01);
+        patientImportService = new PatientImportService(patientRepository, patientEventOutbox, patientSearchBackend,
+                transactionTemplate, entityManager, Validation.buildDefaultValidatorFactory().getValidator(), importConfig,
+                new EmailUniquenessGuard(patientRepository, emailConfig, new SimpleMeterRegistry()), AppClock.system());
+    }
+
+    private static String line(String email) {
+        return "{\"firstName\":\"John\",\"lastName\":\"Doe\",\"dob\":\"1990-01-01\",\"email\":\"" + email
+                + "\",\"phoneNumber\":\"555-0101\",\"gender\":\"MALE\"}\n";
+    }
+
+    private NdjsonPatientRowReader reader(String ndjson) {
+        return new NdjsonPatientRowReader(new BufferedReader(new StringReader(ndjson)), objectMapper.reader());
+    }
+
+    private void runTransactions() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        doAnswer(invocation -> {
+            invocation.<Patient>getArgument(0).setId(UUID.randomUUID());
+            return null;
+        }).when(entityManager).persist(any(Patient.class));
+    }
+
+    @Test
+    void shouldInsertValidRowsAndReportEveryRowInOrder() throws IOException {
+        // given
+        runTransactions();
+        when(patientRepository.findExistingEmailsIgnoreCase(any())).thenAnswer(invocation ->
+                invocation.<Collection<String>>getArgument(0).stream().filter("taken@email.com"::equals).toList());
+        List<ImportRowResult> results = new ArrayList<>();
+        // when
+        var summary = patientImportService.importPatients(reader(
+                line("a@email.com") + "{not json\n" + line("Taken@email.com") + line("c@email.com") + line("b@email.com")),
+                results::add);
+        // then
+        assertThat(results).extracting(ImportRowResult::row).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(results).extracting(ImportRowResult::status).containsExactly(
+                ImportRowResult.Status.CREATED, ImportRowResult.Status.REJECTED, ImportRowResult.Status.REJECTED,
+                ImportRowResult.Status.CREATED, ImportRowResult.Status.CREATED);
+        assertThat(summary.rows()).isEqualTo(5);
+        assertThat(summary.created()).isEqualTo(3);
+        verify(entityManager, times(3)).persist(argThat((Patient patient) -> patient.getBillingStatus() == BillingStatus.PENDING));
+        verify(patientEventOutbox, times(3)).append(any(), any());
+    }
+
+    @Test
+    void shouldRejectDuplicateEmailWithinBatch() throws IOException {
+        // given
+        runTransactions();
+        when(patientRepository.findExistingEmailsIgnoreCase(Set.of("a@email.com"))).thenReturn(List.of());
+        List<ImportRowResult> results = new ArrayList<>();
+        // when
+        patientImportService.importPatients(reader(line("a@email.com") + line("A@EMAIL.COM")), results::add);
+        // then
+        assertThat(results.get(0).status()).isEqualTo(ImportRowResult.Status.CREATED);
+        assertThat(results.get(1).status()).isEqualTo(ImportRowResult.Status.REJECTED);
+        assertThat(results.get(1).error()).contains("more than once");
+    }
+
+    @Test
+    void shouldRetryRowByRowWhenBatchInsertFails() throws IOException {
+        // given
+        when(patientRepository.findExistingEmailsIgnoreCase(any())).thenReturn(List.of());
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .doAnswer(invocation -> null)
+                .doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(transactionTemplate).executeWithoutResult(any());
+        when(patientRepository.existsByEmailIgnoreCase("b@email.com")).thenReturn(true);
+        List<ImportRowResult> results = new ArrayList<>();
+        // when
+        var summary = patientImportService.importPatients(reader(line("a@email.com") + line("b@email.com")), results::add);
+        // then
+        assertThat(results).extracting(ImportRowResult::status)
+                .containsExactly(ImportRowResult.Status.CREATED, ImportRowResult.Status.REJECTED);
+        assertThat(results.get(1).error()).contains("already exists");
+        assertThat(summary.created()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,52 @@
+package com.sm.patientservice;
+
+import com.sm.patientservice.mapper.PatientProtoMapper;
+import com.sm.patientservice.model.dto.Address;
+import com.sm.patientservice.model.dto.PaginatedPatientListResponse;
+import com.sm.patientservice.model.dto.PaginatedPatientListResponseMeta;
+import com.sm.patientservice.model.dto.Patient;
+import org.junit.jupiter.api.Test;
+import patient.api.PatientListResponse;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PatientProtoMapperTest {
+
+    @Test
+    void shouldRoundTripListResponse() throws Exception {
+        // given
+        UUID id = UUID.randomUUID();
+        Patient dto = new Patient()
+                .id(id)
+                .firstName("John")
+                .lastName("Doe")
+                .dob(LocalDate.of(1990, 1, 1))
+                .gender(Patient.GenderEnum.MALE)
+                .billingStatus(Patient.BillingStatusEnum.ACTIVE)
+                .address(new Address().city("New York"));
+        PaginatedPatientListResponse response = new PaginatedPatientListResponse()
+                .status("success")
+                .data(List.of(dto))
+                .meta(new PaginatedPatientListResponseMeta().size(10).hasMore(false));
+        // when
+        PatientListResponse parsed = PatientListResponse.parseFrom(PatientProtoMapper.toProto(response).toByteArray());
+        // then
+        assertThat(parsed.getStatus()).isEqualTo("success");
+        assertThat(parsed.getDataList()).hasSize(1);
+        var patient = parsed.getData(0);
+        assertThat(patient.getId()).isEqualTo(id.toString());
+        assertThat(patient.getDob()).isEqualTo("1990-01-01");
+        assertThat(patient.getGender()).isEqualTo("MALE");
+        assertThat(patient.getBillingStatus()).isEqualTo("ACTIVE");
+        assertThat(patient.getAddress().getCity()).isEqualTo("New York");
+        assertThat(patient.getAddress().getStreet()).isEmpty();
+        assertThat(patient.hasInsurance()).isFalse();
+        assertThat(parsed.getMeta().getSize()).isEqualTo(10);
+        assertThat(parsed.getMeta().hasPage()).isFalse();
+        assertThat(parsed.getMeta().hasHasMore()).isTrue();
+    }
+}
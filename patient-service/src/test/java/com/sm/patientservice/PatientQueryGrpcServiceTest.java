@@ -0,0 +1,182 @@
+package com.sm.patientservice;
+
+import com.sm.patientservice.config.PatientQueryGrpcConfig;
+import com.sm.patientservice.exception.PatientNotExistException;
+import com.sm.patientservice.grpc.PatientQueryGrpcService;
+import com.sm.patientservice.model.dto.PatientBatchGetResult;
+import com.sm.patientservice.pagination.PatientCursor;
+import com.sm.patientservice.repository.PatientListView;
+import com.sm.patientservice.service.PatientBatchGetService;
+import com.sm.patientservice.service.PatientService;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import patient.api.BatchGetPatientsRequest;
+import patient.api.BatchGetPatientsResponse;
+import patient.api.GetPatientRequest;
+import patient.api.ListPatientsRequest;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientQueryGrpcServiceTest {
+    @Mock
+    private PatientService patientService;
+    @Mock
+    private PatientBatchGetService patientBatchGetService;
+    @Mock
+    private StreamObserver<patient.api.Patient> patientObserver;
+    @Mock
+    private StreamObserver<BatchGetPatientsResponse> batchObserver;
+    @Mock
+    private ServerCallStreamObserver<patient.api.Patient> listObserver;
+
+    private PatientQueryGrpcService patientQueryGrpcService;
+
+    @BeforeEach
+    void setUp() {
+        PatientQueryGrpcConfig config = new PatientQueryGrpcConfig();
+        config.setMaxBatchIds(3);
+        config.setListPageSize(2);
+        patientQueryGrpcService = new PatientQueryGrpcService(patientService, patientBatchGetService, config);
+    }
+
+    private static PatientListView view(UUID id, String firstName) {
+        return new PatientListView(id, firstName, "Doe", null, firstName.toLowerCase() + "@email.com", null, null,
+                null, "Springfield", null, null, null, null, null, null, null, null, 1L);
+    }
+
+    private static Status.Code errorCode(StreamObserver<?> observer) {
+        ArgumentCaptor<Throwable> error = ArgumentCaptor.forClass(Throwable.class);
+        verify(observer).onError(error.capture());
+        return ((StatusRuntimeException) error.getValue()).getStatus().getCode();
+    }
+
+    @Test
+    void shouldGetPatient() {
+        // given
+        UUID id = UUID.randomUUID();
+        when(patientService.getPatientById(id))
+                .thenReturn(new com.sm.patientservice.model.dto.Patient().id(id).firstName("John").lastName("Doe"));
+        // when
+        patientQueryGrpcService.getPatient(GetPatientRequest.newBuilder().setId(id.toString()).build(), patientObserver);
+        // then
+        ArgumentCaptor<patient.api.Patient> response = ArgumentCaptor.forClass(patient.api.Patient.class);
+        verify(patientObserver).onNext(response.capture());
+        verify(patientObserver).onCompleted();
+        assertThat(response.getValue().getId()).isEqualTo(id.toString());
+        assertThat(response.getValue().getFirstName()).isEqualTo("John");
+    }
+
+    @Test
+    void shouldMapMissingPatientToNotFound() {
+        // given
+        UUID id = UUID.randomUUID();
+        when(patientService.getPatientById(id)).thenThrow(new PatientNotExistException("Patient with ID " + id + " does not exist."));
+        // when
+        patientQueryGrpcService.getPatient(GetPatientRequest.newBuilder().setId(id.toString()).build(), patientObserver);
+        // then
+        assertThat(errorCode(patientObserver)).isEqualTo(Status.Code.NOT_FOUND);
+    }
+
+    @Test
+    void shouldRejectMalformedId() {
+        // when
+        patientQueryGrpcService.getPatient(GetPatientRequest.newBuilder().setId("not-a-uuid").build(), patientObserver);
+        // then
+        assertThat(errorCode(patientObserver)).isEqualTo(Status.Code.INVALID_ARGUMENT);
+        verifyNoInteractions(patientService);
+    }
+
+    @Test
+    void shouldBatchGetPatients() {
+        // given
+        UUID found = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        when(patientBatchGetService.getPatients(List.of(found, missing))).thenReturn(List.of(
+                new PatientBatchGetResult().id(found).found(true)
+                        .patient(new com.sm.patientservice.model.dto.Patient().id(found).firstName("John")),
+                new PatientBatchGetResult().id(missing).found(false)));
+        // when
+        patientQueryGrpcService.batchGetPatients(BatchGetPatientsRequest.newBuilder()
+                .addIds(found.toString())
+                .addIds(missing.toString())
+                .build(), batchObserver);
+        // then
+        ArgumentCaptor<BatchGetPatientsResponse> response = ArgumentCaptor.forClass(BatchGetPatientsResponse.class);
+        verify(batchObserver).onNext(response.capture());
+        verify(batchObserver).onCompleted();
+        assertThat(response.getValue().getResultsList())
+                .extracting(patient.api.PatientBatchGetResult::getFound)
+                .containsExactly(true, false);
+        assertThat(response.getValue().getResults(0).getPatient().getFirstName()).isEqualTo("John");
+        assertThat(response.getValue().getResults(1).hasPatient()).isFalse();
+    }
+
+    @Test
+    void shouldRejectTooManyIds() {
+        // given
+        var request = BatchGetPatientsRequest.newBuilder();
+        for (int i = 0; i < 4; i++) {
+            request.addIds(UUID.randomUUID().toString());
+        }
+        // when
+        patientQueryGrpcService.batchGetPatients(request.build(), batchObserver);
+        // then
+        assertThat(errorCode(batchObserver)).isEqualTo(Status.Code.INVALID_ARGUMENT);
+        verifyNoInteractions(patientBatchGetService);
+    }
+
+    @Test
+    void shouldStreamPatientsPageByPageWhileClientIsReady() {
+        // given
+        PatientListView first = view(UUID.randomUUID(), "Ann");
+        PatientListView second = view(UUID.randomUUID(), "Bob");
+        PatientListView third = view(UUID.randomUUID(), "Cid");
+        when(patientService.getPatientRows("doe", null, 2)).thenReturn(List.of(first, second));
+        when(patientService.getPatientRows("doe", PatientCursor.of(second), 2)).thenReturn(List.of(third));
+        when(listObserver.isReady()).thenReturn(true);
+        patientQueryGrpcService.listPatients(ListPatientsRequest.newBuilder().setName("doe").build(), listObserver);
+        ArgumentCaptor<Runnable> onReady = ArgumentCaptor.forClass(Runnable.class);
+        verify(listObserver).setOnReadyHandler(onReady.capture());
+        // when
+        onReady.getValue().run();
+        onReady.getValue().run();
+        // then
+        ArgumentCaptor<patient.api.Patient> sent = ArgumentCaptor.forClass(patient.api.Patient.class);
+        verify(listObserver, times(3)).onNext(sent.capture());
+        assertThat(sent.getAllValues()).extracting(patient.api.Patient::getFirstName).containsExactly("Ann", "Bob", "Cid");
+        assertThat(sent.getAllValues().get(0).getAddress().getCity()).isEqualTo("Springfield");
+        verify(listObserver).onCompleted();
+        verify(patientService, times(2)).getPatientRows(any(), any(), anyInt());
+    }
+
+    @Test
+    void shouldWaitForReadinessBeforeReadingNextPage() {
+        // given
+        when(patientService.getPatientRows(null, null, 2))
+                .thenReturn(List.of(view(UUID.randomUUID(), "Ann"), view(UUID.randomUUID(), "Bob")));
+        when(listObserver.isReady()).thenReturn(true, false);
+        patientQueryGrpcService.listPatients(ListPatientsRequest.getDefaultInstance(), listObserver);
+        ArgumentCaptor<Runnable> onReady = ArgumentCaptor.forClass(Runnable.class);
+        verify(listObserver).setOnReadyHandler(onReady.capture());
+        // when
+        onReady.getValue().run();
+        // then
+        verify(listObserver, times(2)).onNext(any());
+        verify(listObserver, never()).onCompleted();
+        verify(patientService, times(1)).getPatientRows(any(), any(), anyInt());
+    }
+}
@@ -1,28 +1,53 @@
 package com.sm.patientservice;
 
+import com.sm.patientservice.cache.PatientCache;
+import com.sm.patientservice.cache.VersionedPatient;
+import com.sm.patientservice.email.EmailUniquenessGuard;
 import com.sm.patientservice.exception.EmailAlreadyExistException;
+import com.sm.patientservice.exception.InvalidCursorException;
+import com.sm.patientservice.exception.InvalidTotalModeException;
 import com.sm.patientservice.exception.PatientNotExistException;
+import com.sm.patientservice.exception.PreconditionFailedException;
 import com.sm.patientservice.mapper.PatientMapper;
 import com.sm.patientservice.model.Address;
+import com.sm.patientservice.model.BillingStatus;
 import com.sm.patientservice.model.Insurance;
 import com.sm.patientservice.model.Patient;
 import com.sm.patientservice.model.dto.PatientCreateRequest;
+import com.sm.patientservice.outbox.PatientEventOutbox;
+import com.sm.patientservice.pagination.PatientCursor;
+import com.sm.patientservice.repository.PatientListView;
 import com.sm.patientservice.repository.PatientRepository;
+import com.sm.patientservice.search.NameQuery;
+import com.sm.patientservice.search.PatientSearchBackend;
+import com.sm.patientservice.service.BillingReconciler;
 import com.sm.patientservice.service.PatientService;
+import com.sm.patientservice.utils.AppClock;
+import com.sm.patientservice.utils.TransactionUtils.TransactionKey;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import patient.events.EventType;
+
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
+import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -33,16 +58,30 @@ import static org.mockito.Mockito.*;
 class PatientServiceTest {
     @Mock
     private PatientRepository patientRepository;
+    @Mock
+    private PatientSearchBackend patientSearchBackend;
+    @Mock
+    private BillingReconciler billingReconciler;
+    @Mock
+    private PatientEventOutbox patientEventOutbox;
+    @Mock
+    private PatientCache patientCache;
+    @Mock
+    private EmailUniquenessGuard emailUniquenessGuard;
+    @Spy
+    private AppClock appClock = AppClock.system();
     @InjectMocks
     private PatientService patientService;
 
     private PatientCreateRequest request;
     private Patient patientEntity;
+    private PatientListView patientView;
     private com.sm.patientservice.model.dto.Patient patientDto;
     private UUID id;
 
     @BeforeEach
     void setUp() {
+        lenient().when(emailUniquenessGuard.mightBeTaken(anyString())).thenReturn(true);
         id = UUID.randomUUID();
         request = new PatientCreateRequest()
                 .firstName("John")
@@ -61,6 +100,8 @@ class PatientServiceTest {
         patientEntity.setGender("MALE");
         patientEntity.setAddress(new Address());
         patientEntity.setInsurance(new Insurance());
+        patientView = new PatientListView(id, "John", "Doe", LocalDate.of(1990, 1, 1), "john.doe@email.com",
+                "1234567890", "MALE", null, null, null, null, null, null, null, BillingStatus.ACTIVE, null, null, 0L);
         patientDto = new com.sm.patientservice.model.dto.Patient()
                 .id(id)
                 .firstName("John")
@@ -78,14 +119,67 @@ class PatientServiceTest {
         void shouldCreatePatient() {
             // given
             when(patientRepository.existsByEmailIgnoreCase(anyString())).thenReturn(false);
-            when(patientRepository.save(any())).thenReturn(patientEntity);
+            when(patientRepository.saveAndFlush(any())).thenReturn(patientEntity);
             try (var patientMapperMock = Mockito.mockStatic(PatientMapper.class)) {
-                patientMapperMock.when(() -> PatientMapper.toEntity(any())).thenReturn(patientEntity);
-                patientMapperMock.when(() -> PatientMapper.toDto(any())).thenReturn(patientDto);
+                patientMapperMock.when(() -> PatientMapper.toEntity(any(), any())).thenReturn(patientEntity);
+                patientMapperMock.when(() -> PatientMapper.toDto(any(Patient.class))).thenReturn(patientDto);
                 // when
                 var result = patientService.createPatient(request);
                 // then
                 assertThat(result).isEqualTo(patientDto);
+                verify(patientSearchBackend).indexPatient(patientEntity);
+                verify(patientEventOutbox).append(eq(id), argThat(event -> event.getEventType() == EventType.CREATED));
+                assertThat(patientEntity.getBillingStatus()).isEqualTo(BillingStatus.PENDING);
+            }
+        }
+
+        @Test
+        void shouldRequestBillingAccountOnlyAfterCommit() {
+            // given
+            when(patientRepository.existsByEmailIgnoreCase(anyString())).thenReturn(false);
+            when(patientRepository.saveAndFlush(any())).thenReturn(patientEntity);
+            TransactionSynchronizationManager.initSynchronization();
+            try (var patientMapperMock = Mockito.mockStatic(PatientMapper.class)) {
+                patientMapperMock.when(() -> PatientMapper.toEntity(any(), any())).thenReturn(patientEntity);
+                patientMapperMock.when(() -> PatientMapper.toDto(any(Patient.class))).thenReturn(patientDto);
+                // when
+                patientService.createPatient(request);
+                // then
+                verify(billingReconciler, never()).requestAccount(any());
+                TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+                verify(billingReconciler).requestAccount(patientEntity);
+            } finally {
+                TransactionSynchronizationManager.clear();
+            }
+        }
+
+        @Test
+        void shouldSkipEmailQueryIfEmailIsDefinitelyNew() {
+            // given
+            when(emailUniquenessGuard.mightBeTaken(anyString())).thenReturn(false);
+            when(patientRepository.saveAndFlush(any())).thenReturn(patientEntity);
+            try (var patientMapperMock = Mockito.mockStatic(PatientMapper.class)) {
+                patientMapperMock.when(() -> PatientMapper.toEntity(any(), any())).thenReturn(patientEntity);
+                patientMapperMock.when(() -> PatientMapper.toDto(any(Patient.class))).thenReturn(patientDto);
+                // when
+                patientService.createPatient(request);
+                // then
+                verify(emailUniquenessGuard).reserveForTransaction(eq("john.doe@email.com"), any(TransactionKey.class));
+                verify(patientRepository, never()).existsByEmailIgnoreCase(anyString());
+            }
+        }
+
+        @Test
+        void shouldMapEmailConstraintViolation() {
+            // given
+            when(patientRepository.existsByEmailIgnoreCase(anyString())).thenReturn(false);
+            when(patientRepository.saveAndFlush(any()))
+                    .thenThrow(new DataIntegrityViolationException("could not execute statement", new SQLException(
+                            "duplicate key value violates unique constraint \"idx_patient_email_lower\"", "23505")));
+            try (var patientMapperMock = Mockito.mockStatic(PatientMapper.class)) {
+                patientMapperMock.when(() -> PatientMapper.toEntity(any(), any())).thenReturn(patientEntity);
+                // when/then
+                assertThrows(EmailAlreadyExistException.class, () -> patientService.createPatient(request));
             }
         }
 
@@ -101,12 +195,18 @@ class PatientServiceTest {
     @Nested
     @DisplayName("getPatientById")
     class GetPatientById {
+        @BeforeEach
+        void readThroughCache() {
+            lenient().when(patientCache.get(eq(id), any())).thenAnswer(invocation ->
+                    invocation.<Function<UUID, VersionedPatient>>getArgument(1).apply(id));
+        }
+
         @Test
         void shouldReturnPatient() {
             // given
             when(patientRepository.findById(eq(id))).thenReturn(Optional.of(patientEntity));
             try (var patientMapperMock = Mockito.mockStatic(PatientMapper.class)) {
-                patientMapperMock.when(() -> PatientMapper.toDto(any())).thenReturn(patientDto);
+                patientMapperMock.when(() -> PatientMapper.toDto(any(Patient.class))).thenReturn(patientDto);
                 // when
                 var result = patientService.getPatientById(id);
                 // then
@@ -121,6 +221,28 @@ class PatientServiceTest {
             // when/then
             assertThrows(PatientNotExistException.class, () -> patientService.getPatientById(id));
         }
+
+        @Test
+        void shouldReturnCachedVersionWithoutQuery() {
+            // given
+            when(patientCache.getIfPresent(id)).thenReturn(new VersionedPatient(patientDto, 7L));
+            // when
+            long version = patientService.getPatientVersion(id);
+            // then
+            assertThat(version).isEqualTo(7L);
+            verifyNoInteractions(patientRepository);
+        }
+
+        @Test
+        void shouldQueryVersionOnCacheMiss() {
+            // given
+            when(patientRepository.findVersionById(id)).thenReturn(Optional.of(5L));
+            // when
+            long version = patientService.getPatientVersion(id);
+            // then
+            assertThat(version).isEqualTo(5L);
+            verify(patientRepository, never()).findById(any());
+        }
     }
 
     @Nested
@@ -129,20 +251,45 @@ class PatientServiceTest {
         @Test
         void shouldDeletePatient() {
             // given
-            when(patientRepository.existsById(eq(id))).thenReturn(true);
-            doNothing().when(patientRepository).deleteById(eq(id));
+            when(patientRepository.deleteByIdReturningCount(id)).thenReturn(1);
             // when
             patientService.deletePatient(id);
             // then
-            verify(patientRepository).deleteById(id);
+            verify(patientRepository, never()).existsById(any());
+            verify(patientRepository, never()).deleteById(any());
+            verify(patientSearchBackend).removePatient(id);
+            verify(patientCache).invalidate(id);
+            verify(patientEventOutbox).append(eq(id), argThat(event -> event.getEventType() == EventType.DELETED));
         }
 
         @Test
         void shouldThrowIfNotFound() {
             // given
-            when(patientRepository.existsById(eq(id))).thenReturn(false);
+            when(patientRepository.deleteByIdReturningCount(id)).thenReturn(0);
             // when/then
             assertThrows(PatientNotExistException.class, () -> patientService.deletePatient(id));
+            verifyNoInteractions(patientEventOutbox);
+        }
+
+        @Test
+        void shouldDeleteOnlyAtExpectedVersion() {
+            // given
+            when(patientRepository.deleteByIdAndVersion(id, 2L)).thenReturn(1);
+            // when
+            patientService.deletePatient(id, 2L);
+            // then
+            verify(patientRepository, never()).deleteById(any());
+            verify(patientEventOutbox).append(eq(id), argThat(event -> event.getEventType() == EventType.DELETED));
+        }
+
+        @Test
+        void shouldFailPreconditionIfVersionChanged() {
+            // given
+            when(patientRepository.deleteByIdAndVersion(id, 2L)).thenReturn(0);
+            when(patientRepository.existsById(id)).thenReturn(true);
+            // when/then
+            assertThrows(PreconditionFailedException.class, () -> patientService.deletePatient(id, 2L));
+            verifyNoInteractions(patientEventOutbox);
         }
     }
 
@@ -155,12 +302,13 @@ class PatientServiceTest {
             int page = 0;
             int size = 10;
             String name = "John";
-            var patientEntities = List.of(patientEntity);
+            var patientViews = List.of(patientView);
             var patientDtos = List.of(patientDto);
-            when(patientRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(
-                    anyString(), anyString(), any())).thenReturn(patientEntities);
+            when(patientSearchBackend.findPage(eq(new NameQuery("john", "john")), eq(page), eq(size)))
+                    .thenReturn(patientViews);
+            when(patientSearchBackend.countWithoutScan(any())).thenReturn(OptionalLong.of(1L));
             try (var patientMapperMock = Mockito.mockStatic(PatientMapper.class)) {
-                patientMapperMock.when(() -> PatientMapper.toDto(any())).thenReturn(patientDto);
+                patientMapperMock.when(() -> PatientMapper.toDto(any(PatientListView.class))).thenReturn(patientDto);
                 // when
                 var result = patientService.getPatients(name, page, size);
                 // then
@@ -169,6 +317,8 @@ class PatientServiceTest {
                 assertThat(result.meta.getPage()).isEqualTo(page + 1);
                 assertThat(result.meta.getSize()).isEqualTo(size);
                 assertThat(result.meta.getTotalItems()).isEqualTo(patientDtos.size());
+                assertThat(result.meta.getHasMore()).isFalse();
+                assertThat(result.meta.getNextCursor()).isNull();
             }
         }
 
@@ -178,20 +328,64 @@ class PatientServiceTest {
             int page = 10;
             int size = 10;
             String name = "John";
-            var patientEntities = List.of(patientEntity);
-            when(patientRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(
-                    anyString(), anyString(), any())).thenReturn(patientEntities);
+            when(patientSearchBackend.findPage(any(), eq(page), eq(size))).thenReturn(List.of());
+            when(patientSearchBackend.countWithoutScan(any())).thenReturn(OptionalLong.of(1L));
+            // when
+            var result = patientService.getPatients(name, page, size);
+            // then
+            assertThat(result.patients).isEmpty();
+            assertThat(result.meta.getTotalPages()).isEqualTo(1);
+            assertThat(result.meta.getTotalItems()).isEqualTo(1);
+            assertThat(result.meta.getHasMore()).isFalse();
+        }
+
+        @Test
+        void shouldSeekWithCursorAndReturnNextCursor() {
+            // given
+            var cursor = new PatientCursor("Doe", "Jane", UUID.randomUUID());
+            var rows = new java.util.ArrayList<PatientListView>();
+            for (int i = 0; i < 11; i++) {
+                rows.add(patientView);
+            }
+            when(patientRepository.findListViewsAfter(eq("Doe"), eq("Jane"), eq(cursor.id()), argThat(limit -> limit.max() == 11))).thenReturn(rows);
             try (var patientMapperMock = Mockito.mockStatic(PatientMapper.class)) {
-                patientMapperMock.when(() -> PatientMapper.toDto(any())).thenReturn(patientDto);
+                patientMapperMock.when(() -> PatientMapper.toDto(any(PatientListView.class))).thenReturn(patientDto);
                 // when
-                var result = patientService.getPatients(name, page, size);
+                var result = patientService.getPatients(null, 5, 10, cursor.encode(), "none");
                 // then
-                assertThat(result.patients).isEmpty();
-                assertThat(result.meta.getTotalPages()).isEqualTo(0);
-                assertThat(result.meta.getTotalItems()).isEqualTo(0);
+                assertThat(result.patients).hasSize(10);
+                assertThat(result.meta.getPage()).isNull();
+                assertThat(result.meta.getTotalItems()).isNull();
+                assertThat(result.meta.getHasMore()).isTrue();
+                assertThat(PatientCursor.decode(result.meta.getNextCursor())).isEqualTo(PatientCursor.of(patientView));
+                verify(patientRepository, never()).count();
             }
         }
 
+        @Test
+        void shouldNotCountNameSearchWithAScanUnlessExactTotalIsRequested() {
+            // given
+            when(patientSearchBackend.findPage(any(), eq(0), eq(10))).thenReturn(List.of());
+            when(patientSearchBackend.count(any())).thenReturn(3L);
+            // when
+            var estimated = patientService.getPatients("John", 0, 10, null, null);
+            var exact = patientService.getPatients("John", 0, 10, null, "exact");
+            // then
+            assertThat(estimated.meta.getTotalItems()).isNull();
+            assertThat(exact.meta.getTotalItems()).isEqualTo(3);
+            verify(patientSearchBackend).count(any());
+        }
+
+        @Test
+        void shouldThrowForInvalidTotalMode() {
+            assertThrows(InvalidTotalModeException.class, () -> patientService.getPatients(null, 0, 10, null, "sometimes"));
+        }
+
+        @Test
+        void shouldThrowForInvalidCursor() {
+            assertThrows(InvalidCursorException.class, () -> patientService.getPatients(null, 0, 10, "not-a-cursor", null));
+        }
+
         @Test
         void shouldThrowForInvalidPageOrSize() {
             assertThrows(IllegalArgumentException.class, () -> patientService.getPatients(null, -1, 10));
@@ -205,36 +399,81 @@ class PatientServiceTest {
         @Test
         void shouldUpdatePatient() {
             // given
-            when(patientRepository.existsById(eq(id))).thenReturn(true);
-            when(patientRepository.existsByEmailIgnoreCaseAndIdNot(anyString(), eq(id))).thenReturn(false);
             when(patientRepository.findById(eq(id))).thenReturn(Optional.of(patientEntity));
-            when(patientRepository.save(any())).thenReturn(patientEntity);
+            when(patientRepository.saveAndFlush(any())).thenReturn(patientEntity);
             try (var patientMapperMock = Mockito.mockStatic(PatientMapper.class);
                  var addressMapperMock = Mockito.mockStatic(com.sm.patientservice.mapper.AddressMapper.class);
                  var insuranceMapperMock = Mockito.mockStatic(com.sm.patientservice.mapper.InsuranceMapper.class)) {
-                patientMapperMock.when(() -> PatientMapper.toDto(any())).thenReturn(patientDto);
+                patientMapperMock.when(() -> PatientMapper.toDto(any(Patient.class))).thenReturn(patientDto);
                 addressMapperMock.when(() -> com.sm.patientservice.mapper.AddressMapper.toEntity(any())).thenReturn(new Address());
                 insuranceMapperMock.when(() -> com.sm.patientservice.mapper.InsuranceMapper.toEntity(any())).thenReturn(new Insurance());
                 // when
                 var result = patientService.updatePatient(id, request);
                 // then
                 assertThat(result).isEqualTo(patientDto);
+                assertThat(patientEntity.getUpdatedAt()).isNotNull();
+                verify(patientCache).invalidate(id);
+                verify(patientEventOutbox).appendUpdated(eq(id),
+                        argThat(before -> before.getPatentId().equals(id.toString())),
+                        argThat(after -> after.getEventType() == EventType.UPDATED));
+                // Unchanged email: no uniqueness check, and no statements besides the read and the update
+                verify(patientRepository, never()).existsById(any());
+                verify(patientRepository, never()).existsByEmailIgnoreCaseAndIdNot(anyString(), any());
+                verify(emailUniquenessGuard, never()).reserveForTransaction(anyString(), any());
             }
         }
 
         @Test
         void shouldThrowIfPatientNotFound() {
-            when(patientRepository.existsById(eq(id))).thenReturn(false);
+            when(patientRepository.findById(eq(id))).thenReturn(Optional.empty());
             assertThrows(PatientNotExistException.class, () -> patientService.updatePatient(id, request));
         }
 
+        @Test
+        void shouldFailPreconditionIfVersionChanged() {
+            // given
+            patientEntity.setVersion(4L);
+            when(patientRepository.findById(eq(id))).thenReturn(Optional.of(patientEntity));
+            // when/then
+            assertThrows(PreconditionFailedException.class, () -> patientService.updatePatient(id, request, 3L));
+            verify(patientRepository, never()).saveAndFlush(any());
+            verifyNoInteractions(patientEventOutbox);
+        }
+
+        @Test
+        void shouldCheckEmailWhenItChanges() {
+            // given
+            request.email("new.email@email.com");
+            when(patientRepository.findById(eq(id))).thenReturn(Optional.of(patientEntity));
+            when(patientRepository.existsByEmailIgnoreCaseAndIdNot("new.email@email.com", id)).thenReturn(false);
+            when(patientRepository.saveAndFlush(any())).thenReturn(patientEntity);
+            // when
+            patientService.updatePatient(id, request);
+            // then
+            verify(emailUniquenessGuard).reserveForTransaction("new.email@email.com", id);
+            assertThat(patientEntity.getEmail()).isEqualTo("new.email@email.com");
+        }
+
         @Test
         void shouldThrowIfEmailExists() {
-            when(patientRepository.existsById(eq(id))).thenReturn(true);
+            request.email("taken@email.com");
+            when(patientRepository.findById(eq(id))).thenReturn(Optional.of(patientEntity));
             when(patientRepository.existsByEmailIgnoreCaseAndIdNot(anyString(), eq(id))).thenReturn(true);
             assertThrows(EmailAlreadyExistException.class, () -> patientService.updatePatient(id, request));
         }
-    }
 
+        @Test
+        void shouldMapEmailConstraintViolation() {
+            // given
+            request.email("taken@email.com");
+            when(emailUniquenessGuard.mightBeTaken(anyString())).thenReturn(false);
+            when(patientRepository.findById(eq(id))).thenReturn(Optional.of(patientEntity));
+            when(patientRepository.saveAndFlush(any()))
+                    .thenThrow(new DataIntegrityViolationException("could not execute statement", new SQLException(
+                            "duplicate key value violates unique constraint \"idx_patient_email_lower\"", "23505")));
+            // when/then
+            assertThrows(EmailAlreadyExistException.class, () -> patientService.updatePatient(id, request));
+        }
+    }
 
-} 
\ No newline at end of file
+}
@@ -0,0 +1,126 @@
+package com.sm.patientservice;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sm.patientservice.datasource.ReadWriteRoutingDataSource;
+import com.sm.patientservice.datasource.ReadYourWritesGuard;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+
+    private ReadWriteRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new ReadWriteRoutingDataSource(
+            primary, replica, new ReadYourWritesGuard(Duration.ofSeconds(5)), new SimpleMeterRegistry());
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(0));
+        TransactionSynchronizationManager.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldRouteReadOnlyTransactionsToReplica() throws SQLException {
+        // given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        // when
+        dataSource.getConnection();
+        // then
+        verify(replica).getConnection();
+        verify(primary, never()).getConnection();
+        assertThat(ReadWriteRoutingDataSource.isCurrentTransactionOnReplica()).isTrue();
+    }
+
+    @Test
+    void shouldRouteReadWriteTransactionsToPrimary() throws SQLException {
+        // when
+        dataSource.getConnection();
+        // then
+        verify(primary).getConnection();
+        verify(replica, never()).getConnection();
+        assertThat(ReadWriteRoutingDataSource.isCurrentTransactionOnReplica()).isFalse();
+    }
+
+    @Test
+    void shouldKeepReadsOfRecentWriterOnPrimary() throws SQLException {
+        // given
+        authenticateAs("alice");
+        dataSource.getConnection();
+        commit();
+        // when
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        dataSource.getConnection();
+        // then
+        verify(primary, times(2)).getConnection();
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    void shouldNotPinWriterWhenTransactionRollsBack() throws SQLException {
+        // given
+        authenticateAs("alice");
+        dataSource.getConnection();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        // when
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        dataSource.getConnection();
+        // then
+        verify(replica).getConnection();
+    }
+
+    @Test
+    void shouldRouteOtherUsersToReplicaAfterWrite() throws SQLException {
+        // given
+        authenticateAs("alice");
+        dataSource.getConnection();
+        commit();
+        // when
+        authenticateAs("bob");
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        dataSource.getConnection();
+        // then
+        verify(replica).getConnection();
+    }
+
+    private static void authenticateAs(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+            UsernamePasswordAuthenticationToken.authenticated(username, null, List.of()));
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+}
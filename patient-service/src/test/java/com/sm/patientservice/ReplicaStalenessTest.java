@@ -0,0 +1,119 @@
+package com.sm.patientservice;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sm.patientservice.datasource.ReadWriteRoutingDataSource;
+import com.sm.patientservice.datasource.ReadYourWritesGuard;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Routes real transactions between two separate databases. The replica only sees what {@link #replicate()} copies
+ * over, so it lags until the test lets it catch up.
+ */
+class ReplicaStalenessTest {
+
+    private static final Duration READ_YOUR_WRITES_WINDOW = Duration.ofMillis(300);
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private JdbcTemplate routed;
+    private TransactionTemplate writes;
+    private TransactionTemplate reads;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        primary = new JdbcTemplate(database("primary-" + suffix));
+        replica = new JdbcTemplate(database("replica-" + suffix));
+        for (JdbcTemplate database : List.of(primary, replica)) {
+            database.execute("CREATE TABLE patient (id UUID PRIMARY KEY, last_name VARCHAR(50) NOT NULL)");
+        }
+
+        var routing = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(
+            primary.getDataSource(), replica.getDataSource(), new ReadYourWritesGuard(READ_YOUR_WRITES_WINDOW),
+            new SimpleMeterRegistry()));
+        routed = new JdbcTemplate(routing);
+        var transactionManager = new DataSourceTransactionManager(routing);
+        writes = new TransactionTemplate(transactionManager);
+        reads = new TransactionTemplate(transactionManager);
+        reads.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.execute("SHUTDOWN");
+        replica.execute("SHUTDOWN");
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldKeepWriterOnPrimaryUntilTheWindowEnds() {
+        // given
+        authenticateAs("alice");
+        writes.executeWithoutResult(status ->
+            routed.update("INSERT INTO patient (id, last_name) VALUES (?, ?)", UUID.randomUUID(), "Doe"));
+
+        // when/then: the writer reads its own write, everybody else reads the lagging replica
+        assertThat(readLastNames()).containsExactly("Doe");
+        authenticateAs("bob");
+        assertThat(readLastNames()).isEmpty();
+
+        // Once the window has passed the writer is back on the replica, which is still behind
+        authenticateAs("alice");
+        await().pollInSameThread()
+            .atMost(READ_YOUR_WRITES_WINDOW.multipliedBy(10))
+            .untilAsserted(() -> assertThat(readLastNames()).isEmpty());
+
+        replicate();
+        assertThat(readLastNames()).containsExactly("Doe");
+    }
+
+    @Test
+    void shouldNotPinAnonymousWriters() {
+        // given
+        writes.executeWithoutResult(status ->
+            routed.update("INSERT INTO patient (id, last_name) VALUES (?, ?)", UUID.randomUUID(), "Doe"));
+        // when
+        List<String> lastNames = readLastNames();
+        // then
+        assertThat(lastNames).isEmpty();
+    }
+
+    private List<String> readLastNames() {
+        return reads.execute(status -> routed.queryForList("SELECT last_name FROM patient", String.class));
+    }
+
+    private void replicate() {
+        primary.query("SELECT id, last_name FROM patient", row -> {
+            replica.update("MERGE INTO patient (id, last_name) KEY (id) VALUES (?, ?)",
+                row.getObject("id"), row.getString("last_name"));
+        });
+    }
+
+    private static DriverManagerDataSource database(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    private static void authenticateAs(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+            UsernamePasswordAuthenticationToken.authenticated(username, null, List.of()));
+    }
+
+}
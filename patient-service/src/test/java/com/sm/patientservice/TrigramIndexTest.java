@@ -0,0 +1,102 @@
+package com.sm.patientservice;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sm.patientservice.pagination.PatientCursor;
+import com.sm.patientservice.search.NameQuery;
+import com.sm.patientservice.search.TrigramIndex;
+
+class TrigramIndexTest {
+
+    private TrigramIndex index;
+    private UUID johnDoe;
+    private UUID janeDoe;
+    private UUID johnnySmith;
+    private UUID amandaMartinez;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        johnDoe = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        janeDoe = UUID.fromString("00000000-0000-0000-0000-000000000002");
+        johnnySmith = UUID.fromString("00000000-0000-0000-0000-000000000003");
+        amandaMartinez = UUID.fromString("00000000-0000-0000-0000-000000000004");
+        index.put(johnDoe, "John", "Doe");
+        index.put(janeDoe, "Jane", "Doe");
+        index.put(johnnySmith, "Johnny", "Smith");
+        index.put(amandaMartinez, "Amanda", "Martinez");
+    }
+
+    @Test
+    @DisplayName("matches substrings of first or last name ordered by last name, first name")
+    void shouldMatchSubstrings() {
+        assertThat(index.page(NameQuery.parse("ohn"), null, 0, 10)).containsExactly(johnDoe, johnnySmith);
+        assertThat(index.page(NameQuery.parse("doe"), null, 0, 10)).containsExactly(janeDoe, johnDoe);
+        assertThat(index.page(NameQuery.parse("amanda smith"), null, 0, 10)).containsExactly(amandaMartinez, johnnySmith);
+        assertThat(index.count(NameQuery.parse("an"))).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotMatchWhenTrigramsAreNotContiguous() {
+        index.put(UUID.randomUUID(), "Abcxbcd", "Zed");
+        assertThat(index.count(NameQuery.parse("abcd"))).isZero();
+    }
+
+    @Test
+    void shouldPageByOffsetAndCursor() {
+        NameQuery query = NameQuery.parse("o");
+        assertThat(index.page(query, null, 1, 1)).containsExactly(johnDoe);
+        assertThat(index.page(query, new PatientCursor("Doe", "John", johnDoe), 0, 10)).containsExactly(johnnySmith);
+    }
+
+    @Test
+    void shouldReflectUpdatesAndDeletes() {
+        index.put(johnDoe, "Jonathan", "Doe");
+        assertThat(index.page(NameQuery.parse("jonat"), null, 0, 10)).containsExactly(johnDoe);
+        assertThat(index.page(NameQuery.parse("john"), null, 0, 10)).containsExactly(johnnySmith);
+
+        index.remove(johnnySmith);
+        assertThat(index.count(NameQuery.parse("john"))).isZero();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("orders like the keyset queries: names by code point, ids as unsigned bytes")
+    void shouldOrderLikeTheDatabase() {
+        UUID low = UUID.fromString("7fffffff-ffff-ffff-ffff-ffffffffffff");
+        UUID high = UUID.fromString("80000000-0000-0000-0000-000000000000");
+        index.put(high, "Ann", "Lee");
+        index.put(low, "Ann", "Lee");
+        index.put(UUID.randomUUID(), "Ann", "lee");
+
+        assertThat(index.page(NameQuery.parse("lee"), null, 0, 2)).containsExactly(low, high);
+        assertThat(index.page(NameQuery.parse("lee"), new PatientCursor("Lee", "Ann", low), 0, 1)).containsExactly(high);
+    }
+
+    @Test
+    void shouldReuseIdsOfRemovedPatients() {
+        index.remove(janeDoe);
+        UUID janetDoe = UUID.randomUUID();
+        index.put(janetDoe, "Janet", "Doe");
+
+        assertThat(index.page(NameQuery.parse("doe"), null, 0, 10)).containsExactly(janetDoe, johnDoe);
+        assertThat(index.page(NameQuery.parse("ja"), null, 0, 10)).containsExactly(janetDoe);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldNotResurrectRowsRemovedWhileLoading() {
+        index.beginLoad();
+        index.remove(janeDoe);
+        index.load(janeDoe, "Jane", "Doe");
+        index.endLoad();
+        assertThat(index.page(NameQuery.parse("doe"), null, 0, 10)).containsExactly(johnDoe);
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.sm.patientservice;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.sm.patientservice.model.UuidV7Generator;
+
+class UuidV7GeneratorTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-14T13:26:53.589Z");
+
+    @Test
+    void shouldSetVersionVariantAndTimestamp() {
+        // given
+        UuidV7Generator generator = new UuidV7Generator(Clock.fixed(NOW, ZoneOffset.UTC), new Random(42));
+        // when
+        UUID id = generator.generate();
+        // then
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(id.getMostSignificantBits() >>> 16).isEqualTo(NOW.toEpochMilli());
+    }
+
+    @Test
+    void shouldGenerateIncreasingIdsWithinOneMillisecond() {
+        // given
+        UuidV7Generator generator = new UuidV7Generator(Clock.fixed(NOW, ZoneOffset.UTC), new Random(42));
+        // when
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(generator.generate());
+        }
+        // then
+        for (int i = 1; i < ids.size(); i++) {
+            assertThat(ids.get(i).toString()).isGreaterThan(ids.get(i - 1).toString());
+        }
+        assertThat(ids.get(ids.size() - 1).version()).isEqualTo(7);
+    }
+
+    @Test
+    void shouldStayIncreasingWhenClockStepsBack() {
+        // given
+        UuidV7Generator generator = new UuidV7Generator(new SteppingClock(NOW, NOW.minusSeconds(1)), new Random(42));
+        // when
+        UUID first = generator.generate();
+        UUID second = generator.generate();
+        // then
+        assertThat(second.toString()).isGreaterThan(first.toString());
+    }
+
+    private static final class SteppingClock extends Clock {
+
+        private final Instant[] instants;
+        private int next;
+
+        SteppingClock(Instant... instants) {
+            this.instants = instants;
+        }
+
+        @Override
+        public Instant instant() {
+            return instants[Math.min(next++, instants.length - 1)];
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+    }
+
+}
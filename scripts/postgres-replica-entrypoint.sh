@@ -0,0 +1,17 @@
+#!/bin/bash
+# Starts patient-service-db-replica as a streaming replica of $PRIMARY_HOST, cloning it on the first start.
+# WAL is replayed $REPLICA_APPLY_DELAY after the primary committed it, so replication lag is visible locally.
+set -e
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+  until pg_isready -h "$PRIMARY_HOST" -U replicator; do
+    sleep 1
+  done
+  mkdir -p "$PGDATA"
+  chown postgres:postgres "$PGDATA"
+  chmod 700 "$PGDATA"
+  PGPASSWORD="$REPLICATION_PASSWORD" gosu postgres \
+    pg_basebackup -h "$PRIMARY_HOST" -U replicator -D "$PGDATA" --write-recovery-conf --wal-method=stream
+fi
+
+exec gosu postgres postgres -c recovery_min_apply_delay="${REPLICA_APPLY_DELAY:-0}"